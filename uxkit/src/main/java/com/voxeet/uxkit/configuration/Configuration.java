@@ -31,4 +31,14 @@ public class Configuration {
      * Hold the Contextual configration instance this specific Configuration holder
      */
     public final Contextual Contextual = new Contextual();
+
+    /**
+     * Hold the VideoSwitch configuration instance for this specific Configuration holder
+     */
+    public final VideoSwitch VideoSwitch = new VideoSwitch();
+
+    /**
+     * Hold the Grid configuration instance for this specific Configuration holder
+     */
+    public final Grid Grid = new Grid();
 }
@@ -0,0 +1,28 @@
+package com.voxeet.uxkit.configuration;
+
+/**
+ * Hold the Configuration of the grid layout of the conference view
+ * <p>
+ * The grid is used by the views created from the GridConferenceSubViewProvider
+ */
+public class Grid {
+
+    public Grid() {
+
+    }
+
+    /**
+     * Set the maximum number of participants displayed in the grid, the other participants are not displayed
+     */
+    public int max_tiles = 25;
+
+    /**
+     * Set the maximum number of small tiles rendering their video at the same time, the others display the participant's name
+     */
+    public int max_video_tiles = 6;
+
+    /**
+     * Display the active speaker in a large tile above the grid
+     */
+    public boolean large_tile = true;
+}
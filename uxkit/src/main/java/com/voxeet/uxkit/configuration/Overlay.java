@@ -18,4 +18,22 @@ public class Overlay {
      * Set the background color when the overlay is minized
      */
     public Integer background_minimized_color = null;
+
+    /**
+     * Keep rendering the main video in the minimized overlay, every other video is detached while minimized
+     */
+    public boolean keep_video_when_minimized = true;
+
+    /**
+     * Move the overlay to the next activity as it is when the current activity pauses : its renderers, its cells and
+     * its state are kept and it is not laid out again unless the new window has another size. It is removed if no
+     * activity resumes shortly after
+     */
+    public boolean warm_transfer = true;
+
+    /**
+     * Create the overlay when the application is idle, before any conference, so that joining does not inflate it.
+     * The overlay is then held in memory while no conference is running, off by default
+     */
+    public boolean prepare_at_idle = false;
 }
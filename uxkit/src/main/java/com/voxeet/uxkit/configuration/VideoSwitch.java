@@ -0,0 +1,28 @@
+package com.voxeet.uxkit.configuration;
+
+/**
+ * Hold the Configuration for the automatic switches of the main video between the active speakers
+ * <p>
+ * A participant selected by the user is always displayed right away
+ */
+public class VideoSwitch {
+
+    public VideoSwitch() {
+
+    }
+
+    /**
+     * Set the minimum time in ms a participant is kept on the main video before switching to another speaker
+     */
+    public long minimum_dwell_time = 2000;
+
+    /**
+     * Set the time in ms the displayed participant must have been silent before switching to another speaker
+     */
+    public long grace_period = 1000;
+
+    /**
+     * Keep the displayed participant as long as it is still speaking, whatever the active speaker is
+     */
+    public boolean prefer_attached_stream = true;
+}
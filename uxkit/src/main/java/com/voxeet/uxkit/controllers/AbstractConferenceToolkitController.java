@@ -6,14 +6,15 @@ import android.os.Handler;
 import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
 import android.util.Log;
 import android.view.Gravity;
+import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 
 import com.voxeet.VoxeetSDK;
-import com.voxeet.android.media.MediaStream;
-import com.voxeet.android.media.stream.MediaStreamType;
 import com.voxeet.audio2.devices.MediaDevice;
 import com.voxeet.audio2.devices.description.ConnectionState;
 import com.voxeet.audio2.devices.description.DeviceType;
@@ -32,13 +33,12 @@ import com.voxeet.sdk.json.ConferenceEnded;
 import com.voxeet.sdk.json.RecordingStatusUpdatedEvent;
 import com.voxeet.sdk.models.Conference;
 import com.voxeet.sdk.models.Participant;
-import com.voxeet.sdk.models.v1.ConferenceParticipantStatus;
 import com.voxeet.sdk.models.v1.RecordingStatus;
-import com.voxeet.sdk.models.v2.ParticipantType;
 import com.voxeet.sdk.services.AudioService;
 import com.voxeet.sdk.services.ConferenceService;
 import com.voxeet.sdk.services.conference.information.ConferenceInformation;
 import com.voxeet.sdk.services.conference.information.ConferenceParticipantType;
+import com.voxeet.sdk.services.conference.information.ConferenceStatus;
 import com.voxeet.sdk.utils.AudioType;
 import com.voxeet.sdk.utils.Map;
 import com.voxeet.sdk.utils.Opt;
@@ -52,7 +52,12 @@ import com.voxeet.uxkit.implementation.overlays.abs.AbstractVoxeetOverlayView;
 import com.voxeet.uxkit.providers.containers.IVoxeetOverlayViewProvider;
 import com.voxeet.uxkit.providers.logics.IVoxeetSubViewProvider;
 import com.voxeet.uxkit.providers.rootview.AbstractRootViewProvider;
+import com.voxeet.uxkit.utils.AttachLatencyRecorder;
+import com.voxeet.uxkit.utils.ConferenceUIState;
 import com.voxeet.uxkit.utils.LoadLastSavedOverlayStateEvent;
+import com.voxeet.uxkit.utils.OverlayPreInflater;
+import com.voxeet.uxkit.utils.ParticipantCache;
+import com.voxeet.uxkit.utils.ParticipantViewPool;
 import com.voxeet.uxkit.utils.ToolkitUtils;
 import com.voxeet.uxkit.views.internal.VoxeetOverlayContainerFrameLayout;
 
@@ -62,7 +67,6 @@ import org.greenrobot.eventbus.ThreadMode;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
@@ -77,8 +81,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 
 public abstract class AbstractConferenceToolkitController implements VoxeetOverlayContainerFrameLayout.OnSizeChangedListener {
-    //TODO put this static variable into each controller with an abstract method to make sure of no collision with various impl
-    private static OverlayState SAVED_OVERLAY_STATE = null;
+    //time given to the next activity to resume before the overlay is removed, see onActivityPaused()
+    private final static int WARM_TRANSFER_TIMEOUT = 1000;
 
     public final Configuration Configuration = new Configuration();
 
@@ -111,7 +115,25 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     private String TAG = VoxeetConferenceView.class.getSimpleName();
     private boolean mIsViewRetainedOnLeave;
     private AbstractRootViewProvider mRootViewProvider;
-    private CopyOnWriteArrayList<Runnable> removeRunnables;
+    //conference status, overlay state to restore and deferred removals
+    private final ConferenceUIState mUIState = new ConferenceUIState();
+
+    //overlay attach driven by the activity readiness, see scheduleAttach()
+    private int mAttachGeneration = 0;
+    @Nullable
+    private Runnable mPendingAttach;
+    @Nullable
+    private View mPendingLayoutView;
+    @Nullable
+    private ViewTreeObserver.OnGlobalLayoutListener mPendingLayoutListener;
+    private final AttachLatencyRecorder mAttachLatency = new AttachLatencyRecorder();
+
+    //main view created ahead of time, see prepareMainView()
+    private final OverlayPreInflater mPreInflater = new OverlayPreInflater();
+    //last status handled, given to a main view created afterwards
+    @Nullable
+    private ConferenceStatusUpdatedEvent mLastStatus;
+
     private boolean showOnCreations = true; //it will make the overlay to be displayed on creating/created
 
     private AbstractConferenceToolkitController() {
@@ -119,7 +141,6 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     }
 
     protected AbstractConferenceToolkitController(Context context, EventBus eventbus) {
-        removeRunnables = new CopyOnWriteArrayList();
         mContext = context;
         mEventBus = eventbus;
 
@@ -136,24 +157,82 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     /**
      * Init the controller
      * <p>
-     * ensures the main view is valid
+     * ensures the main view is valid, the last status received is given to it
      */
     protected void init() {
         Activity activity = VoxeetToolkit.instance().getCurrentActivity();
 
-        Log.d(TAG, "init saved ?" + SAVED_OVERLAY_STATE);
-        if (null == SAVED_OVERLAY_STATE) {
-            SAVED_OVERLAY_STATE = getDefaultOverlayState();
+        //use the overlay prepared if any, create it now otherwise
+        AbstractVoxeetOverlayView view = mPreInflater.consume();
+        if (null == view) view = createMainView(activity);
+        mMainView = view;
+        mMainView.setUIState(mUIState);
+
+        if (null != AudioService.getSoundManager()) {
+            AudioService.getSoundManager().requestAudioFocus();
+        }
+
+        replayLastStatus();
+    }
+
+    /**
+     * Give the main view the last status handled before it existed
+     */
+    private void replayLastStatus() {
+        ConferenceStatusUpdatedEvent status = mLastStatus;
+        if (null == mMainView || null == status) return;
+
+        switch (status.state) {
+            case CREATING:
+                mMainView.onConferenceCreating();
+                break;
+            case CREATED:
+                if (null != status.conference) mMainView.onConferenceCreation(status.conference);
+                break;
+            case JOINING:
+                mMainView.onConferenceJoining(status.conference);
+                break;
+            case JOINED:
+                mMainView.onConferenceUsersListUpdate(getParticipants());
+                if (null != status.conference) mMainView.onConferenceJoined(status.conference);
+                break;
+            default:
+        }
+    }
+
+    @NonNull
+    private AbstractVoxeetOverlayView createMainView(Context context) {
+        Log.d(TAG, "init saved ?" + mUIState.getOverlayState());
+        if (null == mUIState.getOverlayState()) {
+            mUIState.setOverlayState(getDefaultOverlayState());
         }
 
-        OverlayState state = SAVED_OVERLAY_STATE;
-        mMainView = mVoxeetOverlayViewProvider.createView(activity,
+        OverlayState state = mUIState.getOverlayState();
+        return mVoxeetOverlayViewProvider.createView(context,
                 mVoxeetSubViewProvider,
                 state);
+    }
 
-        if (null != AudioService.getSoundManager()) {
-            AudioService.getSoundManager().requestAudioFocus();
-        }
+    /**
+     * Prepare the main view during the next idle pass, it is displayed once ready if a conference started meanwhile
+     *
+     * @param activity the activity the main view will be displayed in
+     * @param timeout  the delay in ms after which the main view is created even if the activity is not idle, 0 to
+     *                 only use the idle pass
+     */
+    private void prepareMainView(@NonNull Activity activity, long timeout) {
+        mPreInflater.prepare(activity, this::createMainView, () -> {
+            //kept for the next conference
+            if (!isInConference()) return;
+
+            if (null != mMainView) {
+                mPreInflater.clear();
+                return;
+            }
+
+            init();
+            displayView();
+        }, timeout);
     }
 
     /**
@@ -226,13 +305,6 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
             removeView(false, RemoveViewType.FROM_EVENT);
     }
 
-    private void flushRemoveRunnables() {
-        for (Runnable runnable : removeRunnables) {
-            mHandler.removeCallbacks(runnable);
-        }
-        removeRunnables.clear();
-    }
-
     public void forceReattach() {
 
     }
@@ -245,62 +317,182 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     }
 
     private void displayView() {
-        flushRemoveRunnables();
+        mUIState.cancelDeferred();
 
-        if (mMainView == null && isInConference()) {
+        //the main view being prepared will be displayed once ready
+        if (mMainView == null && isInConference() && !mPreInflater.isPending()) {
             init();
         }
 
         if (isOverlayEnabled() && isInConference()) {
-            mHandler.postDelayed(() -> {
-                try {
-                    //request audio focus and set in voice call
-                    AudioService service = VoxeetSDK.audio();
-                    service.requestAudioFocus();
-                    service.checkOutputRoute();
-
-                    log("run: add view" + mMainView);
-                    if (mMainView != null) {
-                        boolean added = false;
-                        Activity activity = getRootViewProvider().getCurrentActivity();
-                        ViewGroup root = getRootViewProvider().getRootView();
-
-                        if (!getRootViewProvider().isSameActivity()) {
-                            getRootViewProvider().detachRootViewFromParent();
-                        }
-
-                        ViewGroup viewHolder = (ViewGroup) mMainView.getParent();
-                        if (null != viewHolder && null != root && root != viewHolder) {
-                            Log.d(TAG, "run: REMOVING MAIN VIEW FROM HOLDER" + root + " " + viewHolder);
-                            //viewHolder.removeView(mMainView);
-                            viewHolder = (ViewGroup) mMainView.getParent();
-                            if (viewHolder != null)
-                                viewHolder.removeView(mMainView);
-                        }
-
-                        if (null != root && null != activity && !activity.isFinishing()) {
-
-                            getRootViewProvider().addRootView(AbstractConferenceToolkitController.this);
-
-                            if (null == mMainView.getParent()) {
-                                added = true;
-                                getRootViewProvider().getRootView().addView(mMainView, mParams);
-                            }
-
-                            mMainView.requestLayout();
-                            getRootViewProvider().getRootView().requestLayout();
-                            mMainView.onResume();
-
-                            if (added) mEventBus.post(new LoadLastSavedOverlayStateEvent());
-                        }
+            scheduleAttach();
+        }
+    }
+
+    /**
+     * Attach the main view once its activity is ready, any previous attempt is cancelled
+     */
+    private void scheduleAttach() {
+        cancelAttach();
+
+        final int generation = mAttachGeneration;
+        mPendingAttach = () -> tryAttach(generation);
+        mHandler.post(mPendingAttach);
+    }
+
+    private void cancelAttach() {
+        //pending attempts compare their generation before doing anything
+        mAttachGeneration++;
+
+        if (null != mPendingAttach) mHandler.removeCallbacks(mPendingAttach);
+        mPendingAttach = null;
+
+        if (null != mPendingLayoutView && null != mPendingLayoutListener) {
+            mPendingLayoutView.getViewTreeObserver().removeOnGlobalLayoutListener(mPendingLayoutListener);
+        }
+        mPendingLayoutView = null;
+        mPendingLayoutListener = null;
+    }
+
+    private void tryAttach(final int generation) {
+        if (generation != mAttachGeneration) return;
+        mPendingAttach = null;
+
+        if (!isOverlayEnabled() || !isInConference() || null == mMainView) return;
+
+        //a paused or finishing activity will call displayView() again when resumed
+        Activity activity = getRootViewProvider().getCurrentActivity();
+        if (null == activity || activity.isFinishing() || !getRootViewProvider().isCurrentActivityResumed()) {
+            log("tryAttach: waiting for a resumed activity");
+            return;
+        }
+
+        final View decorView = activity.getWindow().getDecorView();
+        if (!ViewCompat.isAttachedToWindow(decorView) || !ViewCompat.isLaidOut(decorView)) {
+            log("tryAttach: waiting for the first layout of " + activity);
+            mPendingLayoutView = decorView;
+            mPendingLayoutListener = new ViewTreeObserver.OnGlobalLayoutListener() {
+                @Override
+                public void onGlobalLayout() {
+                    decorView.getViewTreeObserver().removeOnGlobalLayoutListener(this);
+                    if (mPendingLayoutListener == this) {
+                        mPendingLayoutView = null;
+                        mPendingLayoutListener = null;
+                    }
+                    tryAttach(generation);
+                }
+            };
+            decorView.getViewTreeObserver().addOnGlobalLayoutListener(mPendingLayoutListener);
+            return;
+        }
+
+        attach();
+    }
+
+    private void attach() {
+        //ended once attached to the new activity, or if the move failed
+        AbstractVoxeetOverlayView transferred = null;
+        try {
+            //request audio focus and set in voice call
+            AudioService service = VoxeetSDK.audio();
+            service.requestAudioFocus();
+            service.checkOutputRoute();
+
+            log("run: add view" + mMainView);
+            if (mMainView != null) {
+                boolean added = false;
+                Activity activity = getRootViewProvider().getCurrentActivity();
+                ViewGroup root = getRootViewProvider().getRootView();
+
+                //still displayed by the previous activity, the laid out overlay is moved with its renderers
+                boolean transfer = Configuration.Overlay.warm_transfer && !getRootViewProvider().isSameActivity()
+                        && null != root && root == mMainView.getParent() && null != root.getParent()
+                        && ViewCompat.isLaidOut(mMainView);
+                if (transfer) {
+                    transferred = mMainView;
+                    transferred.onTransferStart();
+                }
+
+                if (!getRootViewProvider().isSameActivity()) {
+                    getRootViewProvider().detachRootViewFromParent();
+                }
+
+                ViewGroup viewHolder = (ViewGroup) mMainView.getParent();
+                if (null != viewHolder && null != root && root != viewHolder) {
+                    Log.d(TAG, "run: REMOVING MAIN VIEW FROM HOLDER" + root + " " + viewHolder);
+                    //viewHolder.removeView(mMainView);
+                    viewHolder = (ViewGroup) mMainView.getParent();
+                    if (viewHolder != null)
+                        viewHolder.removeView(mMainView);
+                }
+
+                if (null != root && null != activity && !activity.isFinishing()) {
+
+                    getRootViewProvider().addRootView(AbstractConferenceToolkitController.this);
+                    if (null != transferred) {
+                        transferred.onTransferEnd();
+                        transferred = null;
+                    }
+
+                    if (null == mMainView.getParent()) {
+                        added = true;
+                        getRootViewProvider().getRootView().addView(mMainView, mParams);
+                    }
+
+                    //adding the container to the new decor already lays it out, the overlay keeps its measures
+                    //unless the new window has another size
+                    if (!transfer) {
+                        mMainView.requestLayout();
+                        getRootViewProvider().getRootView().requestLayout();
+                    }
+                    mMainView.onResume();
+
+                    if (added) {
+                        watchFirstFrame(mMainView);
+                        mEventBus.post(new LoadLastSavedOverlayStateEvent());
                     }
-                } catch (Exception e) {
-                    ExceptionManager.sendException(e);
                 }
-            }, 1000);
+            }
+        } catch (Exception e) {
+            ExceptionManager.sendException(e);
+        } finally {
+            if (null != transferred) transferred.onTransferEnd();
         }
     }
 
+    private void watchFirstFrame(@NonNull final View view) {
+        if (!mAttachLatency.isMeasuring()) return;
+
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                mAttachLatency.onVisible();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Access the state of the conference UI managed by this controller
+     *
+     * @return the state owned by this controller
+     */
+    @NonNull
+    public ConferenceUIState getUIState() {
+        return mUIState;
+    }
+
+    /**
+     * Access the measures of the time spent between a conference status update and the display of the overlay
+     *
+     * @return the recorder owned by this controller
+     */
+    @NonNull
+    public AttachLatencyRecorder getAttachLatency() {
+        return mAttachLatency;
+    }
+
     public void removeView(final boolean should_release, final RemoveViewType from_type) {
         removeView(should_release, from_type, false, -1);
     }
@@ -310,6 +502,8 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     }
 
     public void removeView(final boolean should_release, final RemoveViewType from_type, boolean keepOverlayState, int timeout /* < 0 now*/) {
+        cancelAttach();
+
         final AbstractVoxeetOverlayView view = mMainView;
         final FrameLayout viewParent = getRootViewProvider().getRootView();
         final boolean release = !isEnabled() || (!RemoveViewType.FROM_HUD_BUT_KEEP_TIMEOUT.equals(from_type) && !isViewRetainedOnLeave());
@@ -322,7 +516,7 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
             //releasing the hold on the view
             if (statement_release) {
                 Log.d(TAG, "run: killing the saved overlay state 1");
-                if (!keepOverlayState) SAVED_OVERLAY_STATE = null;
+                if (!keepOverlayState) mUIState.setOverlayState(null);
 
                 mMainView = null;
 
@@ -353,9 +547,10 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
                 if (statement_release) {
                     //restore the saved state
                     Log.d("DefaultRootViewProvider", "run: killing the saved overlay state " + keepOverlayState);
-                    if (!keepOverlayState) SAVED_OVERLAY_STATE = null;
+                    if (!keepOverlayState) mUIState.setOverlayState(null);
 
                     Log.d(TAG, "run: AbstractConferenceToolkitController should release view " + view.getClass().getSimpleName());
+                    view.setUIState(null);
                     view.onDestroy();
                     //if we still have the main view displayed
                     //but wanted to clear it
@@ -371,16 +566,13 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
         //remove right now
         if (0 > timeout) {
             removeHold.run();
-            removeRunnables.add(runnable);
-            mHandler.post(runnable);
+            mUIState.defer(runnable, -1);
         } else {
             //after a delay
-            Runnable run = () -> {
+            mUIState.defer(() -> {
                 removeHold.run();
                 runnable.run();
-            };
-            removeRunnables.add(run);
-            mHandler.postDelayed(run, timeout);
+            }, timeout);
         }
     }
 
@@ -390,6 +582,11 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     public void onActivityResumed(Activity activity) {
         if (isEnabled() && isInConference() && null == mMainView) init();
 
+        //create the main view once the application is idle, the next conference will not have to
+        if (Configuration.Overlay.prepare_at_idle && isEnabled() && !isInConference() && null == mMainView) {
+            prepareMainView(activity, 0);
+        }
+
         if (mMainView != null) {
             displayView();
         }
@@ -397,15 +594,27 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
 
     /**
      * When activity pause, remove the main view
+     * <p>
+     * With a warm transfer, the main view is only removed if no other activity resumes before WARM_TRANSFER_TIMEOUT
      *
      * @param activity paused to
      */
     public void onActivityPaused(@NonNull Activity activity) {
         if (mMainView != null) {
-            removeView(false, RemoveViewType.FROM_HUD, true);
+            int timeout = Configuration.Overlay.warm_transfer ? WARM_TRANSFER_TIMEOUT : -1;
+            removeView(false, RemoveViewType.FROM_HUD, true, timeout);
         }
     }
 
+    /**
+     * When an activity is destroyed, the main view prepared with it is destroyed too
+     *
+     * @param activity destroyed
+     */
+    public void onActivityDestroyed(@NonNull Activity activity) {
+        mPreInflater.release(activity);
+    }
+
     /**
      * @param overlay as the new default
      */
@@ -437,7 +646,7 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     public void minimize() {
         Log.d("DefaultRootViewProvider", "minimize");
         if (null != mMainView) mMainView.minimize();
-        SAVED_OVERLAY_STATE = OverlayState.MINIMIZED;
+        mUIState.setOverlayState(OverlayState.MINIMIZED);
     }
 
     /**
@@ -446,7 +655,7 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     public void maximize() {
         Log.d("DefaultRootViewProvider", "maximize");
         if (null != mMainView) mMainView.expand();
-        SAVED_OVERLAY_STATE = OverlayState.EXPANDED;
+        mUIState.setOverlayState(OverlayState.EXPANDED);
     }
 
     /**
@@ -527,6 +736,34 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(@NonNull ConferenceStatusUpdatedEvent event) {
         Log.d("DefaultRootViewProvider", "onEvent: state " + event.state + " " + mMainView);
+        //the status of a conference not managed here must not be recorded
+        if (!validFilter(event.conference)) {
+            log("onEvent: " + event.state + " filtered");
+            return;
+        }
+
+        //a status already applied is not a transition
+        if (!mUIState.setConferenceStatus(event.state)) {
+            log("onEvent: " + event.state + " already applied");
+            return;
+        }
+
+        switch (event.state) {
+            case CREATING:
+            case CREATED:
+            case JOINING:
+            case JOINED:
+                if (null == mMainView || null == mMainView.getParent()) {
+                    mAttachLatency.start(event.state.name());
+                }
+                break;
+            case ERROR:
+            case LEFT:
+                mAttachLatency.cancel();
+                break;
+            default:
+        }
+
         switch (event.state) {
             case CREATING:
                 onConferenceCreatingEvent(event);
@@ -552,16 +789,22 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
             default:
 
         }
+
+        //recorded once handled, a main view created by the handler is given the previous status only
+        mLastStatus = event;
     }
 
     private void onConferenceCreatingEvent(ConferenceStatusUpdatedEvent event) {
         //TODO check for call ?
         //VoxeetSDK.audio().playSoundType(AudioType.RING);
+        //inflate the participant cells while the conference is being created
+        ParticipantViewPool.instance.prewarm(getContext());
+
         Activity activity = VoxeetToolkit.instance().getCurrentActivity();
 
         log("onEvent: " + event.getClass().getSimpleName() + " " + activity);
         if (activity != null) {
-            if (isEnabled() && isInConference() && null == mMainView) init();
+            if (isEnabled() && isInConference() && null == mMainView) prepareMainView(activity, OverlayPreInflater.DEFAULT_TIMEOUT);
 
             setParams();
 
@@ -583,10 +826,12 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
             Log.d(TAG, "onEvent: your current conference type is not compatible with ringing");
         }
 
+        ParticipantViewPool.instance.prewarm(getContext());
+
         Activity activity = VoxeetToolkit.instance().getCurrentActivity();
 
         if (activity != null && validFilter(Opt.of(event.conference).then(Conference::getId).or(""))) {
-            if (null == mMainView) init();
+            if (null == mMainView) prepareMainView(activity, OverlayPreInflater.DEFAULT_TIMEOUT);
 
             setParams();
 
@@ -637,9 +882,10 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
         if (showOnCreations)
             displayView();
 
-        if (validFilter(event.conference.getId()) && mMainView == null) init();
+        //the main view being prepared is given this status once ready
+        if (validFilter(event.conference.getId()) && mMainView == null && !mPreInflater.isPending()) init();
 
-        if (validFilter(event.conference.getId()) || validFilter(event.conference.getAlias())) {
+        if (null != mMainView && (validFilter(event.conference.getId()) || validFilter(event.conference.getAlias()))) {
             mMainView.onConferenceCreation(event.conference);
         }
     }
@@ -681,11 +927,25 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
 
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(UXKitNotInConferenceEvent event) {
+        //the same transition as a LEFT status, only applied once
+        if (!validFilter("") || !mUIState.setConferenceStatus(ConferenceStatus.LEFT)) {
+            log("onEvent: UXKitNotInConferenceEvent ignored");
+            return;
+        }
+
+        mAttachLatency.cancel();
         onConferenceLeftEvent(null);
+        mLastStatus = null;
+    }
+
+    private boolean validFilter(@Nullable Conference conference) {
+        if (null == conference) return validFilter("");
+        return validFilter(conference.getId()) || validFilter(conference.getAlias());
     }
 
     private void onConferenceLeftEvent(@Nullable ConferenceStatusUpdatedEvent event) {
         VoxeetSDK.audio().stop();
+        clearPreparedMainView();
 
         if (null != mMainView) {
             mMainView.onConferenceLeft();
@@ -697,6 +957,7 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
     private void onConferenceError(ConferenceStatusUpdatedEvent event) {
         Log.d("SoundPool", "onEvent: " + event.getClass().getSimpleName());
         VoxeetSDK.audio().stop();
+        clearPreparedMainView();
 
         if (null != mMainView) {
             mMainView.onConferenceError(event.error);
@@ -787,49 +1048,43 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
         if (null != mMainView) {
             mMainView.onConferenceUsersListUpdate(getParticipants());
             mMainView.minimize();
-            SAVED_OVERLAY_STATE = OverlayState.MINIMIZED;
+            mUIState.setOverlayState(OverlayState.MINIMIZED);
         }
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(@NonNull LoadLastSavedOverlayStateEvent event) {
-        Log.d("DefaultRootViewProvider", "onEvent: LoadLastSavedOverlayStateEvent " + SAVED_OVERLAY_STATE);
-        if (null != mMainView) {
-            OverlayState state = SAVED_OVERLAY_STATE;
-            if (null == state) state = getDefaultOverlayState();
+        Log.d("DefaultRootViewProvider", "onEvent: LoadLastSavedOverlayStateEvent " + mUIState.getOverlayState());
+        restoreOverlayState();
+    }
 
-            if (OverlayState.EXPANDED.equals(state)) {
-                maximize();
-            } else {
-                minimize();
-            }
+    /**
+     * Apply the saved overlay state to the main view, the default one if none was saved
+     */
+    private void restoreOverlayState() {
+        if (null == mMainView) return;
+
+        OverlayState state = mUIState.getOverlayState();
+        if (null == state) state = getDefaultOverlayState();
+
+        if (OverlayState.EXPANDED.equals(state)) {
+            maximize();
+        } else {
+            minimize();
         }
     }
 
+    private void clearPreparedMainView() {
+        mPreInflater.clear();
+    }
+
     private void log(@NonNull String value) {
         Log.d(TAG, value);
     }
 
     private void checkStopOutgoingCall() {
-        boolean found = null != Map.find(Opt.of(VoxeetSDK.conference())
-                        .then(ConferenceService::getParticipants).or(new ArrayList<>()),
-                participant -> {
-                    // if invalid or ourselves
-                    if (null == participant.getId() || participant.getId().equals(VoxeetSDK.session().getParticipantId()))
-                        return false;
-                    // if known as on air
-                    if (ConferenceParticipantStatus.ON_AIR.equals(participant.getStatus()))
-                        return true;
-                    // if not a user
-                    if (!ParticipantType.USER.equals(participant.participantType())) return false;
-                    // if connecting but with already a stream
-                    if (ConferenceParticipantStatus.CONNECTING.equals(participant.getStatus())) {
-                        MediaStream stream = participant.streamsHandler().getFirst(MediaStreamType.Camera);
-                        if (null == stream) return false;
-                        return stream.audioTracks().size() > 0 || stream.videoTracks().size() > 0;
-                    }
-                    return false;
-                });
+        // a remote participant on air, or a user connecting with already a stream
+        boolean found = ParticipantCache.instance.hasAnsweredParticipant();
 
         if (found) {
             VoxeetSDK.audio().stop();
@@ -843,18 +1098,8 @@ public abstract class AbstractConferenceToolkitController implements VoxeetOverl
 
     @Override
     public void onSizedChangedListener(@NonNull VoxeetOverlayContainerFrameLayout view) {
-        Log.d(TAG, "onSizedChangedListener: " + SAVED_OVERLAY_STATE);
-        if (null != mMainView) {
-            switch (SAVED_OVERLAY_STATE) {
-                case MINIMIZED:
-                    minimize();
-                    break;
-                case EXPANDED:
-                    maximize();
-                    break;
-                default:
-            }
-        }
+        Log.d(TAG, "onSizedChangedListener: " + mUIState.getOverlayState());
+        restoreOverlayState();
     }
 
     @NonNull
@@ -15,6 +15,9 @@ import com.voxeet.uxkit.BuildConfig;
 import com.voxeet.uxkit.implementation.overlays.OverlayState;
 import com.voxeet.uxkit.providers.rootview.AbstractRootViewProvider;
 import com.voxeet.uxkit.providers.rootview.DefaultRootViewProvider;
+import com.voxeet.uxkit.utils.ParticipantCache;
+import com.voxeet.uxkit.utils.VideoViewPool;
+import com.voxeet.uxkit.utils.VoxeetSpeakersTimerInstance;
 
 import org.greenrobot.eventbus.EventBus;
 
@@ -35,6 +38,7 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
 
     private boolean mIsOverEnabled;
     private List<AbstractConferenceToolkitController> mConferenceToolkitControllers;
+    private VideoViewPool mVideoViewPool;
 
 
     /**
@@ -116,6 +120,18 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
         return getAbstractToolkit(ConferenceToolkitController.class);
     }
 
+    /**
+     * Get the pool of renderers shared by the views of the UXKit
+     *
+     * @return the pool
+     */
+    @NonNull
+    public VideoViewPool getVideoViewPool() {
+        isInitialized();
+
+        return mVideoViewPool;
+    }
+
 
     /**
      * Enables or disables the voxeet conference view. This custom view will appear and disappear
@@ -159,6 +175,9 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
 
     @Override
     public void onActivityResumed(@NonNull Activity activity) {
+        //the speakers timer suspends itself while in background
+        VoxeetSpeakersTimerInstance.instance.wakeUp();
+
         for (AbstractConferenceToolkitController controller : mConferenceToolkitControllers) {
             controller.onActivityResumed(activity);
         }
@@ -183,7 +202,9 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
 
     @Override
     public void onActivityDestroyed(Activity activity) {
-
+        for (AbstractConferenceToolkitController controller : mConferenceToolkitControllers) {
+            controller.onActivityDestroyed(activity);
+        }
     }
 
     /**
@@ -235,6 +256,13 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
 
         mIsInit = true;
 
+        //shared by the views, rebuilt on participant and stream events
+        ParticipantCache.instance.register(eventBus);
+
+        //renderers kept across conferences, released when the system needs memory
+        mVideoViewPool = new VideoViewPool(application);
+        application.registerComponentCallbacks(mVideoViewPool);
+
         registerConferenceToolkitController(new ConferenceToolkitController(application, eventBus, OverlayState.MINIMIZED));
         registerConferenceToolkitController(new ReplayMessageToolkitController(application, eventBus, OverlayState.MINIMIZED));
     }
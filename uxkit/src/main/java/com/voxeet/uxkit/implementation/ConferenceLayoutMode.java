@@ -0,0 +1,16 @@
+package com.voxeet.uxkit.implementation;
+
+/**
+ * Layout of the VoxeetConferenceView when expanded
+ */
+public enum ConferenceLayoutMode {
+    /**
+     * The active speaker in full screen, the participants in a list
+     */
+    SPEAKER,
+
+    /**
+     * The participants in a grid, the active speaker in a large tile
+     */
+    GRID
+}
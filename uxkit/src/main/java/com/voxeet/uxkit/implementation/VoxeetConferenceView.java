@@ -2,8 +2,10 @@ package com.voxeet.uxkit.implementation;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
 import android.support.annotation.StringRes;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -31,8 +33,6 @@ import com.voxeet.sdk.json.VideoPresentationStopped;
 import com.voxeet.sdk.media.audio.SoundManager;
 import com.voxeet.sdk.models.Conference;
 import com.voxeet.sdk.models.Participant;
-import com.voxeet.sdk.models.v1.ConferenceParticipantStatus;
-import com.voxeet.sdk.models.v2.ParticipantType;
 import com.voxeet.sdk.services.ConferenceService;
 import com.voxeet.sdk.services.conference.information.ConferenceInformation;
 import com.voxeet.sdk.services.conference.information.ConferenceParticipantType;
@@ -41,14 +41,23 @@ import com.voxeet.sdk.utils.Filter;
 import com.voxeet.sdk.utils.Opt;
 import com.voxeet.sdk.views.VideoView;
 import com.voxeet.uxkit.R;
+import com.voxeet.uxkit.configuration.VideoSwitch;
 import com.voxeet.uxkit.configuration.ActionBar;
 import com.voxeet.uxkit.configuration.Configuration;
+import com.voxeet.uxkit.configuration.Grid;
 import com.voxeet.uxkit.controllers.VoxeetToolkit;
 import com.voxeet.uxkit.implementation.devices.VoxeetMediaRoutePickerView;
 import com.voxeet.uxkit.implementation.overlays.abs.AbstractVoxeetExpandableView;
+import com.voxeet.uxkit.utils.ConferenceUIState;
 import com.voxeet.uxkit.utils.ConferenceViewRendererControl;
 import com.voxeet.uxkit.utils.IParticipantViewListener;
+import com.voxeet.uxkit.utils.MainVideoSwitchPolicy;
+import com.voxeet.uxkit.utils.ParticipantCache;
+import com.voxeet.uxkit.utils.RenderingSuspension;
 import com.voxeet.uxkit.utils.ToolkitUtils;
+import com.voxeet.uxkit.utils.VideoLayout;
+import com.voxeet.uxkit.utils.VideoLayoutReconciler;
+import com.voxeet.uxkit.utils.VideoViewRenderer;
 import com.voxeet.uxkit.utils.VoxeetSpeakersTimerInstance;
 import com.voxeet.uxkit.views.NotchAvoidView;
 
@@ -77,6 +86,11 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Nullable
     private VideoView videoView;
 
+    @Nullable
+    private VoxeetGridView gridView;
+
+    private ConferenceLayoutMode layoutMode = ConferenceLayoutMode.SPEAKER;
+
     private VideoView selfVideoView;
     private ViewGroup layoutParticipant;
 
@@ -89,16 +103,41 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     private String mPreviouslyAttachedPeerId;
     private boolean mPreviouslyScreenShare;
     private TextView conferenceState;
-    private ConferenceStatus mState = ConferenceStatus.DEFAULT;
+    //last status applied to the views, see applyConferenceState(), without initializer since bindView can set it
+    @Nullable
+    private ConferenceStatus appliedState;
+    private boolean appliedExpanded;
     private boolean isExpanded = false;
     private ScaleGestureDetector mScaleOnPinchDetector;
 
     private ConferenceViewRendererControl mConferenceViewRendererControl;
 
+    private VideoLayoutReconciler<MediaStream> layoutReconciler;
+
+    //created in bindView, which is called by the super constructor before the fields are initialized
+    private MainVideoSwitchPolicy switchPolicy;
+    private Runnable reevaluateMainSpeaker;
+    private RenderingSuspension renderingSuspension;
+
     private VoxeetMediaRoutePickerView mediaRoutePicker;
     private SoundManager.Call<List<MediaDevice>> onDevices = this::refreshConnectedDevice;
 
     private boolean resumed = false;
+    private boolean stopped = false;
+
+    //moved to another activity, see onTransferStart()
+    private boolean transferring = false;
+
+    //state of the controller hosting this view, see setUIState()
+    @Nullable
+    private ConferenceUIState uiState;
+
+    //posted so that the callbacks forwarded by the controller for the same transition run first
+    private final Runnable deferredApplyConferenceState = this::applyConferenceState;
+    private final ConferenceUIState.Listener onConferenceStatusChanged = (previous, status) -> {
+        removeCallbacks(deferredApplyConferenceState);
+        post(deferredApplyConferenceState);
+    };
 
     @Nullable
     private MediaDevice connectedDevice;
@@ -117,6 +156,19 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         internalInit();
     }
 
+    /**
+     * Instantiates a new Voxeet conference view.
+     *
+     * @param context    the context
+     * @param layoutMode the layout used when expanded
+     */
+    public VoxeetConferenceView(Context context, @NonNull ConferenceLayoutMode layoutMode) {
+        super(context);
+
+        this.layoutMode = layoutMode;
+        internalInit();
+    }
+
     /**
      * Check if audio mode or video mode is activated. For now, always video mode enabled
      *
@@ -126,6 +178,20 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         return true;
     }
 
+    /**
+     * Check if the participants are currently displayed in the grid
+     *
+     * @return true in the grid layout mode when expanded, the minimized view always displays the active speaker
+     */
+    private boolean isGridDisplayed() {
+        return ConferenceLayoutMode.GRID.equals(layoutMode) && isExpanded;
+    }
+
+    @NonNull
+    public ConferenceLayoutMode getLayoutMode() {
+        return layoutMode;
+    }
+
     @SuppressLint("ClickableViewAccessibility")
     private void internalInit() {
         if (null == voxeetActiveSpeakerTimer)
@@ -200,6 +266,36 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
+        //moved to another activity, nothing was released
+        if (transferring) return;
+
+        onAttached();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (!transferring) onDetached();
+
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public void onTransferStart() {
+        super.onTransferStart();
+        transferring = true;
+    }
+
+    @Override
+    public void onTransferEnd() {
+        super.onTransferEnd();
+        transferring = false;
+
+        //the move failed, release what was kept for it
+        if (!ViewCompat.isAttachedToWindow(this) && null != voxeetActiveSpeakerTimer) onDetached();
+    }
+
+    private void onAttached() {
+        if (null != uiState) uiState.addListener(onConferenceStatusChanged);
         if (null == voxeetActiveSpeakerTimer)
             voxeetActiveSpeakerTimer = VoxeetSpeakersTimerInstance.instance;
 
@@ -228,23 +324,24 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         connectedDevice = null;
     }
 
-    @Override
-    protected void onDetachedFromWindow() {
+    private void onDetached() {
         VoxeetSDK.audio().unregisterUpdateDevices(onDevices);
+        if (null != uiState) uiState.removeListener(onConferenceStatusChanged);
+        removeCallbacks(deferredApplyConferenceState);
         resumed = false;
+        refreshVideoActivated();
         voxeetActiveSpeakerTimer.stop();
         voxeetActiveSpeakerTimer = null;
         if (EventBus.getDefault().isRegistered(this)) {
             EventBus.getDefault().unregister(this);
         }
-
-        super.onDetachedFromWindow();
     }
 
     @Override
     public void onResume() {
         super.onResume();
 
+        stopped = false;
         refreshUI();
     }
 
@@ -274,48 +371,21 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
         selfVideoView.requestLayout();
 
-        ConferenceInformation information = VoxeetSDK.conference().getCurrentConference();
-        if (null != information) {
-            switch (information.getConferenceState()) {
-                case DEFAULT:
-                case CREATING:
-                    onConferenceCreating();
-                    break;
-                case CREATED:
-                    onConferenceCreation(information.getConference());
-                    break;
-                case JOINING:
-                    onConferenceJoining(information.getConference());
-                    break;
-                case JOINED:
-                    onConferenceJoined(information.getConference());
-                    break;
-                case FIRST_PARTICIPANT:
-                    onConferenceFromNoOneToOneUser();
-                    break;
-                case NO_MORE_PARTICIPANT:
-                    onConferenceNoMoreUser();
-                    break;
-                case LEAVING:
-                case LEFT:
-                    onConferenceLeaving();
-            }
-        }
+        applyConferenceState();
     }
 
     @Override
     public void onStop() {
         super.onStop();
 
-        if (null != selfVideoView) {
-            selfVideoView.unAttach();
-        }
-
         if (null != videoView) {
             mPreviouslyAttachedPeerId = videoView.getPeerId();
             mPreviouslyScreenShare = videoView.isScreenShare();
-            videoView.unAttach();
         }
+
+        //every renderer is detached until resumed
+        stopped = true;
+        refreshVideoActivated();
     }
 
     @Override
@@ -333,11 +403,14 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
             videoView.unAttach();
         }
+
+        if (null != gridView) gridView.release();
     }
 
     @Override
     public void onConferenceCreating() {
         super.onConferenceCreating();
+        markApplied(ConferenceStatus.CREATING);
 
         //expanded and minimized
         conferenceState.setVisibility(View.VISIBLE);
@@ -357,6 +430,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onConferenceCreation(@NonNull Conference conference) {
         super.onConferenceCreation(conference);
+        markApplied(ConferenceStatus.CREATED);
 
         //expanded and minimized
         updateTextState(R.string.voxeet_call);
@@ -376,6 +450,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onConferenceJoining(@NonNull Conference conference) {
         super.onConferenceJoining(conference);
+        markApplied(ConferenceStatus.JOINING);
 
         //expanded and minimized
         updateTextState(R.string.voxeet_call);
@@ -396,6 +471,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onConferenceJoined(@NonNull Conference conference) {
         super.onConferenceJoined(conference);
+        markApplied(ConferenceStatus.JOINED);
 
         updateTextState(R.string.voxeet_call);
         conferenceState.setVisibility(View.VISIBLE);
@@ -432,6 +508,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onConferenceFromNoOneToOneUser() {
         super.onConferenceFromNoOneToOneUser();
+        markApplied(ConferenceStatus.FIRST_PARTICIPANT);
 
         conferenceState.setVisibility(View.GONE);
         if (isExpanded) {
@@ -468,6 +545,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onConferenceNoMoreUser() {
         super.onConferenceNoMoreUser();
+        markApplied(ConferenceStatus.NO_MORE_PARTICIPANT);
 
         String ownUserId = VoxeetSDK.session().getParticipantId();
         if (null == ownUserId) ownUserId = "";
@@ -503,6 +581,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onConferenceLeaving() {
         super.onConferenceLeaving();
+        markApplied(ConferenceStatus.LEAVING);
 
         //don't call updateUi here
 
@@ -527,6 +606,10 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     public void onConferenceDestroyed() {
         super.onConferenceDestroyed();
 
+        removeCallbacks(reevaluateMainSpeaker);
+        switchPolicy.reset();
+        if (null != gridView) gridView.release();
+
         if (null != selfVideoView) {
             selfVideoView.unAttach();
         }
@@ -539,6 +622,11 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onConferenceLeft() {
         super.onConferenceLeft();
+        markApplied(ConferenceStatus.LEFT);
+
+        removeCallbacks(reevaluateMainSpeaker);
+        switchPolicy.reset();
+        if (null != gridView) gridView.release();
 
         if (null != selfVideoView) {
             selfVideoView.unAttach();
@@ -582,143 +670,245 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
     private void refreshVideoActivated() {
         boolean isVideoActivated = isVideoActivated();
+        updateRenderingSuspension();
 
+        //the grid renders the participants' videos, the hidden list must not
         if (null != participantView)
-            participantView.setVideoActivable(isVideoActivated);
+            participantView.setVideoActivable(isVideoActivated && !isGridDisplayed() && !renderingSuspension.isSuspended());
 
         refreshMediaStreams();
     }
 
+    /**
+     * Suspend the renderers in background and when minimized, only the main video being kept if configured.
+     * When resumed, the participant previously displayed is displayed again
+     */
+    private void updateRenderingSuspension() {
+        if (null == renderingSuspension) return;
+
+        RenderingSuspension.Level level = RenderingSuspension.Level.NONE;
+        if (!resumed || stopped) {
+            level = RenderingSuspension.Level.ALL;
+        } else if (!isExpanded) {
+            boolean keepMain = VoxeetToolkit.instance().getConferenceToolkit().Configuration.Overlay.keep_video_when_minimized;
+            level = keepMain ? RenderingSuspension.Level.KEEP_MAIN : RenderingSuspension.Level.ALL;
+        }
+
+        String mainPeerId = null != videoView && videoView.isAttached() ? videoView.getPeerId() : null;
+        if (renderingSuspension.setLevel(level, mainPeerId)) {
+            String previous = renderingSuspension.getSuspendedMainPeerId();
+            if (null != previous && MainVideoSwitchPolicy.DEFAULT_STATE.isAvailable(previous)) {
+                switchPolicy.force(previous, SystemClock.uptimeMillis());
+            }
+        }
+    }
+
     private void refreshMediaStreams() {
-        String localUserId = VoxeetSDK.session().getParticipantId();
-        if (null == localUserId) localUserId = "";
-        ConferenceService service = VoxeetSDK.conference();
-        List<Participant> users = service.getParticipants();
+        updateRenderingSuspension();
 
-        String currentUserAttached = videoView.getPeerId();
-        Participant localUser = service.findParticipantById(localUserId);
-        Participant user = service.findParticipantById(currentUserAttached);
-        MediaStream localUserMediaStream = Opt.of(localUser).then(Participant::streamsHandler).then(s -> s.getFirst(MediaStreamType.Camera)).orNull();
+        //only the differences with the current renderers' state are applied
+        layoutReconciler.apply(desiredLayout());
+        refreshGrid();
+        renderingSuspension.onRestored();
 
-        if (hasParticipants() && localUserId.equalsIgnoreCase(currentUserAttached)) {
-            currentUserAttached = null;
-            videoView.unAttach();
-            videoView.setMirror(false);
+        if ((null != videoView && videoView.isAttached()) || (null != gridView && gridView.getRenderingCount() > 0)) {
+            if (null != uiState) uiState.onVideoDisplayed();
         }
 
-        if (null != currentUserAttached) {
-            MediaStream stream = Opt.of(user).then(Participant::streamsHandler).then(s -> s.getFirst(MediaStreamType.Camera)).orNull();
-            MediaStream screenShareStream = Opt.of(user).then(Participant::streamsHandler).then(s -> s.getFirst(MediaStreamType.ScreenShare)).orNull();
-            boolean unAttach = true;
-            boolean hasScreenShare = null != screenShareStream && screenShareStream.videoTracks().size() > 0;
-            boolean hasVideo = null != stream && stream.videoTracks().size() > 0;
-            if (hasScreenShare) {
-                unAttach = false;
-            } else if (hasVideo) {
-                unAttach = false;
-            }
+        conferenceBarView.invalidateOwnStreams();
+
+        ConferenceInformation information = VoxeetSDK.conference().getCurrentConference();
 
-            if (unAttach) videoView.unAttach();
+        boolean enableInConfiguration = VoxeetToolkit.instance().getConferenceToolkit().Configuration.ActionBar.displayScreenShare;
+        if (enableInConfiguration && null != information && !information.isListener()) {
+            conferenceBarView.setDisplayScreenShare(true);
+        } else {
+            conferenceBarView.setDisplayScreenShare(false);
         }
 
-        String currentActiveSpeaker = getCurrentActiveSpeaker();
+    }
+
+    /**
+     * Compute the layout to render from the current state of the conference
+     *
+     * @return the desired layout
+     */
+    @NonNull
+    private VideoLayout<MediaStream> desiredLayout() {
+        String localUserId = Opt.of(VoxeetSDK.session().getParticipantId()).or("");
+        ConferenceService service = VoxeetSDK.conference();
+        boolean hasParticipants = hasParticipants();
+        boolean frontFacing = VoxeetSDK.mediaDevice().getCameraContext().isDefaultFrontFacing();
 
+        VideoLayout.Slot<MediaStream> main = VideoLayout.Slot.none(false);
         if (!isVideoActivated()) {
             Log.d(TAG, "refreshMediaStreams: audio mode only, no video");
-            videoView.unAttach();
-        } else if (null != currentActiveSpeaker) { //else, do we have an active speaker ?
-            if (null != videoView.getPeerId() || videoView.isAttached()) {
-                //should we unattach ?
-                if (!currentActiveSpeaker.equals(videoView.getPeerId())) {
-                    videoView.unAttach();
-                }
+        } else if (!renderingSuspension.isMainAllowed()) {
+            //the renderers are suspended
+        } else if (isGridDisplayed()) {
+            //the grid renders the remote participants by itself
+        } else {
+            String currentActiveSpeaker = selectMainSpeaker(getCurrentActiveSpeaker());
+            if (null != currentActiveSpeaker) {
+                main = findMainSlot(currentActiveSpeaker, localUserId, service.getParticipants());
+            } else {
+                main = currentMainSlot(localUserId, hasParticipants, frontFacing);
             }
+        }
+
+        //participants are here so we don't have our own video on top
+        //force unmirrored view with participants
+        boolean mainVisible = hasParticipants && main.hasStream();
+        main = main.visible(mainVisible);
+        if (mainVisible) main = main.mirror(false);
+
+        Participant localUser = service.findParticipantById(localUserId);
+        MediaStream localUserMediaStream = Opt.of(localUser).then(Participant::streamsHandler).then(s -> s.getFirst(MediaStreamType.Camera)).orNull();
 
-            loopUserForStreamInVideoViewIfUnattached(currentActiveSpeaker, users, MediaStreamType.ScreenShare);
-            loopUserForStreamInVideoViewIfUnattached(currentActiveSpeaker, users, MediaStreamType.Camera);
+        VideoLayout.Slot<MediaStream> self = VideoLayout.Slot.none(false);
+        if (!renderingSuspension.isSuspended() && ToolkitUtils.hasVideo(localUserMediaStream)) {
+            self = VideoLayout.Slot.of(localUserId, MediaStreamType.Camera, localUserMediaStream, frontFacing, isExpanded);
         }
 
-        if (null != localUserMediaStream) {
-            if (localUserMediaStream.videoTracks().size() > 0) {
-                selfVideoView.attach(localUserId, localUserMediaStream);
+        return new VideoLayout<>(main, self, hasParticipants && !main.hasStream() && !isGridDisplayed());
+    }
 
-                selfVideoView.setMirror(VoxeetSDK.mediaDevice().getCameraContext().isDefaultFrontFacing());
-                if (isExpanded) selfVideoView.setVisibility(View.VISIBLE);
-                else selfVideoView.setVisibility(View.GONE);
-            } else {
-                selfVideoView.unAttach();
-                selfVideoView.setVisibility(View.GONE);
+    /**
+     * Display the participants in the grid, or release the grid's renderers when it is not displayed
+     */
+    private void refreshGrid() {
+        if (null == gridView) return;
+
+        if (!isGridDisplayed()) {
+            if (View.GONE != gridView.getVisibility()) {
+                gridView.release();
+                gridView.setVisibility(View.GONE);
             }
+            return;
         }
 
-        if (!hasParticipants()) {
-            currentSpeakerView.setVisibility(View.GONE);
-            videoView.setVisibility(View.GONE);
-        } else if (!videoView.isAttached()) {
-            currentSpeakerView.onResume();
-            currentSpeakerView.setVisibility(View.VISIBLE);
-            videoView.unAttach();
-            videoView.setVisibility(View.GONE);
-        } else {
-            //participants are here so we don't have our own video on top
-            //force unmirrored view with participants
-            videoView.setMirror(false);
-            currentSpeakerView.onPause();
-            currentSpeakerView.setVisibility(View.GONE);
+        //the tiles are kept to be restored as they were
+        if (renderingSuspension.isSuspended()) {
+            gridView.suspend();
+            return;
         }
 
-        conferenceBarView.invalidateOwnStreams();
+        //the large tile follows the same switching policy as the main video
+        String featured = isVideoActivated() ? selectMainSpeaker(getCurrentActiveSpeaker()) : null;
+        Grid configuration = VoxeetToolkit.instance().getConferenceToolkit().Configuration.Grid;
 
-        ConferenceInformation information = VoxeetSDK.conference().getCurrentConference();
+        gridView.setVisibility(View.VISIBLE);
+        gridView.update(getParticipants(), featured, configuration);
+    }
 
-        boolean enableInConfiguration = VoxeetToolkit.instance().getConferenceToolkit().Configuration.ActionBar.displayScreenShare;
-        if (enableInConfiguration && null != information && !information.isListener()) {
-            conferenceBarView.setDisplayScreenShare(true);
-        } else {
-            conferenceBarView.setDisplayScreenShare(false);
+    /**
+     * Apply the switching policy to the active speaker, a participant selected by the user is displayed right away
+     *
+     * @param activeSpeaker the current active speaker
+     * @return the participant to display
+     */
+    @Nullable
+    private String selectMainSpeaker(@Nullable String activeSpeaker) {
+        long now = SystemClock.uptimeMillis();
+        removeCallbacks(reevaluateMainSpeaker);
+
+        String selected = Opt.of(participantSelected).then(Participant::getId).orNull();
+        if (null != activeSpeaker && activeSpeaker.equals(selected)) {
+            switchPolicy.force(activeSpeaker, now);
+            return activeSpeaker;
         }
 
+        VideoSwitch configuration = VoxeetToolkit.instance().getConferenceToolkit().Configuration.VideoSwitch;
+        String speaker = switchPolicy.select(activeSpeaker, configuration, now);
+
+        long delay = switchPolicy.getNextEvaluationDelay();
+        if (delay > 0) postDelayed(reevaluateMainSpeaker, delay);
+        return speaker;
     }
 
-    private void loopUserForStreamInVideoViewIfUnattached(@Nullable String currentSelectedUserId,
-                                                          List<Participant> users,
-                                                          MediaStreamType mediaStreamType) {
+    /**
+     * Get the policy deciding when the main video switches to a new active speaker
+     *
+     * @return the policy of this view, holding the applied and suppressed switches counters
+     */
+    @NonNull
+    public MainVideoSwitchPolicy getSwitchPolicy() {
+        return switchPolicy;
+    }
 
-        MediaStream foundToAttach = null;
-        String userIdFoundToAttach = null;
+    /**
+     * Get the suspension state of the renderers
+     *
+     * @return the suspension of this view, holding the duration of the last restoration
+     */
+    @NonNull
+    public RenderingSuspension getRenderingSuspension() {
+        return renderingSuspension;
+    }
 
-        if (null != currentSelectedUserId) {
-            Participant user = VoxeetSDK.conference().findParticipantById(currentSelectedUserId);
-            if (null != user) {
-                userIdFoundToAttach = user.getId();
-                foundToAttach = user.streamsHandler().getFirst(mediaStreamType);
-            }
+    /**
+     * Find the stream to display for the active speaker : a screen share first, then a camera. The other
+     * participants are only looked at when the active speaker has no such stream
+     */
+    @NonNull
+    private VideoLayout.Slot<MediaStream> findMainSlot(@NonNull String currentActiveSpeaker,
+                                                       @NonNull String localUserId,
+                                                       @NonNull List<Participant> users) {
+        VideoLayout.Slot<MediaStream> slot = null;
+
+        //the screen shares are only looked for when one exists
+        if (ParticipantCache.instance.hasScreenShare()) {
+            slot = findStream(currentActiveSpeaker, localUserId, users, MediaStreamType.ScreenShare);
         }
-
-        if (null == foundToAttach) {
-            for (Participant user : users) {
-                String userId = user.getId();
-                if (null != userId && !userId.equals(VoxeetSDK.session().getParticipantId()) && !userId.equals(currentSelectedUserId) && null == foundToAttach) {
-                    userIdFoundToAttach = userId;
-                    foundToAttach = user.streamsHandler().getFirst(mediaStreamType);
-                    if (null != foundToAttach && foundToAttach.videoTracks().size() <= 0)
-                        foundToAttach = null;
-                }
-            }
+        if (null == slot) {
+            slot = findStream(currentActiveSpeaker, localUserId, users, MediaStreamType.Camera);
         }
+        return null != slot ? slot : VideoLayout.Slot.none(false);
+    }
 
-        if ((!videoView.isAttached() || MediaStreamType.ScreenShare.equals(mediaStreamType)) && null != foundToAttach && foundToAttach.videoTracks().size() > 0) {
-            videoView.setVisibility(View.VISIBLE);
-            videoView.attach(userIdFoundToAttach, foundToAttach);
+    @Nullable
+    private VideoLayout.Slot<MediaStream> findStream(@NonNull String currentActiveSpeaker,
+                                                     @NonNull String localUserId,
+                                                     @NonNull List<Participant> users,
+                                                     @NonNull MediaStreamType mediaStreamType) {
+        Participant user = VoxeetSDK.conference().findParticipantById(currentActiveSpeaker);
+        MediaStream stream = null != user ? user.streamsHandler().getFirst(mediaStreamType) : null;
+
+        if (null != stream) {
+            //the active speaker has a stream of this type, no other participant is looked at
+            return ToolkitUtils.hasVideo(stream) ? VideoLayout.Slot.of(currentActiveSpeaker, mediaStreamType, stream, false, true) : null;
         }
 
-        if (null == foundToAttach) {
-            MediaStreamType stream = videoView.current();
-            if (null != stream && stream.equals(mediaStreamType)) {
-                videoView.setVisibility(View.GONE);
-                videoView.unAttach();
+        for (Participant other : users) {
+            String userId = other.getId();
+            if (null == userId || userId.equals(localUserId) || userId.equals(currentActiveSpeaker)) continue;
+
+            stream = other.streamsHandler().getFirst(mediaStreamType);
+            if (ToolkitUtils.hasVideo(stream)) {
+                return VideoLayout.Slot.of(userId, mediaStreamType, stream, false, true);
             }
         }
+        return null;
+    }
+
+    /**
+     * Keep the stream currently displayed, if it is still valid
+     */
+    @NonNull
+    private VideoLayout.Slot<MediaStream> currentMainSlot(@NonNull String localUserId, boolean hasParticipants, boolean frontFacing) {
+        String peerId = videoView.getPeerId();
+        MediaStreamType type = videoView.current();
+        if (!videoView.isAttached() || null == peerId || null == type) return VideoLayout.Slot.none(false);
+
+        //our own video is only displayed there when we are alone
+        if (hasParticipants && localUserId.equalsIgnoreCase(peerId)) return VideoLayout.Slot.none(false);
+
+        MediaStream stream = Opt.of(VoxeetSDK.conference().findParticipantById(peerId))
+                .then(Participant::streamsHandler).then(s -> s.getFirst(type)).orNull();
+        if (!ToolkitUtils.hasVideo(stream)) return VideoLayout.Slot.none(false);
+
+        boolean mirror = localUserId.equalsIgnoreCase(peerId) && MediaStreamType.Camera.equals(type) && frontFacing;
+        return VideoLayout.Slot.of(peerId, type, stream, mirror, true);
     }
 
     private void refreshConnectedDevice() {
@@ -742,6 +932,8 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     }
 
     private void checkForLocalUserStreamVideo() {
+        if (null != renderingSuspension && renderingSuspension.isSuspended()) return;
+
         Participant user = VoxeetSDK.conference().findParticipantById(VoxeetSDK.session().getParticipantId());
         if (null != user) {
             MediaStream stream = user.streamsHandler().getFirst(MediaStreamType.Camera);
@@ -770,11 +962,13 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         isExpanded = true;
         layoutTimer.setVisibility(View.GONE);
 
-        layoutParticipant.setVisibility(View.VISIBLE);
+        //the grid replaces the participants' list
+        layoutParticipant.setVisibility(isGridDisplayed() ? View.GONE : View.VISIBLE);
         participantView.notifyDatasetChanged();
 
         conferenceBarView.onToggleSize(true);
 
+        refreshVideoActivated();
         refreshUIVisibility();
         if (videoView != null) {
             videoView.setCornerRadius(0);
@@ -824,9 +1018,35 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
             videoView = view.findViewById(R.id.selected_video_view);
 
+            gridView = view.findViewById(R.id.grid_view);
+
             selfVideoView = view.findViewById(R.id.self_video_view);
 
             mConferenceViewRendererControl = new ConferenceViewRendererControl(this, selfVideoView, videoView);
+            switchPolicy = new MainVideoSwitchPolicy();
+            reevaluateMainSpeaker = this::refreshMediaStreams;
+            renderingSuspension = new RenderingSuspension();
+            layoutReconciler = new VideoLayoutReconciler<>(new VideoViewRenderer(videoView),
+                    new VideoViewRenderer(selfVideoView),
+                    new VideoLayoutReconciler.Target() {
+                        @Override
+                        public boolean isVisible() {
+                            return currentSpeakerView.getVisibility() == View.VISIBLE;
+                        }
+
+                        @Override
+                        public void setVisible(boolean visible) {
+                            if (visible) {
+                                currentSpeakerView.setVisibility(View.VISIBLE);
+                                currentSpeakerView.onResume();
+                            } else {
+                                currentSpeakerView.onPause();
+                                currentSpeakerView.setVisibility(View.GONE);
+                            }
+                        }
+                    });
+            //switching the camera or attaching the local stream changes the mirroring behind the reconciler
+            mConferenceViewRendererControl.setOnMirrorChanged(layoutReconciler::invalidateMirror);
 
             selfVideoView.setOnClickListener(view1 -> mConferenceViewRendererControl.switchCamera());
 
@@ -968,23 +1188,6 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         if (null != videoStream) videoStream.onEvent(event);
     }
 
-    private void checkStateValue() {
-        ConferenceService service = VoxeetSDK.conference();
-
-        mState = ConferenceStatus.DEFAULT;
-        boolean isInConference = service.isInConference();
-        if (isInConference && null != service.getConferenceId()) {
-            ConferenceInformation information = service.getCurrentConference();
-            if (information != null) {
-                mState = information.getConferenceState();
-            } else {
-                mState = ConferenceStatus.LEFT;
-            }
-        } else if (isInConference) {
-            mState = ConferenceStatus.CREATING;
-        }
-    }
-
     private void updateTextSize() {
         float size;
         if (isExpanded) {
@@ -1006,41 +1209,39 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     }
 
     private void refreshUIVisibility() {
-        checkStateValue();
+        boolean enableInConfiguration = VoxeetToolkit.getInstance().getConferenceToolkit().Configuration.ActionBar.displayScreenShare;
+        conferenceBarView.setDisplayScreenShare(enableInConfiguration && VoxeetToolkit.getInstance().getConferenceToolkit().isScreenShareEnabled());
 
-        String conferenceId = null;
-        ConferenceService service = VoxeetSDK.conference();
-        if (service.isInConference() && null != service.getConferenceId()) {
-            ConferenceInformation information = service.getCurrentConference();
-            if (information != null) {
-                conferenceId = information.getConference().getId();
-            }
-        }
+        applyConferenceState();
+    }
 
-        ConferenceStatus state = mState;
-        if (null == conferenceId) {
-            conferenceId = "";
-            state = ConferenceStatus.LEFT;
-        }
-        ConferenceInformation conferenceInformation = service.getCurrentConference();
+    /**
+     * Apply the status of the conference UI to the views, once per status and size
+     * <p>
+     * The status is given by the controller's ConferenceUIState, the callbacks of a status record it as applied
+     */
+    private void applyConferenceState() {
+        if (null == uiState) return;
 
-        boolean enableInConfiguration = VoxeetToolkit.getInstance().getConferenceToolkit().Configuration.ActionBar.displayScreenShare;
-        conferenceBarView.setDisplayScreenShare(enableInConfiguration && VoxeetToolkit.getInstance().getConferenceToolkit().isScreenShareEnabled());
+        ConferenceStatus state = uiState.getDisplayedStatus();
+        if (ConferenceStatus.DEFAULT == state) state = ConferenceStatus.CREATING;
+        if (state == appliedState && isExpanded == appliedExpanded) return;
+
+        Conference conference = Opt.of(VoxeetSDK.conference().getCurrentConference())
+                .then(ConferenceInformation::getConference).orNull();
 
         switch (state) {
             case CREATING:
                 onConferenceCreating();
                 break;
             case CREATED:
+                if (null != conference) onConferenceCreation(conference);
+                break;
             case JOINING:
-                if (null != conferenceInformation) {
-                    onConferenceJoining(conferenceInformation.getConference());
-                }
+                if (null != conference) onConferenceJoining(conference);
                 break;
             case JOINED:
-                if (null != conferenceInformation) {
-                    onConferenceJoined(conferenceInformation.getConference());
-                }
+                if (null != conference) onConferenceJoined(conference);
                 break;
             case FIRST_PARTICIPANT:
                 onConferenceFromNoOneToOneUser();
@@ -1054,12 +1255,35 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
             case LEFT:
                 onConferenceLeft();
                 break;
-
             default:
                 //snif
         }
     }
 
+    private void markApplied(@NonNull ConferenceStatus state) {
+        appliedState = state;
+        appliedExpanded = isExpanded;
+    }
+
+    /**
+     * Follow the state of the conference UI of the controller hosting this view
+     *
+     * @param uiState the controller's state, null to stop following it
+     */
+    @Override
+    public void setUIState(@Nullable ConferenceUIState uiState) {
+        super.setUIState(uiState);
+        if (this.uiState == uiState) return;
+
+        if (null != this.uiState) this.uiState.removeListener(onConferenceStatusChanged);
+        this.uiState = uiState;
+        if (null != uiState && ViewCompat.isAttachedToWindow(this)) {
+            uiState.addListener(onConferenceStatusChanged);
+            removeCallbacks(deferredApplyConferenceState);
+            post(deferredApplyConferenceState);
+        }
+    }
+
     private void updateSpeakerViewVisibility() {
         if (null != currentSpeakerView) {
             String selectedUser = Opt.of(participantSelected).then(Participant::getId).orNull();
@@ -1082,7 +1306,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
             }
         }
 
-        if (null != videoView && videoView.isAttached()) {
+        if (isGridDisplayed() || (null != videoView && videoView.isAttached())) {
             hideSpeakerView();
         } else if (getParticipants().size() > 0) {
             if (null != videoView) videoView.setVisibility(View.GONE);
@@ -1149,27 +1373,12 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         refreshUI();
     }
 
-    //TODO optimize by collecting the participants on the beginning of the loop only
+    //shared snapshot, only rebuilt after a participant or stream event
     private List<Participant> getParticipants() {
-        return Filter.filter(VoxeetSDK.conference().getParticipants(), participant -> {
-            ParticipantType type = Opt.of(participant.participantType()).or(ParticipantType.NONE);
-
-            if ("00000000-0000-0000-0000-000000000000".equals(participant.getId())) return false;
-            if (!(type.equals(ParticipantType.DVC) || type.equals(ParticipantType.USER) || type.equals(ParticipantType.PSTN))) {
-                return false;
-            }
-
-            if (Opt.of(participant.getId()).or("").equals(VoxeetSDK.session().getParticipantId())) {
-                //prevent own user to be "active speaker"
-                return false;
-            }
-            if (ConferenceParticipantStatus.ON_AIR == participant.getStatus()) return true;
-            return ConferenceParticipantStatus.CONNECTING == participant.getStatus() && null != participant.streamsHandler().getFirst(MediaStreamType.Camera);
-        });
+        return ParticipantCache.instance.getSnapshot().getSpeakers();
     }
 
-    //TODO optimize by collecting the participants on the beginning of the loop only
     private boolean hasParticipants() {
-        return getParticipants().size() > 0;
+        return ParticipantCache.instance.hasSpeakers();
     }
 }
\ No newline at end of file
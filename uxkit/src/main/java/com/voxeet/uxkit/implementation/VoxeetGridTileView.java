@@ -0,0 +1,106 @@
+package com.voxeet.uxkit.implementation;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import com.voxeet.android.media.MediaStream;
+import com.voxeet.android.media.stream.MediaStreamType;
+import com.voxeet.sdk.json.ParticipantInfo;
+import com.voxeet.sdk.models.Participant;
+import com.voxeet.sdk.utils.Opt;
+import com.voxeet.sdk.views.VideoView;
+import com.voxeet.uxkit.R;
+import com.voxeet.uxkit.controllers.VoxeetToolkit;
+import com.voxeet.uxkit.utils.ToolkitUtils;
+
+/**
+ * Tile of the VoxeetGridView, displaying a participant's video or its name
+ * <p>
+ * The renderer is leased from the VideoViewPool only while the tile displays a video
+ */
+public class VoxeetGridTileView extends FrameLayout {
+
+    @Nullable
+    private VideoView videoView;
+    private TextView name;
+
+    @Nullable
+    private Participant participant;
+
+    //position in the grid, computed by the VoxeetGridView when measuring
+    final Rect frame = new Rect();
+
+    public VoxeetGridTileView(@NonNull Context context) {
+        super(context);
+
+        LayoutInflater.from(context).inflate(R.layout.voxeet_grid_tile_view, this, true);
+        name = findViewById(R.id.grid_tile_name);
+    }
+
+    /**
+     * Display a participant
+     *
+     * @param participant the participant to display, null to release the tile
+     * @param renderVideo true if the tile can render the participant's video
+     */
+    public void bind(@Nullable Participant participant, boolean renderVideo) {
+        this.participant = participant;
+
+        if (null == participant) {
+            release();
+            return;
+        }
+
+        name.setText(Opt.of(participant.getInfo()).then(ParticipantInfo::getName).or(""));
+
+        String id = participant.getId();
+        MediaStream stream = participant.streamsHandler().getFirst(MediaStreamType.Camera);
+        if (!renderVideo || null == id || !ToolkitUtils.hasVideo(stream)) {
+            setNoVideo();
+            return;
+        }
+
+        if (null == videoView) {
+            videoView = VoxeetToolkit.instance().getVideoViewPool().lease();
+            videoView.setVideoFill();
+            //below the name
+            addView(videoView, 0, new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        }
+
+        //only attached again when the participant changed
+        if (!videoView.hasVideo() || !id.equals(videoView.getPeerId())) {
+            videoView.attach(id, stream);
+        }
+    }
+
+    /**
+     * Release the renderer of this tile
+     */
+    public void release() {
+        setNoVideo();
+        participant = null;
+    }
+
+    public boolean isRendering() {
+        return null != videoView && videoView.isAttached();
+    }
+
+    @Nullable
+    public String getParticipantId() {
+        return Opt.of(participant).then(Participant::getId).orNull();
+    }
+
+    private void setNoVideo() {
+        if (null == videoView) return;
+
+        //detached and removed by the pool
+        VoxeetToolkit.instance().getVideoViewPool().release(videoView);
+        videoView = null;
+    }
+}
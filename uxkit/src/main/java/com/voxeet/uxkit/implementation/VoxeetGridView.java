@@ -0,0 +1,255 @@
+package com.voxeet.uxkit.implementation;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.voxeet.VoxeetSDK;
+import com.voxeet.android.media.stream.MediaStreamType;
+import com.voxeet.sdk.models.Participant;
+import com.voxeet.sdk.utils.Opt;
+import com.voxeet.uxkit.R;
+import com.voxeet.uxkit.configuration.Grid;
+import com.voxeet.uxkit.utils.GridTileAssigner;
+import com.voxeet.uxkit.utils.ToolkitUtils;
+import com.voxeet.uxkit.utils.VoxeetSpeakersTimerInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Display the participants in a grid of tiles, the featured participant being displayed in a large tile
+ * <p>
+ * Tiles keep their participant while it is displayed. Only a bounded number of small tiles render their video,
+ * the others display the participant's name : the number of renderers does not depend on the room size.
+ */
+public class VoxeetGridView extends ViewGroup {
+
+    //part of the view used by the large tile
+    private final static float LARGE_TILE_WEIGHT = 0.5f;
+
+    public final static GridTileAssigner.TileState DEFAULT_STATE = new GridTileAssigner.TileState() {
+        @Override
+        public boolean hasVideo(@NonNull String participantId) {
+            return ToolkitUtils.hasVideo(Opt.of(VoxeetSDK.conference().findParticipantById(participantId))
+                    .then(Participant::streamsHandler).then(s -> s.getFirst(MediaStreamType.Camera)).orNull());
+        }
+
+        @Override
+        public long getLastSpokeAt(@NonNull String participantId) {
+            return VoxeetSpeakersTimerInstance.instance.getSpeakingStatistics().getLastSpokeAt(participantId);
+        }
+    };
+
+    private final GridTileAssigner assigner = new GridTileAssigner();
+    private final ArrayList<VoxeetGridTileView> tiles = new ArrayList<>();
+    private VoxeetGridTileView largeTile;
+
+    @NonNull
+    private GridTileAssigner.TileState tileState = DEFAULT_STATE;
+
+    private int spacing;
+    private boolean largeTileDisplayed = false;
+
+    //reused on every update
+    private final ArrayList<String> participantIds = new ArrayList<>();
+    private final ArrayList<Participant> displayed = new ArrayList<>();
+
+    public VoxeetGridView(Context context) {
+        super(context);
+
+        init();
+    }
+
+    public VoxeetGridView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+
+        init();
+    }
+
+    public VoxeetGridView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        init();
+    }
+
+    private void init() {
+        spacing = getResources().getDimensionPixelSize(R.dimen.dimen_1);
+
+        largeTile = new VoxeetGridTileView(getContext());
+        largeTile.setVisibility(View.GONE);
+        addView(largeTile);
+    }
+
+    public void setTileState(@NonNull GridTileAssigner.TileState tileState) {
+        this.tileState = tileState;
+    }
+
+    /**
+     * Display the participants
+     *
+     * @param participants  the participants to display, in the conference order
+     * @param featured      the participant to display in the large tile, null for none
+     * @param configuration the grid configuration
+     */
+    @MainThread
+    public void update(@NonNull List<Participant> participants, @Nullable String featured, @NonNull Grid configuration) {
+        participantIds.clear();
+        displayed.clear();
+        Participant featuredParticipant = null;
+        for (Participant participant : participants) {
+            String id = participant.getId();
+            if (null == id) continue;
+            participantIds.add(id);
+            displayed.add(participant);
+            if (id.equals(featured)) featuredParticipant = participant;
+        }
+
+        boolean layoutChanged = assigner.assign(participantIds, configuration.max_tiles);
+
+        //a single participant fills the grid by itself
+        boolean displayLarge = configuration.large_tile && null != featuredParticipant && participantIds.size() > 1;
+        if (displayLarge != largeTileDisplayed) {
+            largeTileDisplayed = displayLarge;
+            layoutChanged = true;
+        }
+
+        assigner.selectRenderers(displayLarge ? featured : null, configuration.max_video_tiles, tileState);
+
+        while (tiles.size() < assigner.getTileCount()) {
+            VoxeetGridTileView tile = new VoxeetGridTileView(getContext());
+            tiles.add(tile);
+            addView(tile);
+        }
+
+        for (int index = 0; index < tiles.size(); index++) {
+            VoxeetGridTileView tile = tiles.get(index);
+            if (index < assigner.getTileCount()) {
+                String id = assigner.getParticipantAt(index);
+                tile.bind(displayed.get(participantIds.indexOf(id)), assigner.isRendering(id));
+                tile.setVisibility(View.VISIBLE);
+            } else if (View.GONE != tile.getVisibility()) {
+                //kept to be reused when participants join
+                tile.release();
+                tile.setVisibility(View.GONE);
+            }
+        }
+
+        if (displayLarge) {
+            largeTile.bind(featuredParticipant, true);
+            largeTile.setVisibility(View.VISIBLE);
+        } else if (View.GONE != largeTile.getVisibility()) {
+            largeTile.release();
+            largeTile.setVisibility(View.GONE);
+        }
+
+        //a speaker change only rebinds the tiles
+        if (layoutChanged) requestLayout();
+    }
+
+    /**
+     * Release every renderer and forget the tile assignment
+     */
+    @MainThread
+    public void release() {
+        for (VoxeetGridTileView tile : tiles) {
+            tile.release();
+            tile.setVisibility(View.GONE);
+        }
+        largeTile.release();
+        largeTile.setVisibility(View.GONE);
+        largeTileDisplayed = false;
+        assigner.clear();
+    }
+
+    /**
+     * Release every renderer but keep the tile assignment, the next update restores the same tiles
+     */
+    @MainThread
+    public void suspend() {
+        for (VoxeetGridTileView tile : tiles) {
+            tile.release();
+        }
+        largeTile.release();
+    }
+
+    /**
+     * @return the number of tiles currently rendering a video, the large tile included
+     */
+    public int getRenderingCount() {
+        int count = largeTile.isRendering() ? 1 : 0;
+        for (VoxeetGridTileView tile : tiles) {
+            if (tile.isRendering()) count++;
+        }
+        return count;
+    }
+
+    @NonNull
+    public GridTileAssigner getAssigner() {
+        return assigner;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+        setMeasuredDimension(width, height);
+
+        int left = getPaddingLeft();
+        int top = getPaddingTop();
+        int right = width - getPaddingRight();
+        int bottom = height - getPaddingBottom();
+        boolean portrait = bottom - top >= right - left;
+
+        if (largeTileDisplayed) {
+            if (portrait) {
+                int split = top + (int) ((bottom - top) * LARGE_TILE_WEIGHT);
+                measureTile(largeTile, left, top, right, split);
+                top = split;
+            } else {
+                int split = left + (int) ((right - left) * LARGE_TILE_WEIGHT);
+                measureTile(largeTile, left, top, split, bottom);
+                left = split;
+            }
+        }
+
+        int count = assigner.getTileCount();
+        if (count == 0) return;
+
+        int columns = GridTileAssigner.columnsFor(count, right - left, bottom - top, portrait ? 3f / 4f : 4f / 3f);
+        int rows = (count + columns - 1) / columns;
+        int tileWidth = (right - left) / columns;
+        int tileHeight = (bottom - top) / rows;
+
+        for (int index = 0; index < count; index++) {
+            int x = left + (index % columns) * tileWidth;
+            int y = top + (index / columns) * tileHeight;
+            measureTile(tiles.get(index), x, y, x + tileWidth, y + tileHeight);
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        layoutTile(largeTile);
+        for (VoxeetGridTileView tile : tiles) {
+            layoutTile(tile);
+        }
+    }
+
+    private void measureTile(@NonNull VoxeetGridTileView tile, int left, int top, int right, int bottom) {
+        tile.frame.set(left + spacing, top + spacing, right - spacing, bottom - spacing);
+        tile.measure(MeasureSpec.makeMeasureSpec(Math.max(0, tile.frame.width()), MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(Math.max(0, tile.frame.height()), MeasureSpec.EXACTLY));
+    }
+
+    private void layoutTile(@NonNull VoxeetGridTileView tile) {
+        if (View.GONE == tile.getVisibility()) return;
+        Rect frame = tile.frame;
+        tile.layout(frame.left, frame.top, frame.right, frame.bottom);
+    }
+}
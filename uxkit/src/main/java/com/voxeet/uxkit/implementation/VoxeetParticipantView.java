@@ -3,6 +3,7 @@ package com.voxeet.uxkit.implementation;
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Typeface;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 import android.util.AttributeSet;
@@ -22,13 +23,16 @@ import com.voxeet.sdk.models.Participant;
 import com.voxeet.sdk.utils.Opt;
 import com.voxeet.sdk.views.VideoView;
 import com.voxeet.uxkit.R;
+import com.voxeet.uxkit.utils.ParticipantViewPayload;
 import com.voxeet.uxkit.utils.VoxeetSpeakersTimerInstance;
 import com.voxeet.uxkit.views.internal.rounded.RoundedImageView;
 
+import java.util.Set;
+
 /**
  * Simple View to manage how a Participant will be displayed on top
  */
-public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeakersTimerInstance.SpeakersUpdated {
+public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeakersTimerInstance.SpeakingStateListener {
 
 
     private static final String TAG = VoxeetParticipantView.class.getSimpleName();
@@ -38,7 +42,22 @@ public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeaker
     private ImageView overlay;
 
     private boolean videoActivable = true;
+    //given by the renderer budget of the list displaying this view
+    private boolean videoAllowed = true;
     private boolean selected;
+    private boolean speaking;
+    private boolean attached;
+
+    //participant followed in the VoxeetSpeakersTimerInstance and the overlay color currently applied
+    @Nullable
+    private String followedParticipantId;
+    @Nullable
+    private Integer appliedColor;
+
+    //avatar given to Picasso, to avoid reloading it on every bind
+    @Nullable
+    private String loadedAvatarUrl;
+    private int loadedAvatarSize;
 
     @Nullable
     private Participant participant;
@@ -103,6 +122,8 @@ public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeaker
 
     public void setParticipant(@Nullable Participant participant) {
         this.participant = participant;
+
+        if (attached) followParticipant();
     }
 
     public void setSelected(boolean selected) {
@@ -117,37 +138,71 @@ public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeaker
             refresh();
         }
 
-        VoxeetSpeakersTimerInstance.instance.register(this);
+        attached = true;
+        followParticipant();
     }
 
     @Override
     protected void onDetachedFromWindow() {
-        VoxeetSpeakersTimerInstance.instance.unregister(this);
+        attached = false;
+        unfollowParticipant();
 
         super.onDetachedFromWindow();
     }
 
+    private void followParticipant() {
+        String id = Opt.of(participant).then(Participant::getId).orNull();
+        if (null != followedParticipantId && followedParticipantId.equals(id)) return;
+
+        unfollowParticipant();
+        speaking = false;
+
+        if (null != id) {
+            followedParticipantId = id;
+            VoxeetSpeakersTimerInstance.instance.registerSpeakingStateListener(id, this);
+        }
+    }
+
+    private void unfollowParticipant() {
+        if (null != followedParticipantId) {
+            VoxeetSpeakersTimerInstance.instance.unregisterSpeakingStateListener(followedParticipantId, this);
+            followedParticipantId = null;
+        }
+    }
+
     @Override
+    public void onSpeakingStateChanged(@NonNull String participantId, int levelBucket) {
+        boolean speaking = levelBucket > 0;
+        if (this.speaking == speaking) return;
+
+        this.speaking = speaking;
+        onSpeakersUpdated();
+    }
+
+    /**
+     * Apply the selection and speaking state to the name and overlay
+     * <p>
+     * Not called on every tick anymore, only when the speaking state of the participant changes
+     */
     public void onSpeakersUpdated() {
         int color = 0;
 
         if (null != participant) {
-            double level = VoxeetSpeakersTimerInstance.instance.audioLevel(participant);
-
             if (selected) {
-                name.setTypeface(Typeface.DEFAULT_BOLD);
-                name.setTextColor(white);
-
                 color = selectedUserColor;
-            } else if (level > 0.02) {
-                name.setTypeface(Typeface.DEFAULT_BOLD);
-                name.setTextColor(white);
-
+            } else if (speaking) {
                 color = yellowOrange;
             }
         }
 
+        //nothing changed since the last time the state was applied
+        if (null != appliedColor && appliedColor == color) return;
+        appliedColor = color;
+
         if (0 != color) {
+            name.setTypeface(Typeface.DEFAULT_BOLD);
+            name.setTextColor(white);
+
             overlay.setBackgroundColor(color);
             overlay.setVisibility(View.VISIBLE);
         } else {
@@ -159,19 +214,41 @@ public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeaker
     }
 
     public void refresh() {
-        boolean on_air = false;
-        if (null != participant) {
-            on_air = participant.isLocallyActive();
+        refreshName();
+        refreshVideo();
+        onSpeakersUpdated();
+        refreshStatus();
 
-            name.setText(Opt.of(participant).then(Participant::getInfo).then(ParticipantInfo::getName).or(""));
+        //will go to default
+        refreshAvatar();
+    }
 
-            loadStreamOnto();
-        } else {
-            name.setText("");
+    /**
+     * Refresh only the given parts of the view, the other ones are left as they are
+     *
+     * @param changes the parts to refresh
+     */
+    public void refresh(@NonNull Set<ParticipantViewPayload> changes) {
+        if (changes.contains(ParticipantViewPayload.NAME)) refreshName();
+        if (changes.contains(ParticipantViewPayload.VIDEO)) refreshVideo();
+        if (changes.contains(ParticipantViewPayload.SELECTION) || changes.contains(ParticipantViewPayload.SPEAKING)) {
+            onSpeakersUpdated();
         }
+        if (changes.contains(ParticipantViewPayload.STATUS)) refreshStatus();
+        if (changes.contains(ParticipantViewPayload.AVATAR)) refreshAvatar();
+    }
 
-        onSpeakersUpdated();
+    private void refreshName() {
+        name.setText(Opt.of(participant).then(Participant::getInfo).then(ParticipantInfo::getName).or(""));
         name.setVisibility(showName ? View.VISIBLE : View.GONE);
+    }
+
+    private void refreshVideo() {
+        if (null != participant) loadStreamOnto();
+    }
+
+    private void refreshStatus() {
+        boolean on_air = null != participant && participant.isLocallyActive();
 
         if (on_air) {
             setAlpha(1f);
@@ -180,16 +257,22 @@ public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeaker
             setAlpha(0.5f);
             avatar.setAlpha(0.4f);
         }
+    }
 
-        //will go to default
-        loadViaPicasso();
+    private void refreshAvatar() {
+        String url = Opt.of(participant).then(Participant::getInfo)
+                .then(ParticipantInfo::getAvatarUrl).or("");
+
+        //the same picture is already loaded or loading
+        if (url.equals(loadedAvatarUrl) && avatarSize == loadedAvatarSize) return;
+        loadedAvatarUrl = url;
+        loadedAvatarSize = avatarSize;
+
+        loadViaPicasso(url);
     }
 
-    private void loadViaPicasso() {
+    private void loadViaPicasso(@NonNull String url) {
         try {
-            String url = Opt.of(participant).then(Participant::getInfo)
-                    .then(ParticipantInfo::getAvatarUrl).orNull();
-
             if (!TextUtils.isEmpty(url)) {
                 Picasso.get()
                         .load(url)
@@ -205,6 +288,7 @@ public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeaker
             }
         } catch (Exception e) {
             Log.e(TAG, "error " + e.getMessage());
+            loadedAvatarUrl = null;
         }
     }
 
@@ -216,7 +300,7 @@ public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeaker
     }
 
     private void loadStreamOnto() {
-        if(!videoActivable) {
+        if(!videoActivable || !videoAllowed) {
             setNoVideo();
             return;
         }
@@ -271,4 +355,45 @@ public class VoxeetParticipantView extends LinearLayout implements VoxeetSpeaker
     public void setVideoActivable(boolean state) {
         this.videoActivable = state;
     }
+
+    /**
+     * Allow or forbid this view to render its participant's video, the video is attached or detached right away
+     *
+     * @param allowed true to render the video if available
+     */
+    public void setVideoAllowed(boolean allowed) {
+        if (videoAllowed == allowed) return;
+        videoAllowed = allowed;
+
+        if (allowed) {
+            refreshVideo();
+        } else {
+            setNoVideo();
+        }
+    }
+
+    public boolean isVideoAllowed() {
+        return videoAllowed;
+    }
+
+    /**
+     * Check if this view could render a video
+     *
+     * @return true if the participant has a camera stream with video tracks and video is activable
+     */
+    public boolean hasVideoToRender() {
+        if (!videoActivable) return false;
+        MediaStream stream = getMediaStream(Opt.of(participant).then(Participant::getId).orNull());
+        return null != stream && stream.videoTracks().size() > 0;
+    }
+
+    /**
+     * Get the id of the displayed participant
+     *
+     * @return the id or null
+     */
+    @Nullable
+    public String getParticipantId() {
+        return Opt.of(participant).then(Participant::getId).orNull();
+    }
 }
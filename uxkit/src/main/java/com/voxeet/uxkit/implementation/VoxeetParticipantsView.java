@@ -18,14 +18,17 @@ import com.voxeet.VoxeetSDK;
 import com.voxeet.android.media.MediaStream;
 import com.voxeet.sdk.models.Conference;
 import com.voxeet.sdk.models.Participant;
-import com.voxeet.sdk.models.v1.ConferenceParticipantStatus;
 import com.voxeet.sdk.services.SessionService;
 import com.voxeet.uxkit.R;
 import com.voxeet.uxkit.configuration.Users;
 import com.voxeet.uxkit.controllers.VoxeetToolkit;
 import com.voxeet.uxkit.utils.IParticipantViewListener;
+import com.voxeet.uxkit.utils.ParticipantIndex;
 import com.voxeet.uxkit.utils.ParticipantViewAdapter;
+import com.voxeet.uxkit.utils.ParticipantViewItem;
+import com.voxeet.uxkit.utils.ParticipantViewPool;
 import com.voxeet.uxkit.utils.ToolkitUtils;
+import com.voxeet.uxkit.utils.UpdateCoalescer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +52,18 @@ public class VoxeetParticipantsView extends VoxeetView {
 
     private Handler mHandler;
 
+    private final ParticipantIndex<Participant> filterIndex = new ParticipantIndex<>(ParticipantViewItem.INDEX);
+
+    //the events received during a frame trigger a single refresh of the list
+    private final static int UPDATE_PARTICIPANTS = 1;
+    private final static int UPDATE_STREAMS = 2;
+    private final static int CLEAR_PARTICIPANTS = 4;
+
+    private final UpdateCoalescer updates = new UpdateCoalescer(this::onCoalescedUpdate);
+
+    @Nullable
+    private volatile Conference pendingConference;
+
     /**
      * Instantiates a new Voxeet participant view.
      *
@@ -77,12 +92,15 @@ public class VoxeetParticipantsView extends VoxeetView {
         mHandler = new Handler(Looper.getMainLooper());
 
         horizontalLayout = new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false);
+        //give the cells back to the shared pool when this view is removed
+        horizontalLayout.setRecycleChildrenOnDetach(true);
 
         if (adapter == null) {
             adapter = new ParticipantViewAdapter(horizontalLayout, getContext());
         }
 
 
+        recyclerView.setRecycledViewPool(ParticipantViewPool.instance.getPool());
         recyclerView.setAdapter(adapter);
         recyclerView.setLayoutManager(horizontalLayout);
 
@@ -151,10 +169,13 @@ public class VoxeetParticipantsView extends VoxeetView {
         attributes.recycle();
     }
 
+    /**
+     * Refresh the list from the participants of the conference, merged with the events of the same frame
+     *
+     * @param conference the conference
+     */
     public void update(@NonNull Conference conference) {
-        List<Participant> participants = ToolkitUtils.filterParticipants(conference.getParticipants());
-        adapter.setUsers(filter(participants));
-        adapter.updateUsers();
+        requestParticipantsUpdate(conference);
     }
 
     /**
@@ -167,9 +188,7 @@ public class VoxeetParticipantsView extends VoxeetView {
     public void onUserAddedEvent(@NonNull Conference conference, @NonNull Participant user) {
         super.onUserAddedEvent(conference, user);
 
-        List<Participant> participants = ToolkitUtils.filterParticipants(conference.getParticipants());
-        adapter.setUsers(filter(participants));
-        adapter.updateUsers();
+        requestParticipantsUpdate(conference);
     }
 
     /**
@@ -182,36 +201,75 @@ public class VoxeetParticipantsView extends VoxeetView {
     public void onUserUpdatedEvent(@NonNull Conference conference, @NonNull Participant user) {
         super.onUserUpdatedEvent(conference, user);
 
-        postOnUi(() -> {
-            List<Participant> participants = ToolkitUtils.filterParticipants(conference.getParticipants());
+        requestParticipantsUpdate(conference);
+    }
+
+    private void requestParticipantsUpdate(@NonNull Conference conference) {
+        pendingConference = conference;
+        updates.request(UPDATE_PARTICIPANTS);
+    }
+
+    @MainThread
+    private void onCoalescedUpdate(int flags) {
+        if (null == adapter) return;
+
+        Conference conference = pendingConference;
+        if (0 != (flags & UPDATE_PARTICIPANTS) && null != conference) {
+            //setUsers also refreshes the state of the participants already displayed, and removes the others
+            List<Participant> participants = ToolkitUtils.filterParticipants();
             adapter.setUsers(filter(participants));
+        } else if (0 != (flags & CLEAR_PARTICIPANTS)) {
+            filterIndex.clear();
+            adapter.clearParticipants();
+        } else if (0 != (flags & UPDATE_STREAMS)) {
             adapter.updateUsers();
-        });
+        }
+    }
+
+    /**
+     * Set the window during which the participant and stream events are merged into a single refresh
+     *
+     * @param window the duration in ms or UpdateCoalescer.NEXT_FRAME (default) to refresh once per frame
+     */
+    public void setUpdateWindow(long window) {
+        updates.setWindow(window);
+    }
+
+    /**
+     * Get the coalescer of the participant and stream events, to read how many events were merged
+     *
+     * @return the instance used by this view
+     */
+    @NonNull
+    public UpdateCoalescer getUpdateCoalescer() {
+        return updates;
     }
 
     private List<Participant> filter(List<Participant> users) {
         SessionService sessionService = VoxeetSDK.session();
-        List<Participant> filter = new ArrayList<>();
-        int added = 0;
-        int invited = 0;
+        List<Participant> candidates = new ArrayList<>(users.size());
         for (Participant user : users) {
             if (null == user) continue;
-            boolean invite = ConferenceParticipantStatus.RESERVED.equals(user.getStatus());
-
-            if (isDisplaySelf() || !sessionService.isLocalParticipant(user)) {
-                boolean had = isDisplayNonAir(); //if display every users
-                if (!had) had = user.isLocallyActive();
-                if (!had) had = invite;
-                if (had) added++;
-                if (had) filter.add(user);
-
-                if (invite) invited++;
-            }
+            if (isDisplaySelf() || !sessionService.isLocalParticipant(user)) candidates.add(user);
         }
 
+        //the sections' counters give the numbers of active and invited participants in O(1)
+        filterIndex.sync(candidates);
+        int invited = filterIndex.count(ParticipantViewItem.SECTION_RESERVED);
+        int displayable = filterIndex.count(ParticipantViewItem.SECTION_ON_AIR) + invited;
+        int added = isDisplayNonAir() ? filterIndex.size() : displayable;
+
         if (added == 1 && invited < 1) {
             //TODO add configuration for this mode
-            filter = new ArrayList<>();
+            return new ArrayList<>();
+        }
+
+        if (isDisplayNonAir()) return candidates;
+
+        List<Participant> filter = new ArrayList<>(displayable);
+        for (int position = 0; position < displayable; position++) {
+            ParticipantIndex.Entry<Participant> entry = filterIndex.get(position);
+            if (null != entry) filter.add(entry.participant);
         }
         return filter;
     }
@@ -226,11 +284,7 @@ public class VoxeetParticipantsView extends VoxeetView {
     @Override
     public void onStreamAddedEvent(@NonNull Conference conference, @NonNull Participant user, @NonNull MediaStream mediaStream) {
         super.onStreamAddedEvent(conference, user, mediaStream);
-        postOnUi(() -> {
-            if (adapter != null) {
-                adapter.updateUsers();
-            }
-        });
+        updates.request(UPDATE_STREAMS);
     }
 
     /**
@@ -243,11 +297,7 @@ public class VoxeetParticipantsView extends VoxeetView {
     @Override
     public void onStreamUpdatedEvent(@NonNull Conference conference, @NonNull Participant user, @NonNull MediaStream mediaStream) {
         super.onStreamUpdatedEvent(conference, user, mediaStream);
-        postOnUi(() -> {
-            if (adapter != null) {
-                adapter.updateUsers();
-            }
-        });
+        updates.request(UPDATE_STREAMS);
     }
 
     /**
@@ -260,11 +310,7 @@ public class VoxeetParticipantsView extends VoxeetView {
     @Override
     public void onStreamRemovedEvent(@NonNull Conference conference, @NonNull Participant user, @NonNull MediaStream mediaStream) {
         super.onStreamRemovedEvent(conference, user, mediaStream);
-        postOnUi(() -> {
-            if (adapter != null) {
-                adapter.updateUsers();
-            }
-        });
+        updates.request(UPDATE_STREAMS);
     }
 
     /**
@@ -274,8 +320,7 @@ public class VoxeetParticipantsView extends VoxeetView {
     public void onConferenceDestroyed() {
         super.onConferenceDestroyed();
 
-        adapter.clearParticipants();
-        adapter.updateUsers();
+        requestClear();
     }
 
     /**
@@ -285,8 +330,27 @@ public class VoxeetParticipantsView extends VoxeetView {
     public void onConferenceLeft() {
         super.onConferenceLeft();
 
-        adapter.clearParticipants();
-        adapter.updateUsers();
+        requestClear();
+    }
+
+    private void requestClear() {
+        //the updates requested for the conference left are obsolete
+        updates.cancel();
+        pendingConference = null;
+        updates.request(CLEAR_PARTICIPANTS);
+    }
+
+    @Override
+    public void onTransferStart() {
+        super.onTransferStart();
+        //the cells and their renderers are kept while the list is moved
+        horizontalLayout.setRecycleChildrenOnDetach(false);
+    }
+
+    @Override
+    public void onTransferEnd() {
+        super.onTransferEnd();
+        horizontalLayout.setRecycleChildrenOnDetach(true);
     }
 
     @Override
@@ -323,6 +387,18 @@ public class VoxeetParticipantsView extends VoxeetView {
         }
     }
 
+    /**
+     * Set the maximum number of participant videos rendered at the same time, only visible cells render their video
+     *
+     * @param maxRenderers the maximum, VideoRendererBudget.DEFAULT_MAX_RENDERERS by default
+     */
+    @MainThread
+    public void setMaxVideoRenderers(int maxRenderers) {
+        if (null != adapter) {
+            adapter.setMaxVideoRenderers(maxRenderers);
+        }
+    }
+
     @MainThread
     public void setVideoActivable(boolean state) {
         this.videoActivable = state;
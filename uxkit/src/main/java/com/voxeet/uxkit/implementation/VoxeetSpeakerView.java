@@ -17,20 +17,15 @@ import android.widget.TextView;
 
 import com.squareup.picasso.Picasso;
 import com.voxeet.VoxeetSDK;
-import com.voxeet.android.media.stream.MediaStreamType;
 import com.voxeet.sdk.exceptions.ExceptionManager;
 import com.voxeet.sdk.models.Participant;
-import com.voxeet.sdk.models.v1.ConferenceParticipantStatus;
-import com.voxeet.sdk.models.v2.ParticipantType;
-import com.voxeet.sdk.utils.Filter;
-import com.voxeet.sdk.utils.Opt;
 import com.voxeet.uxkit.R;
+import com.voxeet.uxkit.utils.ParticipantCache;
 import com.voxeet.uxkit.utils.VoxeetSpeakersTimerInstance;
 import com.voxeet.uxkit.utils.WindowHelper;
 import com.voxeet.uxkit.views.internal.VoxeetVuMeter;
 import com.voxeet.uxkit.views.internal.rounded.RoundedImageView;
 
-import java.util.List;
 
 /**
  * View made to display a given user
@@ -358,25 +353,10 @@ public class VoxeetSpeakerView extends VoxeetView implements VoxeetSpeakersTimer
 
         if (null == currentSpeaker) {
             //we don't have any speaker, look for at least the first one
-            List<Participant> participants = Filter.filter(VoxeetSDK.conference().getParticipants(), participant -> {
-                ParticipantType type = Opt.of(participant.participantType()).or(ParticipantType.NONE);
-
-                if ("00000000-0000-0000-0000-000000000000".equals(participant.getId()))
-                    return false;
-                if (!(type.equals(ParticipantType.DVC) || type.equals(ParticipantType.USER) || type.equals(ParticipantType.PSTN))) {
-                    return false;
-                }
-
-                if (Opt.of(participant.getId()).or("").equals(VoxeetSDK.session().getParticipantId())) {
-                    //prevent own user to be "active speaker"
-                    return false;
-                }
-                if (ConferenceParticipantStatus.ON_AIR == participant.getStatus()) return true;
-                return ConferenceParticipantStatus.CONNECTING == participant.getStatus() && null != participant.streamsHandler().getFirst(MediaStreamType.Camera);
-            });
-
-            if (participants.size() > 0) {
-                currentSpeaker = participants.get(0);
+            Participant first = ParticipantCache.instance.getSnapshot().getFirstSpeaker();
+
+            if (null != first) {
+                currentSpeaker = first;
                 onActiveSpeakerUpdated(currentSpeaker.getId());
             }
         }
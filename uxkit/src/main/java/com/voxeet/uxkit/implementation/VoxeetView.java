@@ -3,6 +3,7 @@ package com.voxeet.uxkit.implementation;
 import android.content.Context;
 import android.support.annotation.LayoutRes;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.view.View;
 import android.widget.FrameLayout;
@@ -10,6 +11,7 @@ import android.widget.FrameLayout;
 import com.voxeet.android.media.MediaStream;
 import com.voxeet.sdk.models.Conference;
 import com.voxeet.sdk.models.Participant;
+import com.voxeet.uxkit.utils.ConferenceUIState;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -260,6 +262,36 @@ public abstract class VoxeetView extends FrameLayout
         }
     }
 
+    /**
+     * The view is about to be moved to another activity : it is detached then attached again in the same message
+     * and must keep its state, its listeners and its renderers
+     */
+    public void onTransferStart() {
+        for (VoxeetView child : mListeners) {
+            child.onTransferStart();
+        }
+    }
+
+    /**
+     * The move started by onTransferStart() is done, the view is attached to the new activity unless it failed
+     */
+    public void onTransferEnd() {
+        for (VoxeetView child : mListeners) {
+            child.onTransferEnd();
+        }
+    }
+
+    /**
+     * Give the state of the conference UI of the controller hosting this view, forwarded to the children
+     *
+     * @param uiState the controller's state, null when released
+     */
+    public void setUIState(@Nullable ConferenceUIState uiState) {
+        for (VoxeetView child : mListeners) {
+            child.setUIState(uiState);
+        }
+    }
+
     /**
      * On init.
      */
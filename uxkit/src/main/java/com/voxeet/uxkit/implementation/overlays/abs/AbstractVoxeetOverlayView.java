@@ -1,8 +1,9 @@
 package com.voxeet.uxkit.implementation.overlays.abs;
 
 import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.AnimatorSet;
-import android.animation.ValueAnimator;
+import android.animation.ObjectAnimator;
 import android.content.Context;
 import android.content.res.Configuration;
 import android.support.annotation.NonNull;
@@ -18,12 +19,17 @@ import android.widget.FrameLayout;
 
 import com.voxeet.sdk.exceptions.ExceptionManager;
 import com.voxeet.sdk.utils.ScreenHelper;
+import com.voxeet.uxkit.BuildConfig;
 import com.voxeet.uxkit.R;
 import com.voxeet.uxkit.configuration.Overlay;
 import com.voxeet.uxkit.controllers.VoxeetToolkit;
 import com.voxeet.uxkit.implementation.overlays.OverlayState;
 import com.voxeet.uxkit.providers.logics.IVoxeetSubViewProvider;
 import com.voxeet.uxkit.utils.CornerHelper;
+import com.voxeet.uxkit.utils.FrameTimeRecorder;
+import com.voxeet.uxkit.utils.OverlayDragHelper;
+import com.voxeet.uxkit.utils.OverlayTransition;
+import com.voxeet.uxkit.utils.VoxeetSpeakersTimerInstance;
 import com.voxeet.uxkit.utils.WindowHelper;
 
 import java.util.ArrayList;
@@ -34,6 +40,8 @@ import java.util.ArrayList;
  */
 public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandableView {
 
+    private final static int TRANSITION_DURATION = 200;
+
     private ArrayList<AnimatorSet> mCurrentAnimations;
 
     private final String TAG = AbstractVoxeetOverlayView.class.getSimpleName();
@@ -55,6 +63,8 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
 
     private GestureDetector gestureDetector;
 
+    private OverlayDragHelper dragHelper;
+
     private DisplayMetrics dm;
 
     private WindowManager windowManager;
@@ -62,6 +72,8 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
     private ViewGroup sub_container;
     private boolean mRemainExpanded;
     private boolean mCanBeMinizedByTouch;
+    //moved to another activity as it is, see onTransferStart()
+    private boolean mTransferring;
 
     /**
      * Instantiates a new Voxeet conference view.
@@ -103,6 +115,9 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
             @Override
             public void onViewAttachedToWindow(View view) {
                 Log.d("VoxeetConferenceView", "onViewAttachedToWindow: " + overlayState);
+                //already at its size and position
+                if (mTransferring) return;
+
                 if (OverlayState.EXPANDED.equals(overlayState)) {
                     expand();
                 } else {
@@ -137,6 +152,18 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         WindowHelper.hideKeyboard(this);
     }
 
+    @Override
+    public void onTransferStart() {
+        mTransferring = true;
+        super.onTransferStart();
+    }
+
+    @Override
+    public void onTransferEnd() {
+        mTransferring = false;
+        super.onTransferEnd();
+    }
+
     @Override
     protected void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
@@ -146,9 +173,10 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
 
         windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
         windowManager.getDefaultDisplay().getMetrics(dm);
+        CornerHelper.invalidate();
 
         if (isExpanded())
-            animationHandler.toLandScape(250, previousWidth, dm.widthPixels, previousHeight, dm.heightPixels);
+            animationHandler.toLandScape(TRANSITION_DURATION, previousWidth, dm.widthPixels, previousHeight, dm.heightPixels);
         else
             CornerHelper.sendToCorner(this, windowManager, getContext());
 
@@ -176,41 +204,16 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
 
         gestureDetector = new GestureDetector(getContext(), new SingleTapConfirm());
 
-        setOnTouchListener(new OnTouchListener() {
-            private float dX;
+        dragHelper = new OverlayDragHelper(this, windowManager);
 
-            private float dY;
-
-            @Override
-            public boolean onTouch(View v, MotionEvent event) {
-                //if the view can be minized by touch or it is not expanded
-                if ((mCanBeMinizedByTouch || !isExpanded()) && gestureDetector.onTouchEvent(event)) {
-                    toggleSize();
-                } else if (!isExpanded()) { // drag n drop only when minimized
-                    switch (event.getAction()) {
-                        case MotionEvent.ACTION_DOWN:
-                            dX = getX() - event.getRawX();
-                            dY = getY() - event.getRawY();
-                            break;
-                        case MotionEvent.ACTION_MOVE:
-                            float x = event.getRawX() + dX;
-                            float y = event.getRawY() + dY;
-                            if (x < 0)
-                                x = 0;
-                            if (y < ScreenHelper.getStatusBarHeight(getContext()))
-                                y = ScreenHelper.getStatusBarHeight(getContext());
-
-                            animate().x(event.getRawX() + dX).y(event.getRawY() + dY)
-                                    .setDuration(0).start();
-                            break;
-                        case MotionEvent.ACTION_UP:
-                            CornerHelper.sendToCorner(AbstractVoxeetOverlayView.this, windowManager, getContext());
-                        default:
-                            return false;
-                    }
-                }
-                return true;
+        setOnTouchListener((v, event) -> {
+            //if the view can be minized by touch or it is not expanded
+            if ((mCanBeMinizedByTouch || !isExpanded()) && gestureDetector.onTouchEvent(event)) {
+                toggleSize();
+            } else if (!isExpanded()) { // drag n drop only when minimized
+                return dragHelper.onTouchEvent(event);
             }
+            return true;
         });
     }
 
@@ -235,6 +238,7 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
     public void expand() {
         //isMaxedOut = true;
         overlayState = OverlayState.EXPANDED;
+        VoxeetSpeakersTimerInstance.instance.setOverlayState(overlayState);
 
         WindowHelper.hideKeyboard(this);
 
@@ -246,6 +250,7 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         if (!mRemainExpanded) {
             //isMaxedOut = false;
             overlayState = OverlayState.MINIMIZED;
+            VoxeetSpeakersTimerInstance.instance.setOverlayState(overlayState);
 
             onPreMinizedView();
             minizeView();
@@ -266,13 +271,13 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         action_button.setVisibility(View.VISIBLE);
         ViewGroup view = (ViewGroup) getParent();
         if (view != null)
-            animationHandler.expand(1000, view.getWidth(), view.getHeight());
+            animationHandler.expand(TRANSITION_DURATION, view.getWidth(), view.getHeight());
     }
 
     protected void minizeView() {
         if (!mRemainExpanded) {
             action_button.setVisibility(View.GONE);
-            animationHandler.collapse(1000, defaultWidth, defaultHeight);
+            animationHandler.collapse(TRANSITION_DURATION, defaultWidth, defaultHeight);
         }
     }
 
@@ -369,7 +374,36 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
 
     public class AnimationHandler {
 
-        private final long animatonDuration = 200;
+        //measures the transitions in debug builds
+        private final FrameTimeRecorder frameTimeRecorder = new FrameTimeRecorder("overlay transition");
+
+        private final OverlayTransition.Target transitionTarget = new OverlayTransition.Target() {
+            @Override
+            public int getWidth() {
+                return AbstractVoxeetOverlayView.this.getWidth();
+            }
+
+            @Override
+            public int getHeight() {
+                return AbstractVoxeetOverlayView.this.getHeight();
+            }
+
+            @Override
+            public void setHardwareLayer(boolean enabled) {
+                setLayerType(enabled ? View.LAYER_TYPE_HARDWARE : View.LAYER_TYPE_NONE, null);
+            }
+
+            @Override
+            public void setScale(float scaleX, float scaleY) {
+                setScaleX(scaleX);
+                setScaleY(scaleY);
+            }
+
+            @Override
+            public void commitSize(int width, int height) {
+                AbstractVoxeetOverlayView.this.commitSize(width, height);
+            }
+        };
 
         /**
          * Animation when orientation changed to landscape.
@@ -383,22 +417,7 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         void toLandScape(int duration, final int previousWidth, final int targetWidth, final int previousHeight, final int targetHeight) {
             cancelAnimations();
 
-            animate().x(0).y(0).setDuration(0).start();
-
-            ValueAnimator height = ValueAnimator.ofInt(previousHeight, targetHeight);
-            height.setDuration(duration);
-            height.addUpdateListener(HEIGHT_LISTENER);
-
-            ValueAnimator width = ValueAnimator.ofInt(previousWidth, targetWidth);
-            width.setDuration(duration);
-            width.addUpdateListener(WIDTH_LISTENER);
-
-            AnimatorSet animatorSet = new AnimatorSet();
-            animatorSet.addListener(ANIMATOR_LISTENER);
-            animatorSet.setDuration(animatonDuration);
-            animatorSet.setInterpolator(new AccelerateInterpolator());
-            animatorSet.playTogether(width, height);
-            appendAndStart(animatorSet);
+            transform(duration, 0, 0, targetWidth, targetHeight);
         }
 
         /**
@@ -411,22 +430,7 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         void expand(int duration, final int targetWidth, final int targetHeight) {
             cancelAnimations();
 
-            animate().x(0).y(0).setDuration(300).start();
-
-            ValueAnimator height = ValueAnimator.ofInt(getHeight(), targetHeight);
-            height.setDuration(duration);
-            height.addUpdateListener(HEIGHT_LISTENER);
-
-            ValueAnimator width = ValueAnimator.ofInt(getWidth(), targetWidth);
-            width.setDuration(duration);
-            width.addUpdateListener(WIDTH_LISTENER);
-
-            AnimatorSet animatorSet = new AnimatorSet();
-            animatorSet.addListener(ANIMATOR_LISTENER);
-            animatorSet.setDuration(animatonDuration);
-            animatorSet.setInterpolator(new AccelerateInterpolator());
-            animatorSet.playTogether(width, height);
-            appendAndStart(animatorSet);
+            transform(duration, 0, 0, targetWidth, targetHeight);
         }
 
         /**
@@ -439,30 +443,68 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         void collapse(int duration, final int targetWidth, final int targetHeight) {
             cancelAnimations();
 
+            float x = getX();
+            float y = getY();
             if (isOverlay()) {
-                animate().x(dm.widthPixels - defaultWidth).y(ScreenHelper.actionBar(getContext()) + ScreenHelper.getStatusBarHeight(getContext())).setDuration(300).start();
+                x = dm.widthPixels - defaultWidth;
+                y = ScreenHelper.actionBar(getContext()) + ScreenHelper.getStatusBarHeight(getContext());
             } else if (getParent() != null) {
                 ViewGroup view = (ViewGroup) getParent();
-                animate().x(dm.widthPixels - defaultWidth - view.getPaddingRight()).y(view.getPaddingTop()).setDuration(200).start();
+                x = dm.widthPixels - defaultWidth - view.getPaddingRight();
+                y = view.getPaddingTop();
             }
 
-            ValueAnimator height = ValueAnimator.ofInt(getHeight(), targetHeight);
-            height.setDuration(duration);
-            height.addUpdateListener(HEIGHT_LISTENER);
+            transform(duration, x, y, targetWidth, targetHeight);
+        }
 
-            ValueAnimator width = ValueAnimator.ofInt(getWidth(), targetWidth);
-            width.setDuration(duration);
-            width.addUpdateListener(WIDTH_LISTENER);
+        @NonNull
+        public FrameTimeRecorder getFrameTimeRecorder() {
+            return frameTimeRecorder;
+        }
 
+        /**
+         * Move and scale the view to the target bounds without laying it out, see OverlayTransition
+         *
+         * @param duration     the duration in ms
+         * @param x            the target x
+         * @param y            the target y
+         * @param targetWidth  the target width
+         * @param targetHeight the target height
+         */
+        private void transform(int duration, float x, float y, int targetWidth, int targetHeight) {
+            //scale from the top left corner, which is the position animated
+            setPivotX(0);
+            setPivotY(0);
+            final OverlayTransition transition = new OverlayTransition(transitionTarget,
+                    BuildConfig.DEBUG ? frameTimeRecorder : null, targetWidth, targetHeight);
+
+            AbstractVoxeetOverlayView view = AbstractVoxeetOverlayView.this;
             AnimatorSet animatorSet = new AnimatorSet();
+            animatorSet.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationStart(Animator animation) {
+                    transition.onStart();
+                }
+
+                @Override
+                public void onAnimationCancel(Animator animation) {
+                    transition.onCancel();
+                }
+
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    transition.onEnd();
+                }
+            });
             animatorSet.addListener(ANIMATOR_LISTENER);
-            animatorSet.setDuration(animatonDuration);
+            animatorSet.setDuration(Math.max(0, duration));
             animatorSet.setInterpolator(new AccelerateInterpolator());
-            animatorSet.playTogether(width, height);
-
+            animatorSet.playTogether(ObjectAnimator.ofFloat(view, View.X, x),
+                    ObjectAnimator.ofFloat(view, View.Y, y),
+                    ObjectAnimator.ofFloat(view, View.SCALE_X, transition.getScaleX()),
+                    ObjectAnimator.ofFloat(view, View.SCALE_Y, transition.getScaleY()));
             appendAndStart(animatorSet);
         }
-
     }
 
     protected IExpandableViewProviderListener getExpandableViewProviderListener() {
@@ -481,39 +523,25 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         return OverlayState.EXPANDED.equals(overlayState);
     }
 
-    private ValueAnimator.AnimatorUpdateListener HEIGHT_LISTENER = new ValueAnimator.AnimatorUpdateListener() {
-        @Override
-        public void onAnimationUpdate(ValueAnimator animation) {
-            ViewGroup.LayoutParams params = getLayoutParams();
-            if (null != params) {
-                int value = (int) animation.getAnimatedValue();
-                params.height = value;
-                if (null != container && null != container.getLayoutParams()) {
-                    container.getLayoutParams().height = value;
-                }
-
-                requestLayout();
-                Log.d(TAG, "onAnimationUpdate: height " + value);
-            }
+    /**
+     * Apply a new size to the view and its container, in a single layout pass
+     *
+     * @param width  the new width
+     * @param height the new height
+     */
+    private void commitSize(int width, int height) {
+        ViewGroup.LayoutParams params = getLayoutParams();
+        if (null == params) return;
+
+        params.width = width;
+        params.height = height;
+        if (null != container && null != container.getLayoutParams()) {
+            container.getLayoutParams().width = width;
+            container.getLayoutParams().height = height;
         }
-    };
-
-    private ValueAnimator.AnimatorUpdateListener WIDTH_LISTENER = new ValueAnimator.AnimatorUpdateListener() {
-        @Override
-        public void onAnimationUpdate(ValueAnimator animation) {
-            int value = (int) animation.getAnimatedValue();
-            ViewGroup.LayoutParams params = getLayoutParams();
-            if (null != params) {
-                params.width = value;
-                if (null != container && null != container.getLayoutParams()) {
-                    container.getLayoutParams().width = value;
-                }
 
-                requestLayout();
-                Log.d(TAG, "onAnimationUpdate: width " + value);
-            }
-        }
-    };
+        requestLayout();
+    }
 
     private Animator.AnimatorListener ANIMATOR_LISTENER = new Animator.AnimatorListener() {
         @Override
@@ -527,6 +555,7 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
             if (!isExpanded()) {
                 CornerHelper.sendToCorner(AbstractVoxeetOverlayView.this, windowManager, getContext());
             } else {
+                CornerHelper.cancel(AbstractVoxeetOverlayView.this);
                 animate().x(0).y(0).setDuration(0).start();
             }
         }
@@ -0,0 +1,21 @@
+package com.voxeet.uxkit.providers.logics;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import com.voxeet.uxkit.implementation.ConferenceLayoutMode;
+import com.voxeet.uxkit.implementation.VoxeetConferenceView;
+import com.voxeet.uxkit.implementation.overlays.OverlayState;
+import com.voxeet.uxkit.implementation.overlays.abs.AbstractVoxeetExpandableView;
+
+/**
+ * Provide conference views displaying the participants in a grid when expanded
+ */
+public class GridConferenceSubViewProvider implements IVoxeetSubViewProvider {
+
+    @NonNull
+    @Override
+    public AbstractVoxeetExpandableView createView(Context context, OverlayState overlayState) {
+        return new VoxeetConferenceView(context, ConferenceLayoutMode.GRID);
+    }
+}
@@ -21,7 +21,8 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
     @NonNull
     private Application mApp; //initialized by constructor
 
-    private boolean mIsActivityResumed;
+    //read by the sampling thread of the VoxeetSpeakersTimerInstance
+    private volatile boolean mIsActivityResumed;
 
     @Nullable
     private Activity mCurrentActivity;
@@ -98,6 +99,7 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
 
     @Override
     public void onActivityResumed(@NonNull Activity activity) {
+        //set before the listener is called, which wakes the speakers timer up
         mIsActivityResumed = true;
         setCurrentActivity(activity);
 
@@ -137,6 +139,8 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
 
     @Override
     public void onActivityDestroyed(Activity activity) {
-
+        if (mListener != null) {
+            mListener.onActivityDestroyed(activity);
+        }
     }
 }
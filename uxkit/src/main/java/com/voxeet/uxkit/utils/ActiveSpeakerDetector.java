@@ -0,0 +1,28 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Engine computing the active speaker from the levels sampled by the VoxeetSpeakersTimerInstance
+ * <p>
+ * Implementations are called on the sampling thread, once per pass, and may keep state between calls
+ */
+public interface ActiveSpeakerDetector {
+
+    int NO_SPEAKER = ParticipantSlotTable.NO_SLOT;
+
+    /**
+     * Feed a new sampling pass to the detector
+     *
+     * @param snapshot  the levels of this pass
+     * @param scheduler the scheduler deciding what is considered speech
+     * @param timestamp the uptime in ms of this pass
+     * @return the slot of the active speaker or NO_SPEAKER
+     */
+    int update(@NonNull AudioLevelsSnapshot snapshot, @NonNull AdaptiveSamplingScheduler scheduler, long timestamp);
+
+    /**
+     * Forget any state, called when a new sampling session starts
+     */
+    void reset();
+}
@@ -0,0 +1,114 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.Nullable;
+
+import com.voxeet.uxkit.implementation.overlays.OverlayState;
+
+/**
+ * Compute the delay before the next sampling pass of the VoxeetSpeakersTimerInstance
+ * <p>
+ * The fast rate is only used while something is displayed to the user and someone recently spoke.
+ * The sampling slows down when the overlay is minimized or when nobody speaks and is suspended
+ * when no listener is registered or when the application is not in the foreground.
+ */
+public final class AdaptiveSamplingScheduler {
+
+    public final static long SUSPENDED = -1;
+
+    private boolean adaptive = true;
+    private long fastInterval = VoxeetSpeakersTimerInstance.REFRESH_METER;
+    private long slowInterval = 500;
+    private long idleInterval = 1000;
+    private long speechHoldDuration = 3000;
+    private double speechThreshold = 0.02;
+
+    /**
+     * Compute the next delay
+     *
+     * @param subscribers     the number of registered listeners
+     * @param overlayState    the current state of the overlay, null if unknown
+     * @param activityResumed is the current activity resumed
+     * @param sinceLastSpeech the time in ms elapsed since a level crossed the speech threshold
+     * @return the delay in ms or SUSPENDED if no sampling should be scheduled
+     */
+    public long nextInterval(int subscribers, @Nullable OverlayState overlayState, boolean activityResumed, long sinceLastSpeech) {
+        if (!adaptive) return fastInterval;
+
+        if (subscribers <= 0 || !activityResumed) return SUSPENDED;
+
+        boolean speaking = sinceLastSpeech <= speechHoldDuration;
+        if (OverlayState.MINIMIZED.equals(overlayState)) {
+            return speaking ? slowInterval : idleInterval;
+        }
+        return speaking ? fastInterval : slowInterval;
+    }
+
+    /**
+     * Check if a given level must be considered as speech
+     *
+     * @param level the sampled level
+     * @return true if it crosses the speech threshold
+     */
+    public boolean isSpeech(double level) {
+        return level > speechThreshold;
+    }
+
+    public long getFastInterval() {
+        return fastInterval;
+    }
+
+    /**
+     * Enable or disable the adaptive behaviour. When disabled, the fast interval is always used
+     *
+     * @param adaptive the new state
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Set the interval used when the conference is visible and someone is speaking
+     *
+     * @param fastInterval the interval in ms
+     */
+    public void setFastInterval(long fastInterval) {
+        this.fastInterval = fastInterval;
+    }
+
+    /**
+     * Set the interval used when the overlay is expanded but nobody speaks, or minimized while someone speaks
+     *
+     * @param slowInterval the interval in ms
+     */
+    public void setSlowInterval(long slowInterval) {
+        this.slowInterval = slowInterval;
+    }
+
+    /**
+     * Set the interval used when the overlay is minimized and nobody speaks
+     *
+     * @param idleInterval the interval in ms
+     */
+    public void setIdleInterval(long idleInterval) {
+        this.idleInterval = idleInterval;
+    }
+
+    /**
+     * Set how long the last speech keeps the sampling at its faster rate
+     *
+     * @param speechHoldDuration the duration in ms
+     */
+    public void setSpeechHoldDuration(long speechHoldDuration) {
+        this.speechHoldDuration = speechHoldDuration;
+    }
+
+    /**
+     * Set the level above which a participant is considered speaking, by the sampling rate, the talk time
+     * statistics and the active speaker detection
+     *
+     * @param speechThreshold the threshold, 0.02 by default
+     */
+    public void setSpeechThreshold(double speechThreshold) {
+        this.speechThreshold = speechThreshold;
+    }
+}
@@ -0,0 +1,97 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+/**
+ * Measure the time between a conference status update and the first frame drawn by the overlay it displays
+ * <p>
+ * Only the first status update of a measure is kept : the overlay displayed while joining is measured from the
+ * creation of the conference.
+ */
+public final class AttachLatencyRecorder {
+
+    private final static String TAG = AttachLatencyRecorder.class.getSimpleName();
+
+    private boolean measuring = false;
+    private long startedAt = 0;
+
+    @Nullable
+    private String startReason;
+
+    @Nullable
+    private String lastReason;
+    private long lastLatency = 0;
+    private long measureCount = 0;
+
+    /**
+     * Start a measure if none is running
+     *
+     * @param reason the status which asked for the overlay
+     */
+    @MainThread
+    public void start(@NonNull String reason) {
+        start(reason, System.nanoTime());
+    }
+
+    /**
+     * To be called when the overlay draws its first frame, ends the running measure
+     */
+    @MainThread
+    public void onVisible() {
+        onVisible(System.nanoTime());
+    }
+
+    /**
+     * Drop the running measure, the overlay will not be displayed
+     */
+    @MainThread
+    public void cancel() {
+        measuring = false;
+        startReason = null;
+    }
+
+    void start(@NonNull String reason, long now) {
+        if (measuring) return;
+
+        measuring = true;
+        startedAt = now;
+        startReason = reason;
+    }
+
+    void onVisible(long now) {
+        if (!measuring) return;
+
+        measuring = false;
+        lastLatency = now - startedAt;
+        lastReason = startReason;
+        startReason = null;
+        measureCount++;
+        Log.d(TAG, "onVisible: overlay visible " + (lastLatency / 1000000) + "ms after " + lastReason);
+    }
+
+    public boolean isMeasuring() {
+        return measuring;
+    }
+
+    /**
+     * @return the duration in ns of the last measure
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * @return the status which started the last measure
+     */
+    @Nullable
+    public String getLastReason() {
+        return lastReason;
+    }
+
+    public long getMeasureCount() {
+        return measureCount;
+    }
+}
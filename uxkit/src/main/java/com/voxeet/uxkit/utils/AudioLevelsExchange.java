@@ -0,0 +1,95 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hand the AudioLevelsSnapshot filled by the sampling thread over to the main thread
+ * <p>
+ * At most three snapshots exist : the one published, the one pending and the one being filled. Both others
+ * are kept once released, so that once the first passes are made filling and publishing a snapshot never
+ * allocates, even when the main thread is late.
+ */
+final class AudioLevelsExchange {
+
+    @NonNull
+    private volatile AudioLevelsSnapshot published = AudioLevelsSnapshot.EMPTY;
+    //sampled but not yet published to the main thread
+    private final AtomicReference<AudioLevelsSnapshot> pending = new AtomicReference<>();
+    //released snapshots, to be filled again by the sampling thread
+    private final AtomicReference<AudioLevelsSnapshot> recycled = new AtomicReference<>();
+    private final AtomicReference<AudioLevelsSnapshot> spare = new AtomicReference<>();
+
+    /**
+     * Get a cleared snapshot to fill, on the sampling thread
+     *
+     * @param slots the slot table of the current sampling session
+     * @return a recycled snapshot, or a new one if none is available for this table
+     */
+    @NonNull
+    AudioLevelsSnapshot obtain(@NonNull ParticipantSlotTable slots) {
+        AudioLevelsSnapshot snapshot = recycled.getAndSet(null);
+        if (null == snapshot) snapshot = spare.getAndSet(null);
+        if (null == snapshot || snapshot.slots() != slots) return new AudioLevelsSnapshot(slots);
+
+        snapshot.reset();
+        return snapshot;
+    }
+
+    /**
+     * Make a filled snapshot the next one to publish, on the sampling thread
+     *
+     * @param snapshot the snapshot filled
+     * @return true if the main thread must be warned, false if it already is
+     */
+    boolean offer(@NonNull AudioLevelsSnapshot snapshot) {
+        AudioLevelsSnapshot previous = pending.getAndSet(snapshot);
+        if (null == previous) return true;
+
+        //the main thread did not consume the previous pass yet
+        snapshot.activeSpeakerUpdated |= previous.activeSpeakerUpdated;
+        recycle(previous);
+        return false;
+    }
+
+    /**
+     * Take the snapshot to publish, on the main thread
+     *
+     * @return the snapshot or null if none is pending
+     */
+    @Nullable
+    AudioLevelsSnapshot poll() {
+        return pending.getAndSet(null);
+    }
+
+    /**
+     * Publish a snapshot taken by poll(), the previous one is recycled
+     *
+     * @param snapshot the new snapshot to read from the main thread
+     */
+    void publish(@NonNull AudioLevelsSnapshot snapshot) {
+        AudioLevelsSnapshot previous = published;
+        published = snapshot;
+        if (AudioLevelsSnapshot.EMPTY != previous) recycle(previous);
+    }
+
+    @NonNull
+    AudioLevelsSnapshot published() {
+        return published;
+    }
+
+    /**
+     * Drop the snapshots not published, called when a new sampling session starts
+     */
+    void clear() {
+        pending.set(null);
+        recycled.set(null);
+        spare.set(null);
+    }
+
+    private void recycle(@NonNull AudioLevelsSnapshot snapshot) {
+        if (!recycled.compareAndSet(null, snapshot)) spare.set(snapshot);
+    }
+}
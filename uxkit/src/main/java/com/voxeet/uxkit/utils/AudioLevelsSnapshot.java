@@ -0,0 +1,141 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Result of one sampling pass of the VoxeetSpeakersTimerInstance
+ * <p>
+ * Levels are stored in a primitive table indexed by the slots of a ParticipantSlotTable. Instances are
+ * filled on the sampling thread then handed to the main thread : once published, a snapshot is never
+ * modified until the next one replaces it, after what its buffer is recycled for a later pass.
+ * Listeners must not keep a reference on it across ticks.
+ */
+public final class AudioLevelsSnapshot {
+
+    public final static AudioLevelsSnapshot EMPTY = new AudioLevelsSnapshot(new ParticipantSlotTable());
+
+    private final static int DEFAULT_CAPACITY = 16;
+
+    @NonNull
+    private final ParticipantSlotTable slots;
+
+    @NonNull
+    private double[] levels = new double[DEFAULT_CAPACITY];
+
+    @NonNull
+    private boolean[] active = new boolean[DEFAULT_CAPACITY];
+
+    private int size;
+
+    @Nullable
+    private String activeSpeaker;
+
+    boolean activeSpeakerUpdated;
+
+    private long timestamp;
+
+    AudioLevelsSnapshot(@NonNull ParticipantSlotTable slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Clear the values before a new sampling pass, keeping the underlying buffer
+     */
+    void reset() {
+        Arrays.fill(levels, 0, size, 0d);
+        Arrays.fill(active, 0, size, false);
+        size = 0;
+        activeSpeaker = null;
+        activeSpeakerUpdated = false;
+        timestamp = 0;
+    }
+
+    void set(int slot, double level, boolean locallyActive) {
+        if (slot >= levels.length) {
+            int capacity = Math.max(slot + 1, levels.length * 2);
+            levels = Arrays.copyOf(levels, capacity);
+            active = Arrays.copyOf(active, capacity);
+        }
+        levels[slot] = level;
+        active[slot] = locallyActive;
+        if (slot >= size) size = slot + 1;
+    }
+
+    void setActiveSpeaker(@Nullable String activeSpeaker, long timestamp) {
+        this.activeSpeaker = activeSpeaker;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Get the slot table used to index this snapshot
+     *
+     * @return the table shared by every snapshot of the same sampling session
+     */
+    @NonNull
+    public ParticipantSlotTable slots() {
+        return slots;
+    }
+
+    /**
+     * Get the audio level sampled for the given slot
+     *
+     * @param slot the slot of the participant
+     * @return the level or 0 if the participant was not sampled
+     */
+    public double audioLevel(int slot) {
+        if (slot < 0 || slot >= size) return 0d;
+        return levels[slot];
+    }
+
+    /**
+     * Check if the participant of the given slot was locally active during this pass
+     *
+     * @param slot the slot of the participant
+     * @return false if the participant was not sampled or not active
+     */
+    public boolean isActive(int slot) {
+        if (slot < 0 || slot >= size) return false;
+        return active[slot];
+    }
+
+    /**
+     * Get the audio level sampled for the given participant
+     *
+     * @param participantId the participant's id
+     * @return the level or 0 if the participant was not sampled
+     */
+    public double audioLevel(@Nullable String participantId) {
+        return audioLevel(slots.slotOf(participantId));
+    }
+
+    /**
+     * Get the number of slots available in this snapshot
+     *
+     * @return the upper bound (exclusive) of the slots to read
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the active speaker computed during this pass
+     *
+     * @return the participant id or null
+     */
+    @Nullable
+    public String activeSpeaker() {
+        return activeSpeaker;
+    }
+
+    /**
+     * Get the uptime at which this snapshot was sampled
+     *
+     * @return the value from SystemClock.uptimeMillis()
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,225 @@
+package com.voxeet.uxkit.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.voxeet.VoxeetSDK;
+import com.voxeet.sdk.services.ConferenceService;
+import com.voxeet.sdk.services.conference.information.ConferenceInformation;
+import com.voxeet.sdk.services.conference.information.ConferenceStatus;
+import com.voxeet.uxkit.BuildConfig;
+import com.voxeet.uxkit.implementation.overlays.OverlayState;
+
+import java.util.EnumMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * State of the conference UI, owned by a controller
+ * <p>
+ * Holds the conference status, the overlay state to restore and the deferred work of the UI. A status is
+ * applied once : receiving the current status again is not a transition. Each transition is timestamped, so
+ * that the time from CREATING to JOINED and from JOINED to the first video can be measured. Views subscribe
+ * to the transitions instead of deriving the status from the SDK.
+ */
+public final class ConferenceUIState {
+
+    private final static String TAG = ConferenceUIState.class.getSimpleName();
+
+    public interface Listener {
+        /**
+         * Called on the main thread after a transition
+         *
+         * @param previous the previous status
+         * @param status   the new status
+         */
+        void onConferenceStatusChanged(@NonNull ConferenceStatus previous, @NonNull ConferenceStatus status);
+    }
+
+    @NonNull
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    @NonNull
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @NonNull
+    private final CopyOnWriteArrayList<Runnable> deferred = new CopyOnWriteArrayList<>();
+
+    @NonNull
+    private ConferenceStatus status = ConferenceStatus.DEFAULT;
+
+    @Nullable
+    private OverlayState overlayState;
+
+    //uptime in ms of the transitions of the current conference
+    @NonNull
+    private final EnumMap<ConferenceStatus, Long> transitions = new EnumMap<>(ConferenceStatus.class);
+    private long lastTransitionAt = 0;
+    private long firstVideoAt = 0;
+
+    /**
+     * Apply a status received from the SDK
+     *
+     * @param status the new status
+     * @return true if it is a transition, false if the status was already applied
+     */
+    @MainThread
+    public boolean setConferenceStatus(@NonNull ConferenceStatus status) {
+        if (this.status == status) return false;
+
+        ConferenceStatus previous = this.status;
+        this.status = status;
+
+        long now = SystemClock.uptimeMillis();
+        //a new conference starts its own record
+        if (isTerminal(previous)) {
+            transitions.clear();
+            firstVideoAt = 0;
+        }
+        transitions.put(status, now);
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setConferenceStatus: " + previous + " -> " + status
+                    + (lastTransitionAt > 0 ? " after " + (now - lastTransitionAt) + "ms" : ""));
+            if (ConferenceStatus.JOINED == status && transitions.containsKey(ConferenceStatus.CREATING)) {
+                Log.d(TAG, "setConferenceStatus: CREATING -> JOINED in " + getCreatingToJoinedDuration() + "ms");
+            }
+        }
+        lastTransitionAt = now;
+
+        for (Listener listener : listeners) {
+            listener.onConferenceStatusChanged(previous, status);
+        }
+        return true;
+    }
+
+    /**
+     * @return the last status received
+     */
+    @NonNull
+    public ConferenceStatus getConferenceStatus() {
+        return status;
+    }
+
+    /**
+     * Get the status to display, the participants' states being only known by the SDK
+     *
+     * @return the last status received, or the SDK's one when it is more precise
+     */
+    @NonNull
+    public ConferenceStatus getDisplayedStatus() {
+        ConferenceService service = VoxeetSDK.conference();
+        ConferenceInformation information = null;
+        if (null != service && service.isInConference() && null != service.getConferenceId()) {
+            information = service.getCurrentConference();
+        }
+
+        //no status received yet, the conference was started before the UI
+        if (ConferenceStatus.DEFAULT == status) {
+            return null != information ? information.getConferenceState() : ConferenceStatus.LEFT;
+        }
+
+        if (ConferenceStatus.JOINED == status && null != information) {
+            ConferenceStatus state = information.getConferenceState();
+            if (ConferenceStatus.FIRST_PARTICIPANT == state || ConferenceStatus.NO_MORE_PARTICIPANT == state) {
+                return state;
+            }
+        }
+        return status;
+    }
+
+    /**
+     * To be called when a video is displayed, only the first one after JOINED is recorded
+     */
+    @MainThread
+    public void onVideoDisplayed() {
+        if (0 != firstVideoAt || !transitions.containsKey(ConferenceStatus.JOINED) || isTerminal(status)) return;
+
+        firstVideoAt = SystemClock.uptimeMillis();
+        if (BuildConfig.DEBUG) Log.d(TAG, "onVideoDisplayed: JOINED -> first video in " + getJoinedToFirstVideoDuration() + "ms");
+    }
+
+    /**
+     * Get the uptime of a transition of the current conference
+     *
+     * @param status the status reached
+     * @return the uptime in ms, 0 if the status was not reached
+     */
+    public long getTransitionTime(@NonNull ConferenceStatus status) {
+        Long time = transitions.get(status);
+        return null != time ? time : 0;
+    }
+
+    /**
+     * @return the time in ms from CREATING to JOINED, -1 if not measured
+     */
+    public long getCreatingToJoinedDuration() {
+        return getDuration(getTransitionTime(ConferenceStatus.CREATING), getTransitionTime(ConferenceStatus.JOINED));
+    }
+
+    /**
+     * @return the time in ms from JOINED to the first video displayed, -1 if not measured
+     */
+    public long getJoinedToFirstVideoDuration() {
+        return getDuration(getTransitionTime(ConferenceStatus.JOINED), firstVideoAt);
+    }
+
+    /**
+     * @return the overlay state to restore, null if none was saved
+     */
+    @Nullable
+    public OverlayState getOverlayState() {
+        return overlayState;
+    }
+
+    public void setOverlayState(@Nullable OverlayState overlayState) {
+        this.overlayState = overlayState;
+    }
+
+    /**
+     * Run a work after a delay, unless cancelled by cancelDeferred()
+     *
+     * @param runnable the work to run
+     * @param delay    the delay in ms, the work is posted right away if negative
+     */
+    @MainThread
+    public void defer(@NonNull Runnable runnable, long delay) {
+        deferred.add(runnable);
+        if (0 > delay) {
+            handler.post(runnable);
+        } else {
+            handler.postDelayed(runnable, delay);
+        }
+    }
+
+    /**
+     * Cancel the deferred work not run yet
+     */
+    @MainThread
+    public void cancelDeferred() {
+        for (Runnable runnable : deferred) {
+            handler.removeCallbacks(runnable);
+        }
+        deferred.clear();
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private static boolean isTerminal(@NonNull ConferenceStatus status) {
+        return ConferenceStatus.DEFAULT == status || ConferenceStatus.LEFT == status || ConferenceStatus.ERROR == status;
+    }
+
+    private static long getDuration(long from, long to) {
+        return from > 0 && to >= from ? to - from : -1;
+    }
+}
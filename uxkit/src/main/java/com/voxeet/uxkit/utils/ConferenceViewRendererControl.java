@@ -41,6 +41,9 @@ public class ConferenceViewRendererControl {
     };
     private boolean clickEnabled;
 
+    @android.support.annotation.Nullable
+    private Runnable onMirrorChanged;
+
 
     private ConferenceViewRendererControl() {
 
@@ -55,6 +58,15 @@ public class ConferenceViewRendererControl {
         this.otherVideoView = new WeakReference<>(otherVideoView);
     }
 
+    /**
+     * Set the callback invoked when the mirroring of a view is changed from here, e.g. after switching the camera
+     *
+     * @param onMirrorChanged the callback or null
+     */
+    public void setOnMirrorChanged(@android.support.annotation.Nullable Runnable onMirrorChanged) {
+        this.onMirrorChanged = onMirrorChanged;
+    }
+
     @Nullable
     private VoxeetConferenceView getParent() {
         return parent.get();
@@ -85,7 +97,7 @@ public class ConferenceViewRendererControl {
             if (!ownUserId.equals(peerId)) {
                 selectedView.setOnClickListener(null);
                 selectedView.setClickable(false);
-                selectedView.setMirror(false);
+                setMirror(selectedView, false);
                 selectedView.unAttach();
                 selectedView.setVisibility(View.VISIBLE);
                 selectedView.attach(peerId, stream);
@@ -96,7 +108,7 @@ public class ConferenceViewRendererControl {
         } else {
             selectedView.setOnClickListener(null);
             selectedView.setClickable(false);
-            selectedView.setMirror(false);
+            setMirror(selectedView, false);
             selectedView.unAttach();
             selectedView.setVisibility(View.VISIBLE);
             selectedView.attach(peerId, stream);
@@ -135,7 +147,7 @@ public class ConferenceViewRendererControl {
                 selfView.setVisibility(View.GONE);
 
                 selectedView.setVideoFill();
-                selectedView.setMirror(provider.isDefaultFrontFacing());
+                setMirror(selectedView, provider.isDefaultFrontFacing());
                 selectedView.setVisibility(View.VISIBLE);
                 selectedView.attach(ownUserId, stream);
                 setClickForSelectedIfNecessary();
@@ -148,7 +160,7 @@ public class ConferenceViewRendererControl {
                     selectedView.setVisibility(View.GONE);
                     getParent().showSpeakerView();
                 }
-                selfView.setMirror(provider.isDefaultFrontFacing());
+                setMirror(selfView, provider.isDefaultFrontFacing());
                 selfView.attach(VoxeetSDK.session().getParticipantId(), stream);
                 selfView.setVisibility(View.VISIBLE);
             }
@@ -238,14 +250,19 @@ public class ConferenceViewRendererControl {
                 //only mirror the view in case of camera stream
                 MediaStreamType type = selectedView.current();
                 if (MediaStreamType.Camera.equals(type)) {
-                    selectedView.setMirror(isFrontCamera);
+                    setMirror(selectedView, isFrontCamera);
                 }
             } else if (null != selfView && ownUserId.equals(selfView.getPeerId())) {
-                selfView.setMirror(isFrontCamera);
+                setMirror(selfView, isFrontCamera);
             }
         }
     }
 
+    private void setMirror(@NonNull VideoView view, boolean mirror) {
+        view.setMirror(mirror);
+        if (null != onMirrorChanged) onMirrorChanged.run();
+    }
+
     public void enableClick(boolean state) {
         clickEnabled = state;
 
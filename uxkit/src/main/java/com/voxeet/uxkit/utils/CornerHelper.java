@@ -1,87 +1,223 @@
 package com.voxeet.uxkit.utils;
 
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Point;
 import android.os.Handler;
 import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.view.Display;
+import android.view.View;
 import android.view.WindowManager;
+import android.view.animation.LinearInterpolator;
 
 import com.voxeet.sdk.utils.ScreenHelper;
 import com.voxeet.uxkit.R;
 import com.voxeet.uxkit.implementation.VoxeetView;
 
+/**
+ * Send the minimized overlay to the closest corner of the screen
+ * <p>
+ * The screen bounds are cached until invalidate() is called on a configuration change, the corners are computed
+ * without allocation. A thrown overlay starts its motion with its release velocity and slows down to stop on the
+ * corner, instead of restarting from rest.
+ */
 public class CornerHelper {
 
+    //time during which the release velocity carries the view before it goes to a corner, in s
+    private final static float PROJECTION_TIME = 0.15f;
+    private final static int DURATION = 200;
+    private final static int FLING_DURATION = 300;
+    //the initial velocity can not carry the view further than this ratio of its distance to the corner
+    private final static float MAX_VELOCITY_RATIO = 3f;
+
     private static final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    //the motion in progress, only one overlay is displayed at a time
+    @Nullable
+    private static ValueAnimator mAnimator;
+    @Nullable
+    private static View mAnimatedView;
+    private static float mStartX;
+    private static float mStartY;
+    private static float mSlopeX;
+    private static float mSlopeY;
+
     private static int mCornerMargin;
 
+    //cached screen bounds
+    private static boolean mBoundsValid = false;
+    private static int mTop;
+    private static int mRight;
+    private static int mBottom;
+
+    //only used on the main thread
+    private static final Point mTarget = new Point();
+
     private CornerHelper() {
 
     }
 
-    private static Point getCenterPosition(VoxeetView view) {
-        Point point = new Point();
-        point.x = (int) (view.getX() + view.getWidth() / 2);
-        point.y = (int) (view.getY() + view.getHeight() / 2);
+    /**
+     * Forget the cached screen bounds, to be called when the configuration changes
+     */
+    @MainThread
+    public static void invalidate() {
+        mBoundsValid = false;
+    }
 
-        return point;
+    /**
+     * Get the minimum y the overlay can be dragged to, below the status bar
+     *
+     * @param windowManager the window manager of the view
+     * @param context       the view's context
+     * @return the minimum y
+     */
+    @MainThread
+    public static int getTop(WindowManager windowManager, Context context) {
+        ensureBounds(windowManager, context);
+        return mTop;
     }
 
-    private static Corner getClosestCorner(VoxeetView view, WindowManager windowManager, Context context) {
-        Point center = getCenterPosition(view);
-        Display display = windowManager.getDefaultDisplay();
-        int statusHeight = ScreenHelper.getStatusBarHeight(context);
+    private static void ensureBounds(WindowManager windowManager, Context context) {
+        if (mBoundsValid) return;
 
-        int top = statusHeight;
-        int left = 0;
-        int bottom = display.getHeight();
-        int right = display.getWidth();
+        Display display = windowManager.getDefaultDisplay();
+        mTop = ScreenHelper.getStatusBarHeight(context);
+        mRight = display.getWidth();
+        mBottom = display.getHeight();
 
-        mCornerMargin = (int) view.getContext().getResources().getDimension(R.dimen.voxeet_overlay_margin);
+        mCornerMargin = (int) context.getResources().getDimension(R.dimen.voxeet_overlay_margin);
         if (mCornerMargin < 0) mCornerMargin = 0;
 
-        Point topLeft = new Point(left, top);
-        Point topRight = new Point(right, top);
-        Point bottomLeft = new Point(left, bottom);
-        Point bottomRight = new Point(right, bottom);
-
-        Corner doubleTopLeft = new Corner(Corner.Type.TopLeft, topLeft);
-        Corner doubleTopRight = new Corner(Corner.Type.TopRight, topRight);
-        Corner doubleBottomLeft = new Corner(Corner.Type.BottomLeft, bottomLeft);
-        Corner doubleBottomRight = new Corner(Corner.Type.BottomRight, bottomRight);
-
-        Corner max = doubleTopLeft;
-
-        if (doubleTopRight.isCloser(max, center)) max = doubleTopRight;
-        if (doubleBottomLeft.isCloser(max, center)) max = doubleBottomLeft;
-        if (doubleBottomRight.isCloser(max, center)) max = doubleBottomRight;
-
-        return max;
+        mBoundsValid = true;
     }
 
-    private static Point getFinalPositionForCorner(VoxeetView view, WindowManager windowManager, Context context, Corner corner) {
-        Display display = windowManager.getDefaultDisplay();
-        int statusHeight = ScreenHelper.getStatusBarHeight(context);
+    /**
+     * Get the corner of the screen closest to a point, the left of the screen being 0
+     *
+     * @param x      the point's x
+     * @param y      the point's y
+     * @param top    the top of the screen
+     * @param right  the right of the screen
+     * @param bottom the bottom of the screen
+     * @return the type of the closest corner
+     */
+    static Corner.Type getClosestCorner(float x, float y, int top, int right, int bottom) {
+        boolean isLeft = x * 2 < right;
+        boolean isTop = y * 2 < top + bottom;
+
+        if (isTop) return isLeft ? Corner.Type.TopLeft : Corner.Type.TopRight;
+        return isLeft ? Corner.Type.BottomLeft : Corner.Type.BottomRight;
+    }
 
-        switch (corner.getType()) {
+    private static void getFinalPositionForCorner(VoxeetView view, Corner.Type type, Point out) {
+        switch (type) {
             case TopRight:
-                return new Point(display.getWidth() - view.getWidth() - mCornerMargin, statusHeight + mCornerMargin);
+                out.set(mRight - view.getWidth() - mCornerMargin, mTop + mCornerMargin);
+                break;
             case BottomLeft:
-                return new Point(mCornerMargin, display.getHeight() - view.getHeight() - mCornerMargin);
+                out.set(mCornerMargin, mBottom - view.getHeight() - mCornerMargin);
+                break;
             case BottomRight:
-                return new Point(display.getWidth() - view.getWidth() - mCornerMargin, display.getHeight() - view.getHeight() - mCornerMargin);
+                out.set(mRight - view.getWidth() - mCornerMargin, mBottom - view.getHeight() - mCornerMargin);
+                break;
             case TopLeft:
             default:
-                return new Point(mCornerMargin, statusHeight + mCornerMargin);
+                out.set(mCornerMargin, mTop + mCornerMargin);
         }
     }
 
     public static void sendToCorner(final VoxeetView view, final WindowManager windowManager, final Context context) {
-        mHandler.post(() -> {
-            Corner corner = CornerHelper.getClosestCorner(view, windowManager, context);
-            Point closest_corner = CornerHelper.getFinalPositionForCorner(view, windowManager, context, corner);
-            view.animate().x(closest_corner.x).y(closest_corner.y).setDuration(200).start();
+        mHandler.post(() -> flingToCorner(view, windowManager, context, 0, 0));
+    }
+
+    /**
+     * Send the view to the corner it is thrown to
+     *
+     * @param view          the overlay
+     * @param windowManager the window manager of the view
+     * @param context       the view's context
+     * @param velocityX     the horizontal velocity at release in px/s, 0 if dropped
+     * @param velocityY     the vertical velocity at release in px/s, 0 if dropped
+     */
+    @MainThread
+    public static void flingToCorner(VoxeetView view, WindowManager windowManager, Context context,
+                                     float velocityX, float velocityY) {
+        ensureBounds(windowManager, context);
+        cancel(view);
+
+        float x = view.getX() + view.getWidth() / 2f + velocityX * PROJECTION_TIME;
+        float y = view.getY() + view.getHeight() / 2f + velocityY * PROJECTION_TIME;
+        getFinalPositionForCorner(view, getClosestCorner(x, y, mTop, mRight, mBottom), mTarget);
+
+        boolean thrown = velocityX != 0 || velocityY != 0;
+        int duration = thrown ? FLING_DURATION : DURATION;
+
+        mAnimatedView = view;
+        mStartX = view.getX();
+        mStartY = view.getY();
+        //the velocity in px per unit of progress, the slope of the curve at its start
+        mSlopeX = slope(velocityX * duration / 1000f, mTarget.x - mStartX);
+        mSlopeY = slope(velocityY * duration / 1000f, mTarget.y - mStartY);
+
+        ValueAnimator animator = ensureAnimator();
+        animator.setDuration(duration);
+        animator.start();
+    }
+
+    /**
+     * Stop the motion of the given view, to be called when the user catches it
+     *
+     * @param view the overlay
+     */
+    @MainThread
+    public static void cancel(@NonNull View view) {
+        if (mAnimatedView != view || null == mAnimator) return;
+
+        mAnimator.cancel();
+        mAnimatedView = null;
+    }
+
+    private static float slope(float slope, float distance) {
+        float max = Math.abs(distance) * MAX_VELOCITY_RATIO;
+        return Math.max(-max, Math.min(max, slope));
+    }
+
+    /**
+     * Position on a cubic curve starting with the given slope and stopping at the end, a smoothstep without velocity
+     *
+     * @param start    the start position
+     * @param end      the end position
+     * @param slope    the slope at the start
+     * @param t        the progress from 0 to 1
+     * @return the position
+     */
+    static float position(float start, float end, float slope, float t) {
+        float t2 = t * t;
+        float t3 = t2 * t;
+        return (2 * t3 - 3 * t2 + 1) * start + (t3 - 2 * t2 + t) * slope + (3 * t2 - 2 * t3) * end;
+    }
+
+    @NonNull
+    private static ValueAnimator ensureAnimator() {
+        if (null != mAnimator) return mAnimator;
+
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        //the easing is given by the curve itself
+        mAnimator.setInterpolator(new LinearInterpolator());
+        mAnimator.addUpdateListener(animation -> {
+            View view = mAnimatedView;
+            if (null == view) return;
+
+            float progress = animation.getAnimatedFraction();
+            view.setX(position(mStartX, mTarget.x, mSlopeX, progress));
+            view.setY(position(mStartY, mTarget.y, mSlopeY, progress));
+            //do not retain the overlay once it reached its corner
+            if (progress >= 1f) mAnimatedView = null;
         });
+        return mAnimator;
     }
 }
@@ -0,0 +1,105 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Default ActiveSpeakerDetector
+ * <p>
+ * Each participant's level is smoothed with an exponential moving average. A new speaker only takes
+ * over once the current one has been held for a minimum time and if its smoothed level is louder by
+ * a given ratio (hysteresis). A participant whose smoothed level is not speech for the scheduler can't take
+ * over. The last speaker is kept during silences and dropped when not locally active anymore.
+ */
+public class EmaActiveSpeakerDetector implements ActiveSpeakerDetector {
+
+    private long timeConstant = 300;
+    private long minimumHold = 800;
+    private double hysteresis = 1.5;
+
+    @NonNull
+    private double[] averages = new double[16];
+    private int current = NO_SPEAKER;
+    private long currentSince = 0;
+    private long lastTimestamp = 0;
+
+    @Override
+    public int update(@NonNull AudioLevelsSnapshot snapshot, @NonNull AdaptiveSamplingScheduler scheduler, long timestamp) {
+        int size = snapshot.size();
+        if (size > averages.length) {
+            averages = Arrays.copyOf(averages, Math.max(size, averages.length * 2));
+        }
+
+        long elapsed = 0 == lastTimestamp ? VoxeetSpeakersTimerInstance.REFRESH_METER : timestamp - lastTimestamp;
+        lastTimestamp = timestamp;
+        double alpha = 1 - Math.exp(-Math.max(0, elapsed) / (double) Math.max(1, timeConstant));
+
+        int best = NO_SPEAKER;
+        for (int slot = 0; slot < size; slot++) {
+            if (!snapshot.isActive(slot)) {
+                averages[slot] = 0;
+                continue;
+            }
+
+            averages[slot] += alpha * (snapshot.audioLevel(slot) - averages[slot]);
+            if (NO_SPEAKER == best || averages[slot] > averages[best]) best = slot;
+        }
+
+        //the current speaker left, or is not sampled anymore
+        if (NO_SPEAKER != current && !snapshot.isActive(current)) {
+            current = NO_SPEAKER;
+        }
+
+        if (NO_SPEAKER == best || !scheduler.isSpeech(averages[best]) || best == current) {
+            return current;
+        }
+
+        if (NO_SPEAKER == current) {
+            switchTo(best, timestamp);
+        } else if (timestamp - currentSince >= minimumHold && averages[best] > averages[current] * hysteresis) {
+            switchTo(best, timestamp);
+        }
+        return current;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(averages, 0d);
+        current = NO_SPEAKER;
+        currentSince = 0;
+        lastTimestamp = 0;
+    }
+
+    private void switchTo(int slot, long timestamp) {
+        current = slot;
+        currentSince = timestamp;
+    }
+
+    /**
+     * Set the time constant of the moving average, the higher the smoother
+     *
+     * @param timeConstant the time constant in ms
+     */
+    public void setTimeConstant(long timeConstant) {
+        this.timeConstant = timeConstant;
+    }
+
+    /**
+     * Set the minimum time a speaker is kept before another one can take over
+     *
+     * @param minimumHold the duration in ms
+     */
+    public void setMinimumHold(long minimumHold) {
+        this.minimumHold = minimumHold;
+    }
+
+    /**
+     * Set how louder a participant must be compared to the current speaker to take over
+     *
+     * @param hysteresis the ratio between both smoothed levels, 1.5 by default
+     */
+    public void setHysteresis(double hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+}
@@ -0,0 +1,160 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.voxeet.uxkit.BuildConfig;
+
+/**
+ * Record the frames drawn while an animation runs, to count the dropped ones
+ * <p>
+ * Frames are timed by the Choreographer. A frame is dropped each time a frame interval passes without a new
+ * frame, so a 50 ms gap at 60 Hz counts 2 dropped frames.
+ */
+public final class FrameTimeRecorder implements Choreographer.FrameCallback {
+
+    private final static String TAG = FrameTimeRecorder.class.getSimpleName();
+
+    //60 Hz
+    public final static long DEFAULT_FRAME_INTERVAL = 16_666_667L;
+
+    /**
+     * Schedule the frame callbacks, the Choreographer of the main thread outside of the tests
+     */
+    interface FrameScheduler {
+        void postFrameCallback(@NonNull Choreographer.FrameCallback callback);
+
+        void removeFrameCallback(@NonNull Choreographer.FrameCallback callback);
+    }
+
+    private final static FrameScheduler CHOREOGRAPHER = new FrameScheduler() {
+        @Override
+        public void postFrameCallback(@NonNull Choreographer.FrameCallback callback) {
+            Choreographer.getInstance().postFrameCallback(callback);
+        }
+
+        @Override
+        public void removeFrameCallback(@NonNull Choreographer.FrameCallback callback) {
+            Choreographer.getInstance().removeFrameCallback(callback);
+        }
+    };
+
+    @NonNull
+    private final String name;
+    @NonNull
+    private final FrameScheduler scheduler;
+
+    private long frameInterval = DEFAULT_FRAME_INTERVAL;
+    private boolean recording = false;
+
+    private long firstFrameAt = 0;
+    private long previousFrameAt = 0;
+    private int frameCount = 0;
+    private int droppedFrameCount = 0;
+    private long maxFrameTime = 0;
+
+    /**
+     * @param name the name of the recorded animation, for the logs
+     */
+    public FrameTimeRecorder(@NonNull String name) {
+        this(name, CHOREOGRAPHER);
+    }
+
+    FrameTimeRecorder(@NonNull String name, @NonNull FrameScheduler scheduler) {
+        this.name = name;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param frameInterval the display's frame interval in ns
+     */
+    public void setFrameInterval(long frameInterval) {
+        if (frameInterval > 0) this.frameInterval = frameInterval;
+    }
+
+    /**
+     * Start a new recording, the previous results are discarded
+     */
+    @MainThread
+    public void start() {
+        reset();
+        if (!recording) {
+            recording = true;
+            scheduler.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stop the recording, its results are logged in debug builds
+     */
+    @MainThread
+    public void stop() {
+        if (!recording) return;
+
+        recording = false;
+        scheduler.removeFrameCallback(this);
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, name + ": " + frameCount + " frames in " + (getDuration() / 1000000) + "ms, "
+                    + droppedFrameCount + " dropped, longest " + (maxFrameTime / 1000000) + "ms");
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!recording) return;
+
+        onFrame(frameTimeNanos);
+        scheduler.postFrameCallback(this);
+    }
+
+    void onFrame(long frameTimeNanos) {
+        if (0 == previousFrameAt) {
+            firstFrameAt = frameTimeNanos;
+        } else {
+            long frameTime = frameTimeNanos - previousFrameAt;
+            frameCount++;
+            maxFrameTime = Math.max(maxFrameTime, frameTime);
+            droppedFrameCount += Math.max(0, Math.round((double) frameTime / frameInterval) - 1);
+        }
+        previousFrameAt = frameTimeNanos;
+    }
+
+    void reset() {
+        firstFrameAt = 0;
+        previousFrameAt = 0;
+        frameCount = 0;
+        droppedFrameCount = 0;
+        maxFrameTime = 0;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * @return the number of frames drawn after the first one
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    /**
+     * @return the longest frame time in ns
+     */
+    public long getMaxFrameTime() {
+        return maxFrameTime;
+    }
+
+    /**
+     * @return the time in ns between the first and the last frames
+     */
+    public long getDuration() {
+        return previousFrameAt - firstFrameAt;
+    }
+}
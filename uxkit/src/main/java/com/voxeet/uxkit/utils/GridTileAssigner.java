@@ -0,0 +1,221 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Assign the participants to the tiles of the grid layout and choose which tiles render their video
+ * <p>
+ * A participant keeps its tile as long as it is displayed : newcomers take new tiles at the end and the
+ * tile of a participant leaving is taken by the last tile, so an active speaker change never moves a tile.
+ * Only a bounded number of tiles render their video, the participants who spoke the most recently are kept.
+ */
+public final class GridTileAssigner {
+
+    public final static int NO_TILE = -1;
+
+    /**
+     * State of the participants as seen by the assigner
+     */
+    public interface TileState {
+        /**
+         * @param participantId the participant's id
+         * @return true if the participant has a video to render
+         */
+        boolean hasVideo(@NonNull String participantId);
+
+        /**
+         * @param participantId the participant's id
+         * @return the uptime in ms when the participant was last heard, 0 if never
+         */
+        long getLastSpokeAt(@NonNull String participantId);
+    }
+
+    //participant's id per tile index
+    private final ArrayList<String> tiles = new ArrayList<>();
+    private final HashSet<String> rendering = new HashSet<>();
+    private int hiddenCount = 0;
+    private long moveCount = 0;
+
+    //reused on every pass
+    private final HashSet<String> wanted = new HashSet<>();
+    private final HashSet<String> assigned = new HashSet<>();
+    private final ArrayList<String> candidates = new ArrayList<>();
+    private final HashSet<String> selected = new HashSet<>();
+
+    /**
+     * Assign the participants to the tiles
+     *
+     * @param participants the participants to display, in the conference order
+     * @param maxTiles     the maximum number of tiles, the participants beyond are not displayed
+     * @return true if a tile was added, removed or moved
+     */
+    @MainThread
+    public boolean assign(@NonNull List<String> participants, int maxTiles) {
+        maxTiles = Math.max(0, maxTiles);
+        boolean changed = false;
+
+        wanted.clear();
+        wanted.addAll(participants);
+
+        //from the end, so the last tile moved into a free one was already checked
+        for (int index = tiles.size() - 1; index >= 0; index--) {
+            if (!wanted.contains(tiles.get(index))) {
+                removeTile(index);
+                changed = true;
+            }
+        }
+
+        while (tiles.size() > maxTiles) {
+            tiles.remove(tiles.size() - 1);
+            changed = true;
+        }
+
+        assigned.clear();
+        assigned.addAll(tiles);
+        for (String participantId : participants) {
+            if (tiles.size() >= maxTiles) break;
+            if (assigned.add(participantId)) {
+                tiles.add(participantId);
+                changed = true;
+            }
+        }
+
+        hiddenCount = wanted.size() - tiles.size();
+        rendering.retainAll(assigned);
+        return changed;
+    }
+
+    /**
+     * Choose the tiles rendering their video
+     *
+     * @param featured      the participant displayed elsewhere, its tile does not render its video
+     * @param maxRenderers  the maximum number of tiles rendering their video
+     * @param state         the state of the participants
+     * @return true if a tile starts or stops rendering its video
+     */
+    @MainThread
+    public boolean selectRenderers(@Nullable String featured, int maxRenderers, @NonNull TileState state) {
+        candidates.clear();
+        for (String participantId : tiles) {
+            if (!participantId.equals(featured) && state.hasVideo(participantId)) {
+                candidates.add(participantId);
+            }
+        }
+
+        //the participants who spoke last, then the tiles already rendering, then the tile order
+        if (candidates.size() > maxRenderers) {
+            Collections.sort(candidates, comparator(state));
+        }
+
+        selected.clear();
+        for (int index = 0; index < candidates.size() && index < maxRenderers; index++) {
+            selected.add(candidates.get(index));
+        }
+
+        if (selected.equals(rendering)) return false;
+        rendering.clear();
+        rendering.addAll(selected);
+        return true;
+    }
+
+    @MainThread
+    public void clear() {
+        tiles.clear();
+        rendering.clear();
+        hiddenCount = 0;
+    }
+
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    @NonNull
+    public String getParticipantAt(int index) {
+        return tiles.get(index);
+    }
+
+    /**
+     * @param participantId the participant's id
+     * @return the participant's tile or NO_TILE
+     */
+    public int indexOf(@NonNull String participantId) {
+        int index = tiles.indexOf(participantId);
+        return index >= 0 ? index : NO_TILE;
+    }
+
+    public boolean isRendering(@NonNull String participantId) {
+        return rendering.contains(participantId);
+    }
+
+    public int getRenderingCount() {
+        return rendering.size();
+    }
+
+    /**
+     * @return the number of participants not displayed because of the maximum number of tiles
+     */
+    public int getHiddenCount() {
+        return hiddenCount;
+    }
+
+    /**
+     * @return the number of tiles moved to take the place of a participant who left
+     */
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Get the number of columns giving the largest tiles
+     *
+     * @param count     the number of tiles
+     * @param width     the width available
+     * @param height    the height available
+     * @param tileRatio the desired width / height ratio of a tile
+     * @return the number of columns, at least 1
+     */
+    public static int columnsFor(int count, int width, int height, float tileRatio) {
+        if (count <= 1 || width <= 0 || height <= 0 || tileRatio <= 0) return 1;
+
+        int best = 1;
+        float bestWidth = -1;
+        for (int columns = 1; columns <= count; columns++) {
+            int rows = (count + columns - 1) / columns;
+            float tileWidth = Math.min(width / (float) columns, height / (float) rows * tileRatio);
+            if (tileWidth > bestWidth) {
+                bestWidth = tileWidth;
+                best = columns;
+            }
+        }
+        return best;
+    }
+
+    private void removeTile(int index) {
+        String last = tiles.remove(tiles.size() - 1);
+        if (index < tiles.size()) {
+            tiles.set(index, last);
+            moveCount++;
+        }
+    }
+
+    @NonNull
+    private Comparator<String> comparator(@NonNull TileState state) {
+        return (left, right) -> {
+            long leftSpokeAt = state.getLastSpokeAt(left);
+            long rightSpokeAt = state.getLastSpokeAt(right);
+            if (leftSpokeAt != rightSpokeAt) return leftSpokeAt > rightSpokeAt ? -1 : 1;
+
+            boolean leftRendering = rendering.contains(left);
+            if (leftRendering != rendering.contains(right)) return leftRendering ? -1 : 1;
+            return Integer.compare(tiles.indexOf(left), tiles.indexOf(right));
+        };
+    }
+}
@@ -0,0 +1,178 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.voxeet.VoxeetSDK;
+import com.voxeet.sdk.models.Participant;
+import com.voxeet.uxkit.configuration.VideoSwitch;
+
+/**
+ * Decide which participant the main video displays when the active speaker changes
+ * <p>
+ * A new active speaker only replaces the displayed participant once this one has been displayed for
+ * a minimum time and has been silent for a grace period. The displayed participant is kept while it is
+ * still speaking. When a switch is postponed, getNextEvaluationDelay() tells when to ask again.
+ */
+public final class MainVideoSwitchPolicy {
+
+    /**
+     * State of the participants as seen by the policy
+     */
+    public interface SpeakerState {
+        /**
+         * @param participantId the participant's id
+         * @return true if the participant can still be displayed
+         */
+        boolean isAvailable(@NonNull String participantId);
+
+        /**
+         * @param participantId the participant's id
+         * @return true if the participant is currently speaking
+         */
+        boolean isSpeaking(@NonNull String participantId);
+
+        /**
+         * @param participantId the participant's id
+         * @return the uptime in ms when the participant was last heard, 0 if never
+         */
+        long getLastSpokeAt(@NonNull String participantId);
+    }
+
+    /**
+     * State read from the SDK and the VoxeetSpeakersTimerInstance
+     */
+    public final static SpeakerState DEFAULT_STATE = new SpeakerState() {
+        @Override
+        public boolean isAvailable(@NonNull String participantId) {
+            Participant participant = VoxeetSDK.conference().findParticipantById(participantId);
+            return null != participant && participant.isLocallyActive();
+        }
+
+        @Override
+        public boolean isSpeaking(@NonNull String participantId) {
+            VoxeetSpeakersTimerInstance timer = VoxeetSpeakersTimerInstance.instance;
+            return timer.getScheduler().isSpeech(timer.audioLevel(timer.slotOf(participantId)));
+        }
+
+        @Override
+        public long getLastSpokeAt(@NonNull String participantId) {
+            return VoxeetSpeakersTimerInstance.instance.getSpeakingStatistics().getLastSpokeAt(participantId);
+        }
+    };
+
+    @NonNull
+    private SpeakerState state = DEFAULT_STATE;
+
+    @Nullable
+    private String current;
+    private long currentSince = 0;
+
+    //the candidate already counted as suppressed, to count each postponed switch once
+    @Nullable
+    private String suppressedCandidate;
+
+    private long nextEvaluationDelay = 0;
+    private long appliedCount = 0;
+    private long suppressedCount = 0;
+
+    public void setSpeakerState(@NonNull SpeakerState state) {
+        this.state = state;
+    }
+
+    /**
+     * Get the participant to display
+     *
+     * @param candidate     the active speaker
+     * @param configuration the switching configuration
+     * @param now           the current uptime in ms
+     * @return the participant to display, the candidate or the currently displayed one
+     */
+    @MainThread
+    @Nullable
+    public String select(@Nullable String candidate, @NonNull VideoSwitch configuration, long now) {
+        nextEvaluationDelay = 0;
+
+        if (null != current && !state.isAvailable(current)) current = null;
+
+        //nothing new to display, keep the current participant
+        if (null == candidate || candidate.equals(current)) return null != current ? current : candidate;
+
+        if (null == current) return switchTo(candidate, now);
+
+        long wait = Math.max(0, currentSince + configuration.minimum_dwell_time - now);
+        long lastSpokeAt = state.getLastSpokeAt(current);
+        if (lastSpokeAt > 0) {
+            wait = Math.max(wait, lastSpokeAt + configuration.grace_period - now);
+        }
+
+        if (configuration.prefer_attached_stream && state.isSpeaking(current)) {
+            wait = Math.max(wait, Math.max(configuration.grace_period, VoxeetSpeakersTimerInstance.REFRESH_METER));
+        }
+
+        if (wait <= 0) return switchTo(candidate, now);
+
+        if (!candidate.equals(suppressedCandidate)) {
+            suppressedCandidate = candidate;
+            suppressedCount++;
+        }
+        nextEvaluationDelay = wait;
+        return current;
+    }
+
+    /**
+     * Display a participant right away, for instance when selected by the user
+     *
+     * @param participantId the participant's id
+     * @param now           the current uptime in ms
+     */
+    @MainThread
+    public void force(@NonNull String participantId, long now) {
+        nextEvaluationDelay = 0;
+        if (participantId.equals(current)) return;
+
+        current = participantId;
+        currentSince = now;
+        suppressedCandidate = null;
+    }
+
+    @MainThread
+    public void reset() {
+        current = null;
+        currentSince = 0;
+        suppressedCandidate = null;
+        nextEvaluationDelay = 0;
+    }
+
+    /**
+     * Get the delay after which a postponed switch should be evaluated again
+     *
+     * @return the delay in ms, 0 if the last call did not postpone anything
+     */
+    public long getNextEvaluationDelay() {
+        return nextEvaluationDelay;
+    }
+
+    @Nullable
+    public String getCurrent() {
+        return current;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    @NonNull
+    private String switchTo(@NonNull String candidate, long now) {
+        current = candidate;
+        currentSince = now;
+        suppressedCandidate = null;
+        appliedCount++;
+        return candidate;
+    }
+}
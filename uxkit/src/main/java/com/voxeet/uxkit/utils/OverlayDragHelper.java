@@ -0,0 +1,119 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+import android.view.WindowManager;
+
+import com.voxeet.uxkit.implementation.VoxeetView;
+
+/**
+ * Drag the minimized overlay and throw it to a corner
+ * <p>
+ * The view only changes its translation during the gesture, without animator nor allocation. On release, the
+ * velocity measured by a VelocityTracker projects the view to the corner it is thrown to.
+ */
+public final class OverlayDragHelper {
+
+    @NonNull
+    private final VoxeetView view;
+
+    @NonNull
+    private final WindowManager windowManager;
+
+    private final int minimumFlingVelocity;
+    private final int maximumFlingVelocity;
+
+    @Nullable
+    private VelocityTracker velocityTracker;
+
+    private float dX;
+    private float dY;
+
+    /**
+     * @param view          the overlay to drag
+     * @param windowManager the window manager of the view
+     */
+    public OverlayDragHelper(@NonNull VoxeetView view, @NonNull WindowManager windowManager) {
+        this.view = view;
+        this.windowManager = windowManager;
+
+        ViewConfiguration configuration = ViewConfiguration.get(view.getContext());
+        minimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        maximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+    }
+
+    /**
+     * Manage a touch event of the drag
+     *
+     * @param event the event received by the view
+     * @return true while the gesture is being dragged
+     */
+    @MainThread
+    public boolean onTouchEvent(@NonNull MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                //catch the view if it is still going to its corner
+                view.animate().cancel();
+                CornerHelper.cancel(view);
+                dX = view.getX() - event.getRawX();
+                dY = view.getY() - event.getRawY();
+
+                if (null == velocityTracker) velocityTracker = VelocityTracker.obtain();
+                else velocityTracker.clear();
+                addMovement(event);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (null == velocityTracker) return true;
+                addMovement(event);
+
+                view.setX(Math.max(0, event.getRawX() + dX));
+                view.setY(Math.max(CornerHelper.getTop(windowManager, view.getContext()), event.getRawY() + dY));
+                return true;
+            case MotionEvent.ACTION_UP:
+                float velocityX = 0;
+                float velocityY = 0;
+                if (null != velocityTracker) {
+                    addMovement(event);
+                    velocityTracker.computeCurrentVelocity(1000, maximumFlingVelocity);
+                    velocityX = velocityTracker.getXVelocity();
+                    velocityY = velocityTracker.getYVelocity();
+                    if (Math.hypot(velocityX, velocityY) < minimumFlingVelocity) {
+                        velocityX = 0;
+                        velocityY = 0;
+                    }
+                }
+                recycle();
+
+                CornerHelper.flingToCorner(view, windowManager, view.getContext(), velocityX, velocityY);
+                return false;
+            case MotionEvent.ACTION_CANCEL:
+                recycle();
+                CornerHelper.flingToCorner(view, windowManager, view.getContext(), 0, 0);
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private void addMovement(@NonNull MotionEvent event) {
+        if (null == velocityTracker) return;
+
+        //the view moves under the finger, track the screen coordinates
+        float offsetX = event.getRawX() - event.getX();
+        float offsetY = event.getRawY() - event.getY();
+        event.offsetLocation(offsetX, offsetY);
+        velocityTracker.addMovement(event);
+        event.offsetLocation(-offsetX, -offsetY);
+    }
+
+    private void recycle() {
+        if (null != velocityTracker) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+}
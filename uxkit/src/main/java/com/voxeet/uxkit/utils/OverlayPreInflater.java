@@ -0,0 +1,220 @@
+package com.voxeet.uxkit.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.voxeet.sdk.exceptions.ExceptionManager;
+import com.voxeet.uxkit.implementation.overlays.abs.AbstractVoxeetOverlayView;
+
+/**
+ * Create the conference overlay ahead of time, during the next idle pass of the main looper
+ * <p>
+ * The overlay can be prepared once the application is idle, before any conference, so that the status events do
+ * not build the whole hierarchy themselves. A preparation requested by a status event is bounded by a timeout, in
+ * case the main looper never gets idle. A single overlay is kept across activities, like the displayed one it can be
+ * moved to another activity, it is destroyed with the activity it was created for.
+ */
+public final class OverlayPreInflater {
+
+    private final static String TAG = OverlayPreInflater.class.getSimpleName();
+
+    public final static long DEFAULT_TIMEOUT = 500;
+
+    public interface Factory {
+        /**
+         * Create the overlay
+         *
+         * @param context the context the overlay will be displayed in
+         * @return the new overlay
+         */
+        @NonNull
+        AbstractVoxeetOverlayView createView(@NonNull Context context);
+    }
+
+    public interface OnPreparedListener {
+        /**
+         * Called on the main thread once an overlay is ready to be consumed
+         */
+        void onPrepared();
+    }
+
+    @NonNull
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    @Nullable
+    private Context pendingContext;
+    @Nullable
+    private Factory pendingFactory;
+    @Nullable
+    private OnPreparedListener pendingListener;
+    private boolean timeoutPosted = false;
+
+    @Nullable
+    private Context preparedContext;
+    @Nullable
+    private AbstractVoxeetOverlayView prepared;
+
+    private long lastPreparationDuration = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    //both remove each other once the overlay is prepared
+    private final MessageQueue.IdleHandler idle = () -> {
+        prepareNow();
+        return false;
+    };
+
+    private final Runnable timeout = this::prepareNow;
+
+    /**
+     * Prepare an overlay during the next idle pass or at the latest after DEFAULT_TIMEOUT
+     *
+     * @param context  the context the overlay will be displayed in
+     * @param factory  creates the overlay
+     * @param listener called once the overlay is prepared
+     */
+    @MainThread
+    public void prepare(@NonNull Context context, @NonNull Factory factory, @Nullable OnPreparedListener listener) {
+        prepare(context, factory, listener, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Prepare an overlay during the next idle pass, nothing is done if one is already prepared
+     * <p>
+     * A preparation already pending is kept, it takes the new listener and timeout.
+     *
+     * @param context  the context the overlay will be created with if none is pending
+     * @param factory  creates the overlay
+     * @param listener called once the overlay is prepared
+     * @param timeout  the delay in ms after which the overlay is created even if the looper is not idle, 0 to wait
+     *                 for the idle pass only
+     */
+    @MainThread
+    public void prepare(@NonNull Context context, @NonNull Factory factory, @Nullable OnPreparedListener listener, long timeout) {
+        if (null != prepared) return;
+
+        if (null == pendingContext) {
+            pendingContext = context;
+            Looper.myQueue().addIdleHandler(idle);
+        }
+        pendingFactory = factory;
+        pendingListener = listener;
+
+        if (timeout > 0 && !timeoutPosted) {
+            timeoutPosted = true;
+            handler.postDelayed(this.timeout, timeout);
+        }
+    }
+
+    /**
+     * Take the prepared overlay, the pending preparation is cancelled
+     *
+     * @return the overlay prepared, null if none is ready
+     */
+    @MainThread
+    @Nullable
+    public AbstractVoxeetOverlayView consume() {
+        AbstractVoxeetOverlayView view = prepared;
+        if (null != view) {
+            prepared = null;
+            preparedContext = null;
+            hitCount++;
+        } else {
+            missCount++;
+        }
+
+        clear();
+        return view;
+    }
+
+    /**
+     * Cancel the preparation and destroy the overlay created with the given context only
+     *
+     * @param context the context being destroyed
+     */
+    @MainThread
+    public void release(@NonNull Context context) {
+        if (context == pendingContext || context == preparedContext) clear();
+    }
+
+    /**
+     * Cancel the pending preparation and destroy the prepared overlay
+     */
+    @MainThread
+    public void clear() {
+        cancelPending();
+
+        AbstractVoxeetOverlayView view = prepared;
+        prepared = null;
+        preparedContext = null;
+        if (null != view) view.onDestroy();
+    }
+
+    public boolean isPending() {
+        return null != pendingContext;
+    }
+
+    public boolean isPrepared() {
+        return null != prepared;
+    }
+
+    /**
+     * @return the time in ns spent creating the last prepared overlay
+     */
+    public long getLastPreparationDuration() {
+        return lastPreparationDuration;
+    }
+
+    /**
+     * @return the number of consumptions which obtained a prepared overlay
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of consumptions which had to create the overlay synchronously
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    private void prepareNow() {
+        Context context = pendingContext;
+        Factory factory = pendingFactory;
+        OnPreparedListener listener = pendingListener;
+        cancelPending();
+        if (null == context || null == factory) return;
+
+        try {
+            long start = System.nanoTime();
+            prepared = factory.createView(context);
+            preparedContext = context;
+            lastPreparationDuration = System.nanoTime() - start;
+            Log.d(TAG, "prepareNow: overlay prepared in " + (lastPreparationDuration / 1000000) + "ms");
+        } catch (Exception e) {
+            //the consumer will create it synchronously
+            ExceptionManager.sendException(e);
+            return;
+        }
+
+        if (null != listener) listener.onPrepared();
+    }
+
+    private void cancelPending() {
+        if (null != pendingContext) {
+            Looper.myQueue().removeIdleHandler(idle);
+            handler.removeCallbacks(timeout);
+        }
+        timeoutPosted = false;
+        pendingContext = null;
+        pendingFactory = null;
+        pendingListener = null;
+    }
+}
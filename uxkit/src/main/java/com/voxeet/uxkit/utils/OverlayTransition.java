@@ -0,0 +1,107 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * One expand or minimize transition of the overlay, animated with a scale instead of a layout per frame
+ * <p>
+ * The scale is relative to the size last committed : an interrupted transition leaves its scale, the next one
+ * continues from the size displayed. The view is drawn in a hardware layer during the transition and laid out
+ * once, at its final size, when the transition ends without being interrupted.
+ */
+public final class OverlayTransition {
+
+    public interface Target {
+        /**
+         * @return the width last committed
+         */
+        int getWidth();
+
+        /**
+         * @return the height last committed
+         */
+        int getHeight();
+
+        void setHardwareLayer(boolean enabled);
+
+        void setScale(float scaleX, float scaleY);
+
+        /**
+         * Lay the view out at its new size
+         *
+         * @param width  the new width
+         * @param height the new height
+         */
+        void commitSize(int width, int height);
+    }
+
+    @NonNull
+    private final Target target;
+    @Nullable
+    private final FrameTimeRecorder recorder;
+    private final int targetWidth;
+    private final int targetHeight;
+    private final float scaleX;
+    private final float scaleY;
+    private boolean cancelled = false;
+
+    /**
+     * @param target       the overlay
+     * @param recorder     records the frames of the transition, null not to record them
+     * @param targetWidth  the width at the end of the transition
+     * @param targetHeight the height at the end of the transition
+     */
+    public OverlayTransition(@NonNull Target target, @Nullable FrameTimeRecorder recorder, int targetWidth, int targetHeight) {
+        this.target = target;
+        this.recorder = recorder;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+
+        int width = target.getWidth();
+        int height = target.getHeight();
+        scaleX = width > 0 ? targetWidth / (float) width : 1f;
+        scaleY = height > 0 ? targetHeight / (float) height : 1f;
+    }
+
+    /**
+     * @return the horizontal scale to animate to
+     */
+    public float getScaleX() {
+        return scaleX;
+    }
+
+    /**
+     * @return the vertical scale to animate to
+     */
+    public float getScaleY() {
+        return scaleY;
+    }
+
+    @MainThread
+    public void onStart() {
+        target.setHardwareLayer(true);
+        if (null != recorder) recorder.start();
+    }
+
+    @MainThread
+    public void onCancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Called after onCancel as well, like Animator.AnimatorListener.onAnimationEnd
+     */
+    @MainThread
+    public void onEnd() {
+        if (null != recorder) recorder.stop();
+
+        //an interrupted transition is replaced by a new one, which scales from the size displayed
+        if (cancelled) return;
+
+        target.setHardwareLayer(false);
+        target.setScale(1f, 1f);
+        target.commitSize(targetWidth, targetHeight);
+    }
+}
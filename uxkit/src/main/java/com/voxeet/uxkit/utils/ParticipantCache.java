@@ -0,0 +1,476 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.voxeet.VoxeetSDK;
+import com.voxeet.android.media.MediaStream;
+import com.voxeet.android.media.stream.MediaStreamType;
+import com.voxeet.sdk.events.sdk.ConferenceStatusUpdatedEvent;
+import com.voxeet.sdk.events.success.ConferenceUpdated;
+import com.voxeet.sdk.events.v2.ParticipantAddedEvent;
+import com.voxeet.sdk.events.v2.ParticipantUpdatedEvent;
+import com.voxeet.sdk.events.v2.StreamAddedEvent;
+import com.voxeet.sdk.events.v2.StreamRemovedEvent;
+import com.voxeet.sdk.events.v2.StreamUpdatedEvent;
+import com.voxeet.sdk.models.Participant;
+import com.voxeet.sdk.models.v1.ConferenceParticipantStatus;
+import com.voxeet.sdk.models.v2.ParticipantType;
+import com.voxeet.sdk.services.ConferenceService;
+import com.voxeet.sdk.services.SessionService;
+import com.voxeet.sdk.utils.Opt;
+
+import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Participants of the current conference, maintained from the SDK's events
+ * <p>
+ * Each participant and stream event only computes the flags of the participant it targets and updates the
+ * counters, the queries are then O(1) reads. Conference status changes resynchronize every participant.
+ * <p>
+ * The lists are read from an immutable snapshot, rebuilt from the flags already computed by the first reader
+ * after an event. Between two events, every reader gets the same snapshot.
+ * <p>
+ * When the cache is not registered to an EventBus, every read resynchronizes it.
+ */
+public final class ParticipantCache {
+
+    private final static String TAG = ParticipantCache.class.getSimpleName();
+
+    public final static ParticipantCache instance = new ParticipantCache();
+
+    //remote participant as filtered by ToolkitUtils.isParticipant
+    private final static int FLAG_PARTICIPANT = 1;
+    //remote user, device or PSTN participant on air or connecting with a camera stream
+    private final static int FLAG_SPEAKER = 1 << 1;
+    //remote participant of any type on air or connecting with a camera stream
+    private final static int FLAG_ONLINE = 1 << 2;
+    //remote participant on air, or a user connecting with media
+    private final static int FLAG_ANSWERED = 1 << 3;
+    //remote participant on air
+    private final static int FLAG_ON_AIR_REMOTE = 1 << 4;
+    //any participant sharing its screen
+    private final static int FLAG_SCREEN_SHARE = 1 << 5;
+
+    private final static int FLAGS = 6;
+
+    private final static ConferenceParticipantStatus[] STATUSES = ConferenceParticipantStatus.values();
+    private final static ParticipantType[] TYPES = ParticipantType.values();
+
+    //in order of first appearance, which is the order of the conference's participants
+    private final LinkedHashMap<String, Record> records = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Participant> onAirRemotes = new LinkedHashMap<>();
+
+    private final int[] statusCounts = new int[STATUSES.length + 1];
+    private final int[] typeCounts = new int[TYPES.length + 1];
+    private final int[] flagCounts = new int[FLAGS];
+
+    @NonNull
+    private Snapshot snapshot = Snapshot.EMPTY;
+    //incremented by every change, the snapshot is stale when its version differs
+    private long version = 1;
+
+    private boolean registered = false;
+    private boolean selfCheck = false;
+
+    private ParticipantCache() {
+
+    }
+
+    /**
+     * Maintain the participants from the participant and stream events posted on the given bus
+     *
+     * @param eventBus the bus used by the SDK
+     */
+    public void register(@NonNull EventBus eventBus) {
+        if (!eventBus.isRegistered(this)) eventBus.register(this);
+        synchronized (this) {
+            registered = true;
+            resync();
+        }
+    }
+
+    /**
+     * Enable or disable the check of the counters after every event, disabled by default
+     * <p>
+     * Each check recounts every participant of the conference, it is meant to track down a missed event.
+     *
+     * @param selfCheck true to recount after every event
+     */
+    public synchronized void setSelfCheck(boolean selfCheck) {
+        this.selfCheck = selfCheck;
+    }
+
+    /**
+     * Get the snapshot of the current conference
+     *
+     * @return an immutable snapshot, rebuilt if an event changed the participants since the previous one
+     */
+    @NonNull
+    public synchronized Snapshot getSnapshot() {
+        if (!registered) resync();
+        if (snapshot.version != version) snapshot = build();
+        return snapshot;
+    }
+
+    public synchronized boolean hasParticipants() {
+        return count(FLAG_PARTICIPANT) > 0;
+    }
+
+    public synchronized int getParticipantCount() {
+        return count(FLAG_PARTICIPANT);
+    }
+
+    public synchronized boolean hasSpeakers() {
+        return count(FLAG_SPEAKER) > 0;
+    }
+
+    public synchronized boolean hasAnsweredParticipant() {
+        return count(FLAG_ANSWERED) > 0;
+    }
+
+    public synchronized boolean hasScreenShare() {
+        return count(FLAG_SCREEN_SHARE) > 0;
+    }
+
+    public synchronized int getScreenShareCount() {
+        return count(FLAG_SCREEN_SHARE);
+    }
+
+    /**
+     * Get the remote participant which is on air since the longest time
+     *
+     * @return the participant or null
+     */
+    @Nullable
+    public synchronized Participant getFirstOnAirRemote() {
+        if (!registered) resync();
+        Iterator<Participant> iterator = onAirRemotes.values().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Get the number of participants with a given status, the local participant included
+     *
+     * @param status the status
+     * @return the number of participants
+     */
+    public synchronized int count(@Nullable ConferenceParticipantStatus status) {
+        if (!registered) resync();
+        return statusCounts[indexOf(status)];
+    }
+
+    /**
+     * Get the number of participants of a given type, the local participant included
+     *
+     * @param type the type
+     * @return the number of participants
+     */
+    public synchronized int count(@Nullable ParticipantType type) {
+        if (!registered) resync();
+        return typeCounts[indexOf(type)];
+    }
+
+    /**
+     * Recount every participant and compare with the maintained counters
+     *
+     * @return true if the counters were consistent, they are fixed otherwise
+     */
+    public synchronized boolean verify() {
+        int[] statuses = Arrays.copyOf(statusCounts, statusCounts.length);
+        int[] types = Arrays.copyOf(typeCounts, typeCounts.length);
+        int[] flags = Arrays.copyOf(flagCounts, flagCounts.length);
+        int size = records.size();
+
+        resync();
+
+        boolean consistent = size == records.size()
+                && Arrays.equals(statuses, statusCounts)
+                && Arrays.equals(types, typeCounts)
+                && Arrays.equals(flags, flagCounts);
+
+        if (!consistent) {
+            Log.e(TAG, "verify: inconsistent counters, statuses " + Arrays.toString(statuses) + " " + Arrays.toString(statusCounts)
+                    + " types " + Arrays.toString(types) + " " + Arrays.toString(typeCounts)
+                    + " flags " + Arrays.toString(flags) + " " + Arrays.toString(flagCounts));
+        }
+        return consistent;
+    }
+
+    /**
+     * Compute the flags of a participant
+     *
+     * @param participant the participant
+     * @param ownUserId   the id of the local participant
+     * @return the FLAG_ values of this participant
+     */
+    private static int flagsOf(@NonNull Participant participant, @NonNull String ownUserId) {
+        String id = participant.getId();
+        if (null == id) return 0;
+
+        ConferenceParticipantStatus status = participant.getStatus();
+        boolean onAir = ConferenceParticipantStatus.ON_AIR == status;
+
+        int flags = 0;
+        if (onAir || ConferenceParticipantStatus.CONNECTING == status) {
+            MediaStream screenShare = participant.streamsHandler().getFirst(MediaStreamType.ScreenShare);
+            if (ToolkitUtils.hasVideo(screenShare)) flags |= FLAG_SCREEN_SHARE;
+        }
+
+        if (ownUserId.equals(id)) return flags;
+
+        boolean connecting = ConferenceParticipantStatus.CONNECTING == status;
+        ParticipantType type = Opt.of(participant.participantType()).or(ParticipantType.NONE);
+        MediaStream camera = connecting ? participant.streamsHandler().getFirst(MediaStreamType.Camera) : null;
+
+        boolean online = onAir || null != camera;
+
+        if (onAir) flags |= FLAG_ON_AIR_REMOTE | FLAG_ANSWERED;
+        if (online) flags |= FLAG_ONLINE;
+        if (online && ToolkitUtils.hasParticipantType(participant)) flags |= FLAG_SPEAKER;
+        if (ToolkitUtils.isParticipant(participant, ownUserId)) flags |= FLAG_PARTICIPANT;
+        if (ParticipantType.USER == type && null != camera
+                && (camera.audioTracks().size() > 0 || camera.videoTracks().size() > 0)) {
+            flags |= FLAG_ANSWERED;
+        }
+        return flags;
+    }
+
+    @NonNull
+    private static String ownUserId() {
+        return Opt.of(VoxeetSDK.session()).then(SessionService::getParticipantId).or("");
+    }
+
+    private int count(int flag) {
+        if (!registered) resync();
+        return flagCounts[Integer.numberOfTrailingZeros(flag)];
+    }
+
+    private synchronized void update(@Nullable Participant participant) {
+        if (!registered) return;
+
+        put(participant, ownUserId());
+        if (selfCheck) verify();
+    }
+
+    private void resync() {
+        records.clear();
+        onAirRemotes.clear();
+        Arrays.fill(statusCounts, 0);
+        Arrays.fill(typeCounts, 0);
+        Arrays.fill(flagCounts, 0);
+        version++;
+
+        ConferenceService service = VoxeetSDK.conference();
+        List<Participant> participants = null != service ? service.getParticipants() : null;
+        if (null == participants) return;
+
+        String ownUserId = ownUserId();
+        for (Participant participant : participants) put(participant, ownUserId);
+    }
+
+    private void put(@Nullable Participant participant, @NonNull String ownUserId) {
+        String id = null != participant ? participant.getId() : null;
+        if (null == id) return;
+
+        Record previous = records.get(id);
+        if (null != previous) apply(previous, -1);
+
+        Record record = new Record(participant, flagsOf(participant, ownUserId));
+        records.put(id, record);
+        apply(record, 1);
+        version++;
+
+        if (0 != (record.flags & FLAG_ON_AIR_REMOTE)) {
+            //keep the order in which the participants went on air
+            if (!onAirRemotes.containsKey(id)) onAirRemotes.put(id, participant);
+        } else {
+            onAirRemotes.remove(id);
+        }
+    }
+
+    @NonNull
+    private Snapshot build() {
+        Snapshot result = new Snapshot(version);
+
+        //the local participant has none of these flags
+        for (Record record : records.values()) {
+            if (0 != (record.flags & FLAG_ONLINE)) result.online.add(record.participant);
+            if (0 != (record.flags & FLAG_SPEAKER)) result.speakers.add(record.participant);
+            if (0 != (record.flags & FLAG_PARTICIPANT)) result.participants.add(record.participant);
+        }
+        result.answered = flagCounts[Integer.numberOfTrailingZeros(FLAG_ANSWERED)] > 0;
+
+        return result.seal();
+    }
+
+    private void apply(@NonNull Record record, int delta) {
+        statusCounts[record.status] += delta;
+        typeCounts[record.type] += delta;
+        for (int i = 0; i < FLAGS; i++) {
+            if (0 != (record.flags & (1 << i))) flagCounts[i] += delta;
+        }
+    }
+
+    private static int indexOf(@Nullable ConferenceParticipantStatus status) {
+        return null == status ? STATUSES.length : status.ordinal();
+    }
+
+    private static int indexOf(@Nullable ParticipantType type) {
+        return null == type ? TYPES.length : type.ordinal();
+    }
+
+    @Subscribe(threadMode = ThreadMode.POSTING, priority = 1)
+    public void onEvent(@NonNull ParticipantAddedEvent event) {
+        update(event.participant);
+    }
+
+    @Subscribe(threadMode = ThreadMode.POSTING, priority = 1)
+    public void onEvent(@NonNull ParticipantUpdatedEvent event) {
+        update(event.participant);
+    }
+
+    @Subscribe(threadMode = ThreadMode.POSTING, priority = 1)
+    public void onEvent(@NonNull StreamAddedEvent event) {
+        update(event.participant);
+    }
+
+    @Subscribe(threadMode = ThreadMode.POSTING, priority = 1)
+    public void onEvent(@NonNull StreamUpdatedEvent event) {
+        update(event.participant);
+    }
+
+    @Subscribe(threadMode = ThreadMode.POSTING, priority = 1)
+    public void onEvent(@NonNull StreamRemovedEvent event) {
+        update(event.participant);
+    }
+
+    @Subscribe(threadMode = ThreadMode.POSTING, priority = 1)
+    public synchronized void onEvent(@NonNull ConferenceUpdated event) {
+        resync();
+    }
+
+    @Subscribe(threadMode = ThreadMode.POSTING, priority = 1)
+    public synchronized void onEvent(@NonNull ConferenceStatusUpdatedEvent event) {
+        resync();
+    }
+
+    private static final class Record {
+        @NonNull
+        private final Participant participant;
+        private final int status;
+        private final int type;
+        private final int flags;
+
+        private Record(@NonNull Participant participant, int flags) {
+            this.participant = participant;
+            this.status = indexOf(participant.getStatus());
+            this.type = indexOf(participant.participantType());
+            this.flags = flags;
+        }
+    }
+
+    /**
+     * Immutable state of the remote participants of the conference, the local participant is never included
+     */
+    public static final class Snapshot {
+
+        final static Snapshot EMPTY = new Snapshot(0).seal();
+
+        private final long version;
+
+        @NonNull
+        private List<Participant> participants = new ArrayList<>();
+        @NonNull
+        private List<Participant> speakers = new ArrayList<>();
+        @NonNull
+        private List<Participant> online = new ArrayList<>();
+        private boolean answered = false;
+
+        private Snapshot(long version) {
+            this.version = version;
+        }
+
+        @NonNull
+        private Snapshot seal() {
+            participants = Collections.unmodifiableList(participants);
+            speakers = Collections.unmodifiableList(speakers);
+            online = Collections.unmodifiableList(online);
+            return this;
+        }
+
+        /**
+         * @return the version of this snapshot, different after each rebuild
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Get the participants as filtered by ToolkitUtils.isParticipant
+         *
+         * @return an unmodifiable list
+         */
+        @NonNull
+        public List<Participant> getParticipants() {
+            return participants;
+        }
+
+        /**
+         * Get the users, devices and PSTN participants which are on air or connecting with a camera stream
+         *
+         * @return an unmodifiable list
+         */
+        @NonNull
+        public List<Participant> getSpeakers() {
+            return speakers;
+        }
+
+        /**
+         * Get every participant which is on air or connecting with a camera stream, whatever its type
+         *
+         * @return an unmodifiable list
+         */
+        @NonNull
+        public List<Participant> getOnlineParticipants() {
+            return online;
+        }
+
+        public boolean hasParticipants() {
+            return !participants.isEmpty();
+        }
+
+        public boolean hasSpeakers() {
+            return !speakers.isEmpty();
+        }
+
+        @Nullable
+        public Participant getFirstSpeaker() {
+            return speakers.isEmpty() ? null : speakers.get(0);
+        }
+
+        @Nullable
+        public Participant getFirstOnlineParticipant() {
+            return online.isEmpty() ? null : online.get(0);
+        }
+
+        /**
+         * Check if any remote participant answered the call : on air, or a user connecting with media
+         *
+         * @return true if the outgoing call can be stopped
+         */
+        public boolean hasAnsweredParticipant() {
+            return answered;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Index of the participants displayed in a list, grouped by section (see ParticipantViewItem.SECTION_*)
+ * <p>
+ * Lookups by id, section counts and offsets are O(1). The entries are kept in an array ordered by first
+ * appearance, a removed entry leaves a tombstone until the array is full and gets compacted in O(n), amortized
+ * over the additions. Each section counts its entries in a Fenwick tree over this array : adding, removing or
+ * moving a participant, resolving a position or the participant at a position are O(log n), without shifting any
+ * other entry.
+ * <p>
+ * Inside a section the participants keep the order of their first appearance, the entries around a participant
+ * moving to another section are not reordered, so that a transition is displayed as a single move.
+ * <p>
+ * Not thread safe, meant to be used from the main thread
+ *
+ * @param <T> the type of the indexed participants
+ */
+public final class ParticipantIndex<T> {
+
+    public interface Resolver<T> {
+        /**
+         * @param item the participant
+         * @return its id, null if it can not be indexed
+         */
+        @Nullable
+        String idOf(@NonNull T item);
+
+        /**
+         * @param item the participant
+         * @return one of the ParticipantViewItem.SECTION_ values
+         */
+        int sectionOf(@NonNull T item);
+    }
+
+    private final static int SECTIONS = 4;
+    private final static int INITIAL_CAPACITY = 16;
+
+    @NonNull
+    private final Resolver<T> resolver;
+
+    //iterated in insertion order, the transitions are applied in a deterministic order
+    private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>();
+
+    //the entries in order of first appearance, null for the removed ones until the next compaction
+    @NonNull
+    private Entry[] slots = new Entry[INITIAL_CAPACITY];
+    private int slotCount = 0;
+
+    //one Fenwick tree per section, 1-based : trees[s][i] counts the entries of s among a range of slots ending at i - 1
+    @NonNull
+    private int[][] trees = new int[SECTIONS][INITIAL_CAPACITY + 1];
+    private final int[] counts = new int[SECTIONS];
+
+    private int generation = 0;
+    private long nextStableId = 0;
+
+    public ParticipantIndex(@NonNull Resolver<T> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Make the index hold exactly the given participants, in O(n)
+     *
+     * @param participants the participants to index
+     */
+    public void sync(@NonNull List<T> participants) {
+        generation++;
+
+        for (T participant : participants) {
+            Entry<T> entry = put(participant);
+            if (null != entry) entry.generation = generation;
+        }
+
+        //remove the participants not given in this generation
+        Iterator<Entry<T>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            if (entry.generation != generation) {
+                iterator.remove();
+                detach(entry);
+                slots[entry.slot] = null;
+            }
+        }
+    }
+
+    /**
+     * Add or update a participant, moving it to its new section if its status changed
+     *
+     * @param participant the participant
+     * @return the entry or null if the participant has no id
+     */
+    @Nullable
+    public Entry<T> put(@Nullable T participant) {
+        String id = null != participant ? resolver.idOf(participant) : null;
+        if (null == id) return null;
+
+        Entry<T> entry = entries.get(id);
+        int section = resolver.sectionOf(participant);
+
+        if (null == entry) {
+            entry = new Entry<>(id, nextStableId++, participant);
+            entry.generation = generation;
+            entries.put(id, entry);
+            allocate(entry);
+            attach(entry, section);
+        } else {
+            entry.participant = participant;
+            if (entry.section != section) {
+                detach(entry);
+                attach(entry, section);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Re-evaluate the section of every indexed participant, after their status changed in place
+     */
+    public void refresh() {
+        for (Entry<T> entry : entries.values()) {
+            int section = resolver.sectionOf(entry.participant);
+            if (entry.section != section) {
+                detach(entry);
+                attach(entry, section);
+            }
+        }
+    }
+
+    /**
+     * Remove a participant
+     *
+     * @param participantId the participant's id
+     */
+    public void remove(@Nullable String participantId) {
+        Entry<T> entry = null != participantId ? entries.remove(participantId) : null;
+        if (null != entry) {
+            detach(entry);
+            slots[entry.slot] = null;
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        Arrays.fill(slots, 0, slotCount, null);
+        slotCount = 0;
+        for (int[] tree : trees) Arrays.fill(tree, 0);
+        Arrays.fill(counts, 0);
+    }
+
+    @Nullable
+    public Entry<T> get(@Nullable String participantId) {
+        return null != participantId ? entries.get(participantId) : null;
+    }
+
+    /**
+     * Get the participant displayed at a given position
+     *
+     * @param position the position in the list
+     * @return the entry or null if out of bounds
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public Entry<T> get(int position) {
+        if (position < 0) return null;
+        for (int section = 0; section < SECTIONS; section++) {
+            if (position < counts[section]) return slots[select(trees[section], position)];
+            position -= counts[section];
+        }
+        return null;
+    }
+
+    /**
+     * Get the position of a given participant
+     *
+     * @param participantId the participant's id
+     * @return the position or -1 if not indexed
+     */
+    public int positionOf(@Nullable String participantId) {
+        Entry<T> entry = get(participantId);
+        if (null == entry) return -1;
+        //the entries of the section up to and including this one
+        return offsetOf(entry.section) + prefix(trees[entry.section], entry.slot) - 1;
+    }
+
+    /**
+     * Get the position of the first participant of a section
+     *
+     * @param section one of the ParticipantViewItem.SECTION_ values
+     * @return the position
+     */
+    public int offsetOf(int section) {
+        int offset = 0;
+        for (int i = 0; i < section && i < SECTIONS; i++) offset += counts[i];
+        return offset;
+    }
+
+    /**
+     * Get the number of participants in a section
+     *
+     * @param section one of the ParticipantViewItem.SECTION_ values
+     * @return the number of participants
+     */
+    public int count(int section) {
+        if (section < 0 || section >= SECTIONS) return 0;
+        return counts[section];
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void attach(@NonNull Entry<T> entry, int section) {
+        entry.section = section;
+        add(trees[section], entry.slot, 1);
+        counts[section]++;
+    }
+
+    private void detach(@NonNull Entry<T> entry) {
+        add(trees[entry.section], entry.slot, -1);
+        counts[entry.section]--;
+    }
+
+    /**
+     * Give a new entry the next slot, compacting or growing the slots when they are all used
+     *
+     * @param entry the new entry, not attached yet
+     */
+    private void allocate(@NonNull Entry<T> entry) {
+        if (slotCount == slots.length) {
+            //entries.size() already accounts for the new entry
+            compact(entries.size() - 1 > slots.length / 2 ? slots.length * 2 : slots.length);
+        }
+        entry.slot = slotCount;
+        slots[slotCount++] = entry;
+    }
+
+    /**
+     * Drop the tombstones and rebuild the trees in O(n), which keeps the slots in order of first appearance
+     *
+     * @param capacity the new number of slots
+     */
+    @SuppressWarnings("unchecked")
+    private void compact(int capacity) {
+        Entry[] compacted = new Entry[capacity];
+        int[][] rebuilt = new int[SECTIONS][capacity + 1];
+        int count = 0;
+
+        for (int i = 0; i < slotCount; i++) {
+            Entry<T> entry = slots[i];
+            if (null == entry) continue;
+            entry.slot = count;
+            compacted[count++] = entry;
+            rebuilt[entry.section][count] = 1;
+        }
+
+        //linear construction : each node propagates its count to its parent
+        for (int[] tree : rebuilt) {
+            for (int i = 1; i <= capacity; i++) {
+                int parent = i + (i & -i);
+                if (parent <= capacity) tree[parent] += tree[i];
+            }
+        }
+
+        slots = compacted;
+        trees = rebuilt;
+        slotCount = count;
+    }
+
+    private static void add(@NonNull int[] tree, int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) tree[i] += delta;
+    }
+
+    /**
+     * @return the number of entries counted by the tree in the slots 0 to slot included
+     */
+    private static int prefix(@NonNull int[] tree, int slot) {
+        int sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    /**
+     * @param rank the 0-based rank of an entry among the ones counted by the tree
+     * @return the slot of this entry
+     */
+    private static int select(@NonNull int[] tree, int rank) {
+        int index = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next < tree.length && tree[next] <= rank) {
+                index = next;
+                rank -= tree[next];
+            }
+        }
+        //index is the last 1-based position with fewer entries than rank + 1, its successor is the slot
+        return index;
+    }
+
+    public static final class Entry<T> {
+        @NonNull
+        public final String id;
+        //never reused by this index, even after the participant is removed
+        public final long stableId;
+        @NonNull
+        public T participant;
+        private int section;
+        private int generation;
+        private int slot;
+
+        private Entry(@NonNull String id, long stableId, @NonNull T participant) {
+            this.id = id;
+            this.stableId = stableId;
+            this.participant = participant;
+        }
+
+        public int section() {
+            return section;
+        }
+    }
+}
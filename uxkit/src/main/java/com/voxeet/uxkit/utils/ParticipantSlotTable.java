@@ -0,0 +1,88 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Intern participant ids into stable int slots
+ * <p>
+ * A slot is never reassigned for the lifetime of a table, making it possible to store per-participant
+ * values into primitive arrays. Interning is expected from a single writer thread, lookups are safe
+ * from any thread and don't allocate.
+ */
+public final class ParticipantSlotTable {
+
+    public final static int NO_SLOT = -1;
+
+    //copy on write : only replaced when a new participant is interned
+    @NonNull
+    private volatile Slots slots = new Slots(new HashMap<>(), new String[0]);
+
+    /**
+     * Get or create the slot for the given participant
+     *
+     * @param participantId the participant's id
+     * @return the slot, stable for this table
+     */
+    public int intern(@NonNull String participantId) {
+        Slots current = slots;
+        Integer slot = current.indexes.get(participantId);
+        if (null != slot) return slot;
+
+        int created = current.ids.length;
+        HashMap<String, Integer> indexes = new HashMap<>(current.indexes);
+        indexes.put(participantId, created);
+        String[] ids = Arrays.copyOf(current.ids, created + 1);
+        ids[created] = participantId;
+
+        slots = new Slots(indexes, ids);
+        return created;
+    }
+
+    /**
+     * Get the slot of the given participant
+     *
+     * @param participantId the participant's id
+     * @return the slot or NO_SLOT if this participant was never interned
+     */
+    public int slotOf(@Nullable String participantId) {
+        if (null == participantId) return NO_SLOT;
+        Integer slot = slots.indexes.get(participantId);
+        return null != slot ? slot : NO_SLOT;
+    }
+
+    /**
+     * Get the participant interned at the given slot
+     *
+     * @param slot a slot obtained from this table
+     * @return the participant's id or null if the slot is invalid
+     */
+    @Nullable
+    public String idOf(int slot) {
+        String[] ids = slots.ids;
+        if (slot < 0 || slot >= ids.length) return null;
+        return ids[slot];
+    }
+
+    /**
+     * Get the number of slots created so far
+     *
+     * @return the number of interned participants
+     */
+    public int size() {
+        return slots.ids.length;
+    }
+
+    private static final class Slots {
+        private final HashMap<String, Integer> indexes;
+        private final String[] ids;
+
+        private Slots(@NonNull HashMap<String, Integer> indexes, @NonNull String[] ids) {
+            this.indexes = indexes;
+            this.ids = ids;
+        }
+    }
+}
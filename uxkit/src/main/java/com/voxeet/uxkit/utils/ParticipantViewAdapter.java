@@ -4,6 +4,9 @@ import android.content.Context;
 import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v7.recyclerview.extensions.AsyncDifferConfig;
+import android.support.v7.recyclerview.extensions.AsyncListDiffer;
+import android.support.v7.util.AdapterListUpdateCallback;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.util.Log;
@@ -12,12 +15,13 @@ import android.view.ViewGroup;
 import android.view.animation.AlphaAnimation;
 
 import com.voxeet.sdk.models.Participant;
-import com.voxeet.sdk.models.v1.ConferenceParticipantStatus;
 import com.voxeet.uxkit.R;
 import com.voxeet.uxkit.implementation.VoxeetParticipantView;
 import com.voxeet.uxkit.implementation.VoxeetParticipantsView;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 
 public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantViewAdapter.ViewHolder> {
@@ -29,10 +33,13 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
 
     private boolean namesEnabled = true;
 
-    private ArrayList<Participant> air = new ArrayList<>();
-    private ArrayList<Participant> inv = new ArrayList<>();
-    private ArrayList<Participant> left = new ArrayList<>();
-    private ArrayList<Participant> other = new ArrayList<>();
+    //participants given to setUsers, grouped by section. The displayed list is computed from their current state
+    private final ParticipantIndex<Participant> index = new ParticipantIndex<>(ParticipantViewItem.INDEX);
+
+    //the diff between two lists is computed on a background executor
+    private final AsyncListDiffer<ParticipantViewItem> differ = new AsyncListDiffer<>(
+            new AdapterListUpdateCallback(this),
+            new AsyncDifferConfig.Builder<>(ParticipantViewItem.DIFF).build());
 
     private int avatarSize;
 
@@ -46,8 +53,11 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
 
     private boolean videoActivable = true;
 
-    private ParticipantViewAdapter() {
+    //only the visible cells render their video, up to a maximum
+    private final VideoRendererBudget videoBudget = new VideoRendererBudget();
 
+    private ParticipantViewAdapter() {
+        setHasStableIds(true);
     }
 
     /**
@@ -64,10 +74,15 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
         this.avatarSize = context.getResources().getDimensionPixelSize(R.dimen.meeting_list_avatar_double);
     }
 
+    /**
+     * Refresh the displayed list from the current state of the participants
+     * <p>
+     * Only the cells whose displayed values changed are rebound
+     */
+    @MainThread
     public void updateUsers() {
-        sort();
-
-        refreshVisible();
+        index.refresh();
+        differ.submitList(snapshot());
     }
 
     /**
@@ -75,108 +90,142 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
      *
      * @param users the list of user to populate the adapter
      */
+    @MainThread
     public void setUsers(List<Participant> users) {
-        //add all the new users
-        for (Participant participant : users) {
-            if (air.contains(participant) || inv.contains(participant) || left.contains(participant) || other.contains(participant)) {
-                //existing participant
-            } else {
-                addParticipant(participant);
-            }
+        index.sync(users);
+
+        updateUsers();
+    }
+
+    /**
+     * Build the immutable list to display : on air, then reserved, then left and other participants
+     *
+     * @return the new list
+     */
+    @NonNull
+    private List<ParticipantViewItem> snapshot() {
+        int size = index.size();
+        ArrayList<ParticipantViewItem> items = new ArrayList<>(size);
+
+        for (int position = 0; position < size; position++) {
+            ParticipantIndex.Entry<Participant> entry = index.get(position);
+            if (null == entry) continue;
+            items.add(ParticipantViewItem.of(entry.participant, entry.stableId, entry.id.equals(selectedUserId)));
         }
 
-        //remove all the users in the list but not anymore known
-        updateArray(air, 0, p -> !users.contains(p));
-        updateArray(inv, air.size(), p -> !users.contains(p));
-        updateArray(left, air.size() + inv.size(), p -> !users.contains(p));
-        updateArray(other, air.size() + inv.size() + left.size(), p -> !users.contains(p));
+        return Collections.unmodifiableList(items);
+    }
 
-        //sort all the users not new and not removed
-        sort();
+    /**
+     * Sets the color when a conference user has been selected.
+     *
+     * @param color the color
+     */
+    public void setSelectedUserColor(int color) {
+        selectedUserColor = color;
+        refreshVisible(ParticipantViewPayload.SELECTION);
+    }
 
-        //refresh the visible users
-        refreshVisible();
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        //cells may be shared through the ParticipantViewPool : the application context with the theme of the activity
+        return newViewHolder(ParticipantViewPool.instance.cellContext(parent.getContext()));
     }
 
-    private boolean is(@Nullable Participant p, @NonNull ConferenceParticipantStatus s) {
-        return null != p && s.equals(p.getStatus());
+    /**
+     * Create a cell which is not yet bound to any adapter
+     *
+     * @param context the context of the cell
+     * @return the new holder
+     */
+    @NonNull
+    static ViewHolder newViewHolder(@NonNull Context context) {
+        ViewHolder holder = new ViewHolder(new VoxeetParticipantView(context));
+        //the budget decides once the cell is laid out
+        holder.participantView.setVideoAllowed(false);
+        return holder;
     }
 
-    private ArrayList<Participant> updateArray(@NonNull ArrayList<Participant> array, int delta, @NonNull Apply apply) {
-        Participant participant;
-        ArrayList<Participant> tmp = new ArrayList<>();
-        int index = 0;
-        while (index < array.size()) {
-            participant = array.get(index);
-            if (apply.is(participant)) {
-                tmp.add(participant);
-                array.remove(participant);
-                notifyItemRemoved(delta + index);
-            } else {
-                index++;
-            }
-        }
+    @Override
+    public void onBindViewHolder(@NonNull final ViewHolder holder, final int position) {
+        VoxeetParticipantView participantView = holder.participantView;
 
-        return tmp;
+        participantView.setTag(holder);
+        adopt(holder);
+        manageParticipantView(participantView, holder, position);
     }
 
-    private void sort() {
-        ArrayList<Participant> to_readd = new ArrayList<>();
+    /**
+     * Make a holder, created by this adapter or taken from the shared pool, report its clicks to this adapter
+     *
+     * @param holder the holder to bind
+     */
+    private void adopt(@NonNull ViewHolder holder) {
+        if (holder.owner == this) return;
+        holder.owner = this;
 
-        ArrayList<Participant> removed_from_air = updateArray(air, 0, p -> !p.isLocallyActive());
-        ArrayList<Participant> removed_from_inv = updateArray(inv, air.size(), p -> !is(p, ConferenceParticipantStatus.RESERVED));
-        ArrayList<Participant> removed_from_left = updateArray(left, air.size() + inv.size(), p -> !is(p, ConferenceParticipantStatus.LEFT));
-        ArrayList<Participant> removed_from_other = updateArray(other, air.size() + inv.size() + left.size(), p -> p.isLocallyActive() || is(p, ConferenceParticipantStatus.LEFT) || is(p, ConferenceParticipantStatus.RESERVED));
+        //the listeners resolve the participant when triggered, they are not recreated on every bind
+        holder.itemView.setOnLongClickListener(view -> onLongClick(holder));
+        holder.itemView.setOnClickListener(view -> onClick(holder));
+    }
 
-        to_readd.addAll(removed_from_air);
-        to_readd.addAll(removed_from_inv);
-        to_readd.addAll(removed_from_left);
-        to_readd.addAll(removed_from_other);
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        EnumSet<ParticipantViewPayload> changes = ParticipantViewPayload.merge(payloads);
+        Participant user = getItem(position);
 
-        for (Participant participant : to_readd) {
-            addParticipant(participant);
+        if (null == changes || null == user) {
+            onBindViewHolder(holder, position);
+            return;
         }
 
+        //only the changed properties are refreshed, no new avatar request nor video attach otherwise
+        VoxeetParticipantView participantView = holder.participantView;
+        applySettings(participantView, user);
+        participantView.refresh(changes);
+
+        if (changes.contains(ParticipantViewPayload.VIDEO)) videoBudget.requestRebalance();
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        videoBudget.attach(recyclerView);
+    }
 
-    private void addParticipant(@NonNull Participant participant) {
-        if (participant.isLocallyActive()) {
-            air.add(participant);
-            notifyItemInserted(air.size() - 1);
-        } else if (is(participant, ConferenceParticipantStatus.RESERVED)) {
-            inv.add(participant);
-            notifyItemInserted(inv.size() + air.size() - 1);
-        } else if (is(participant, ConferenceParticipantStatus.LEFT)) {
-            left.add(participant);
-            notifyItemInserted(left.size() + inv.size() + air.size() - 1);
-        } else {
-            notifyItemInserted(other.size() + left.size() + inv.size() + air.size() - 1);
-            other.add(participant);
-        }
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        videoBudget.detach();
+        super.onDetachedFromRecyclerView(recyclerView);
     }
 
-    /**
-     * Sets the color when a conference user has been selected.
-     *
-     * @param color the color
-     */
-    public void setSelectedUserColor(int color) {
-        selectedUserColor = color;
+    @Override
+    public void onViewAttachedToWindow(@NonNull ViewHolder holder) {
+        super.onViewAttachedToWindow(holder);
+        videoBudget.requestRebalance();
     }
 
-    @NonNull
     @Override
-    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        return new ViewHolder(new VoxeetParticipantView(parent.getContext()));
+    public void onViewDetachedFromWindow(@NonNull ViewHolder holder) {
+        videoBudget.release(holder.participantView);
+        super.onViewDetachedFromWindow(holder);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull final ViewHolder holder, final int position) {
-        VoxeetParticipantView participantView = holder.participantView;
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        videoBudget.release(holder.participantView);
+        super.onViewRecycled(holder);
+    }
 
-        participantView.setTag(holder);
-        manageParticipantView(participantView, holder);
+    /**
+     * Set the maximum number of participant videos rendered at the same time
+     *
+     * @param maxRenderers the maximum, VideoRendererBudget.DEFAULT_MAX_RENDERERS by default
+     */
+    @MainThread
+    public void setMaxVideoRenderers(int maxRenderers) {
+        videoBudget.setMaxRenderers(maxRenderers);
     }
 
     private boolean equalsToUser(@Nullable String selectedUserId, @Nullable Participant user) {
@@ -202,23 +251,19 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
 
     @Nullable
     private Participant getItem(int position) {
-        if (position < air.size()) return air.get(position);
-        position -= air.size();
-
-        if (position < inv.size()) return inv.get(position);
-        position -= inv.size();
-
-        if (position < left.size()) return left.get(position);
-        position -= left.size();
-
-        if (position < other.size())
-            return other.get(position);
-        return null;
+        List<ParticipantViewItem> items = differ.getCurrentList();
+        if (position < 0 || position >= items.size()) return null;
+        return items.get(position).participant;
     }
 
     @Override
     public int getItemCount() {
-        return air.size() + inv.size() + left.size() + other.size();
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).stableId;
     }
 
     /**
@@ -234,11 +279,8 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
      * Clear participants.
      */
     public void clearParticipants() {
-        this.air.clear();
-        this.inv.clear();
-        this.left.clear();
-        this.other.clear();
-        notifyDataSetChanged();
+        index.clear();
+        differ.submitList(null);
     }
 
     /**
@@ -248,38 +290,18 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
      */
     public void setNamesEnabled(boolean enabled) {
         namesEnabled = enabled;
+        refreshVisible(ParticipantViewPayload.NAME);
     }
 
-    private void refreshVisible() {
-        int first = 0; //layoutManager.findFirstVisibleItemPosition();
-        int last = layoutManager.getChildCount(); //layoutManager.findLastVisibleItemPosition();
-
-        if (first >= 0 && first <= last) {
-
-            for (int index = first; index < layoutManager.getChildCount() && index <= last; index++) {
-                Log.d(TAG, "refreshVisible: index := " + index);
-                View view = layoutManager.getChildAt(index);
-                if (null != view && view instanceof VoxeetParticipantView) {
-                    VoxeetParticipantView participantView = (VoxeetParticipantView) view;
-
-                    if (null != participantView.getTag() && participantView.getTag() instanceof ViewHolder) {
-                        manageParticipantView(participantView, (ViewHolder) participantView.getTag());
-                    } else {
-                        Log.d(TAG, "refreshVisible: invalid tag " + participantView.getTag());
-                    }
-                } else {
-                    Log.d(TAG, "refreshVisible: invalid view " + view);
-                }
-            }
-        }
+    private void refreshVisible(@NonNull ParticipantViewPayload payload) {
+        //global settings changed, every bound cell must refresh the matching part
+        notifyItemRangeChanged(0, getItemCount(), payload);
     }
 
-    private void manageParticipantView(@NonNull VoxeetParticipantView participantView, @Nullable ViewHolder holder) {
+    private void manageParticipantView(@NonNull VoxeetParticipantView participantView, @Nullable ViewHolder holder, int position) {
         if (null == holder) return;
         participantView.setTag(holder);
 
-        int position = holder.getLayoutPosition();
-
         final Participant user = getItem(position);
         if (null == user) {
             participantView.setVisibility(View.INVISIBLE);
@@ -288,59 +310,67 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
             participantView.setVisibility(View.VISIBLE);
         }
 
-        boolean on_air = user.isLocallyActive();
+        applySettings(participantView, user);
+        participantView.refresh();
+        videoBudget.requestRebalance();
+
+        setAnimation(holder.itemView, position);
+    }
+
+    private void applySettings(@NonNull VoxeetParticipantView participantView, @NonNull Participant user) {
         participantView.setParticipant(user);
         participantView.setSelectedUserColor(selectedUserColor);
         participantView.setShowName(namesEnabled);
         participantView.setAvatarSize(avatarSize);
         participantView.setSelected(equalsToUser(selectedUserId, user));
         participantView.setVideoActivable(videoActivable);
+    }
 
-        participantView.refresh();
-
+    private boolean onLongClick(@NonNull ViewHolder holder) {
+        Participant user = getItem(holder.getAdapterPosition());
 
-        holder.itemView.setOnLongClickListener(view -> {
-            if (equalsToUser(selectedUserId, user)) {
-                selectedUserId = null;
+        if (null != user && equalsToUser(selectedUserId, user)) {
+            selectedUserId = null;
 
-                if (listener != null)
-                    listener.onParticipantUnselected(user);
-                updateUsers();
-            }
-            return true;
-        });
+            if (listener != null)
+                listener.onParticipantUnselected(user);
+            updateUsers();
+        }
+        return true;
+    }
 
-        holder.itemView.setOnClickListener(v -> {
-            if (!on_air) {
-                Log.d(TAG, "onClick: click on an invalid user, we can't select hier");
-                return;
-            }
+    private void onClick(@NonNull ViewHolder holder) {
+        Participant user = getItem(holder.getAdapterPosition());
+        if (null == user) return;
 
-            if (null != user.getId()) {
-                Log.d(TAG, "onClick: selecting the user " + user.getId());
-                if (!equalsToUser(selectedUserId, user)) {
-                    selectedUserId = user.getId();
+        if (!user.isLocallyActive()) {
+            Log.d(TAG, "onClick: click on an invalid user, we can't select hier");
+            return;
+        }
 
-                    if (listener != null)
-                        listener.onParticipantSelected(user);
-                } else {
-                    selectedUserId = null; //deselecting
+        if (null != user.getId()) {
+            Log.d(TAG, "onClick: selecting the user " + user.getId());
+            if (!equalsToUser(selectedUserId, user)) {
+                selectedUserId = user.getId();
 
-                    if (listener != null)
-                        listener.onParticipantUnselected(user);
-                }
+                if (listener != null)
+                    listener.onParticipantSelected(user);
+            } else {
+                selectedUserId = null; //deselecting
 
-                updateUsers();
+                if (listener != null)
+                    listener.onParticipantUnselected(user);
             }
-        });
 
-        setAnimation(holder.itemView, position);
+            updateUsers();
+        }
     }
 
     @MainThread
     public void setVideoActivable(boolean state) {
         this.videoActivable = state;
-        refreshVisible();
+        refreshVisible(ParticipantViewPayload.VIDEO);
+        videoBudget.requestRebalance();
     }
 
     /**
@@ -350,6 +380,10 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
 
         VoxeetParticipantView participantView;
 
+        //the adapter the click listeners report to
+        @Nullable
+        ParticipantViewAdapter owner;
+
         /**
          * Instantiates a new View holder.
          *
@@ -362,7 +396,4 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
         }
     }
 
-    private interface Apply {
-        boolean is(Participant participant);
-    }
 }
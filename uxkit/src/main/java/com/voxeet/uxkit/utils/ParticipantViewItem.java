@@ -0,0 +1,139 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.util.DiffUtil;
+
+import com.voxeet.android.media.MediaStream;
+import com.voxeet.android.media.stream.MediaStreamType;
+import com.voxeet.sdk.json.ParticipantInfo;
+import com.voxeet.sdk.models.Participant;
+import com.voxeet.sdk.models.v1.ConferenceParticipantStatus;
+import com.voxeet.sdk.utils.Opt;
+
+/**
+ * Immutable state of a Participant as displayed by a cell of the ParticipantViewAdapter
+ * <p>
+ * The SDK's Participant instances are mutated in place, diffing must be made against copies of
+ * the displayed values
+ */
+public final class ParticipantViewItem {
+
+    public final static int SECTION_ON_AIR = 0;
+    public final static int SECTION_RESERVED = 1;
+    public final static int SECTION_LEFT = 2;
+    public final static int SECTION_OTHER = 3;
+
+    public final static DiffUtil.ItemCallback<ParticipantViewItem> DIFF = new DiffUtil.ItemCallback<ParticipantViewItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ParticipantViewItem oldItem, @NonNull ParticipantViewItem newItem) {
+            return oldItem.stableId == newItem.stableId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ParticipantViewItem oldItem, @NonNull ParticipantViewItem newItem) {
+            return oldItem.sameContent(newItem);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull ParticipantViewItem oldItem, @NonNull ParticipantViewItem newItem) {
+            return ParticipantViewPayload.diff(oldItem, newItem);
+        }
+    };
+
+    //indexes the participants by id and by the section they are displayed in
+    public final static ParticipantIndex.Resolver<Participant> INDEX = new ParticipantIndex.Resolver<Participant>() {
+        @Nullable
+        @Override
+        public String idOf(@NonNull Participant item) {
+            return item.getId();
+        }
+
+        @Override
+        public int sectionOf(@NonNull Participant item) {
+            return ParticipantViewItem.sectionOf(item);
+        }
+    };
+
+    @NonNull
+    public final Participant participant;
+
+    @NonNull
+    public final String id;
+
+    public final long stableId;
+
+    @Nullable
+    public final String name;
+
+    @Nullable
+    public final String avatarUrl;
+
+    @Nullable
+    public final ConferenceParticipantStatus status;
+
+    public final boolean locallyActive;
+
+    public final int section;
+
+    public final boolean selected;
+
+    //compared by reference, a new stream must be attached again
+    @Nullable
+    public final MediaStream videoStream;
+
+    private ParticipantViewItem(@NonNull Participant participant, long stableId, boolean selected) {
+        this.participant = participant;
+        this.id = Opt.of(participant.getId()).or("");
+        this.stableId = stableId;
+        this.name = Opt.of(participant.getInfo()).then(ParticipantInfo::getName).orNull();
+        this.avatarUrl = Opt.of(participant.getInfo()).then(ParticipantInfo::getAvatarUrl).orNull();
+        this.status = participant.getStatus();
+        this.locallyActive = participant.isLocallyActive();
+        this.section = sectionOf(participant);
+        this.selected = selected;
+
+        MediaStream stream = participant.streamsHandler().getFirst(MediaStreamType.Camera);
+        this.videoStream = ToolkitUtils.hasVideo(stream) ? stream : null;
+    }
+
+    /**
+     * Capture the current state of a participant
+     *
+     * @param participant the participant to copy
+     * @param stableId    the adapter id of this participant
+     * @param selected    is this participant the selected one
+     * @return the new item
+     */
+    @NonNull
+    public static ParticipantViewItem of(@NonNull Participant participant, long stableId, boolean selected) {
+        return new ParticipantViewItem(participant, stableId, selected);
+    }
+
+    /**
+     * Get the section in which the participant must be displayed
+     *
+     * @param participant the participant
+     * @return one of the SECTION_ values
+     */
+    public static int sectionOf(@NonNull Participant participant) {
+        if (participant.isLocallyActive()) return SECTION_ON_AIR;
+        if (ConferenceParticipantStatus.RESERVED.equals(participant.getStatus())) return SECTION_RESERVED;
+        if (ConferenceParticipantStatus.LEFT.equals(participant.getStatus())) return SECTION_LEFT;
+        return SECTION_OTHER;
+    }
+
+    private boolean sameContent(@NonNull ParticipantViewItem other) {
+        return equals(name, other.name)
+                && equals(avatarUrl, other.avatarUrl)
+                && status == other.status
+                && locallyActive == other.locallyActive
+                && selected == other.selected
+                && videoStream == other.videoStream;
+    }
+
+    private static boolean equals(@Nullable String left, @Nullable String right) {
+        return null == left ? null == right : left.equals(right);
+    }
+}
@@ -0,0 +1,77 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Parts of a participant cell which can be rebound independently
+ * <p>
+ * Sets of those values are given as payloads to the ParticipantViewAdapter, a cell receiving only
+ * payloads refreshes the matching properties instead of being fully rebound
+ */
+public enum ParticipantViewPayload {
+    NAME,
+    AVATAR,
+    STATUS,
+    SELECTION,
+    VIDEO,
+    SPEAKING;
+
+    /**
+     * Compute the parts which differ between two states of the same participant
+     *
+     * @param oldItem the displayed state
+     * @param newItem the new state
+     * @return the changed parts, may be empty
+     */
+    @NonNull
+    public static EnumSet<ParticipantViewPayload> diff(@NonNull ParticipantViewItem oldItem, @NonNull ParticipantViewItem newItem) {
+        EnumSet<ParticipantViewPayload> changes = EnumSet.noneOf(ParticipantViewPayload.class);
+
+        if (!equals(oldItem.name, newItem.name)) changes.add(NAME);
+        if (!equals(oldItem.avatarUrl, newItem.avatarUrl)) changes.add(AVATAR);
+        if (oldItem.status != newItem.status || oldItem.locallyActive != newItem.locallyActive) {
+            changes.add(STATUS);
+            //the status changes the video's availability and the speaking style
+            changes.add(VIDEO);
+            changes.add(SPEAKING);
+        }
+        if (oldItem.selected != newItem.selected) changes.add(SELECTION);
+        if (oldItem.videoStream != newItem.videoStream) changes.add(VIDEO);
+
+        return changes;
+    }
+
+    /**
+     * Merge the payloads given to onBindViewHolder
+     *
+     * @param payloads the payloads accumulated for a cell
+     * @return the union of the parts to refresh or null if a full bind is required
+     */
+    @Nullable
+    public static EnumSet<ParticipantViewPayload> merge(@NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) return null;
+
+        EnumSet<ParticipantViewPayload> changes = EnumSet.noneOf(ParticipantViewPayload.class);
+        for (Object payload : payloads) {
+            if (payload instanceof ParticipantViewPayload) {
+                changes.add((ParticipantViewPayload) payload);
+            } else if (payload instanceof EnumSet) {
+                for (Object value : (EnumSet<?>) payload) {
+                    if (value instanceof ParticipantViewPayload) changes.add((ParticipantViewPayload) value);
+                }
+            } else {
+                //unknown payload, can't tell what changed
+                return null;
+            }
+        }
+        return changes;
+    }
+
+    private static boolean equals(@Nullable String left, @Nullable String right) {
+        return null == left ? null == right : left.equals(right);
+    }
+}
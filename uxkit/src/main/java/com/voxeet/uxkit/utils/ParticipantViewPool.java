@@ -0,0 +1,251 @@
+package com.voxeet.uxkit.utils;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.pm.PackageManager;
+import android.content.res.Configuration;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.view.ContextThemeWrapper;
+import android.support.v7.widget.RecyclerView;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.util.HashMap;
+
+/**
+ * Shared pool of VoxeetParticipantView cells, used by every ParticipantViewAdapter
+ * <p>
+ * The pool can be filled ahead of time, one cell per idle pass of the main looper, so that joining a
+ * big conference does not inflate every cell in the same frames as the overlay's animation. Cells are
+ * created with the application context wrapped in the theme of the activity displaying them, so that the pool
+ * can outlive activities and controllers while the cells keep their styled attributes. The pool is emptied
+ * when cells are requested for another theme.
+ */
+public final class ParticipantViewPool implements ComponentCallbacks2 {
+
+    private final static String TAG = ParticipantViewPool.class.getSimpleName();
+
+    public final static ParticipantViewPool instance = new ParticipantViewPool();
+
+    public final static int VIEW_TYPE = 0;
+    public final static int DEFAULT_PREWARM_COUNT = 8;
+    public final static int DEFAULT_MAX_POOLED = 16;
+
+    @NonNull
+    private final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+
+    //creates the holders with their view type set, as done by a RecyclerView
+    @NonNull
+    private final RecyclerView.Adapter<ParticipantViewAdapter.ViewHolder> factory = new RecyclerView.Adapter<ParticipantViewAdapter.ViewHolder>() {
+        @NonNull
+        @Override
+        public ParticipantViewAdapter.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return ParticipantViewAdapter.newViewHolder(parent.getContext());
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ParticipantViewAdapter.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 0;
+        }
+    };
+
+    private int maxPooled = DEFAULT_MAX_POOLED;
+    private int prewarmTarget = 0;
+    private boolean idleHandlerRegistered = false;
+
+    //the application context
+    @Nullable
+    private Context context;
+
+    //the cells' context and the parent used to create them, for the current theme
+    private int theme = 0;
+    @Nullable
+    private Context themedContext;
+    @Nullable
+    private ViewGroup parent;
+
+    //theme of each activity class declared in the manifest
+    @NonNull
+    private final HashMap<String, Integer> activityThemes = new HashMap<>();
+
+    private final MessageQueue.IdleHandler prewarm = () -> {
+        if (!prewarmOne()) {
+            idleHandlerRegistered = false;
+            return false;
+        }
+        //keep the handler while more cells are needed
+        return true;
+    };
+
+    private ParticipantViewPool() {
+        pool.setMaxRecycledViews(VIEW_TYPE, maxPooled);
+    }
+
+    @NonNull
+    public RecyclerView.RecycledViewPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Set the maximum number of cells kept by the pool
+     *
+     * @param maxPooled the maximum, DEFAULT_MAX_POOLED by default
+     */
+    @MainThread
+    public void setMaxPooled(int maxPooled) {
+        this.maxPooled = Math.max(0, maxPooled);
+        pool.setMaxRecycledViews(VIEW_TYPE, this.maxPooled);
+    }
+
+    /**
+     * Fill the pool with DEFAULT_PREWARM_COUNT cells during the next idle passes
+     *
+     * @param context the context of the activity which will display the cells
+     */
+    @MainThread
+    public void prewarm(@NonNull Context context) {
+        prewarm(context, DEFAULT_PREWARM_COUNT);
+    }
+
+    /**
+     * Fill the pool during the next idle passes of the main looper, one cell per pass
+     *
+     * @param context the context of the activity which will display the cells
+     * @param count   the number of cells the pool should hold
+     */
+    @MainThread
+    public void prewarm(@NonNull Context context, int count) {
+        cellContext(context);
+        prewarmTarget = Math.min(maxPooled, Math.max(prewarmTarget, count));
+
+        if (!idleHandlerRegistered && pooled() < prewarmTarget) {
+            idleHandlerRegistered = true;
+            Looper.myQueue().addIdleHandler(prewarm);
+        }
+    }
+
+    /**
+     * Stop filling the pool
+     */
+    @MainThread
+    public void cancelPrewarm() {
+        prewarmTarget = 0;
+        if (idleHandlerRegistered) {
+            Looper.myQueue().removeIdleHandler(prewarm);
+            idleHandlerRegistered = false;
+        }
+    }
+
+    /**
+     * Get the context the cells must be created with
+     *
+     * @param host the context of the activity displaying the cells
+     * @return the application context with the theme of the host
+     */
+    @NonNull
+    @MainThread
+    Context cellContext(@NonNull Context host) {
+        attachContext(host);
+        if (null == context) return host;
+
+        int hostTheme = themeOf(host);
+        if (null == themedContext || hostTheme != theme) {
+            if (null != themedContext) {
+                //the pooled cells were styled for another theme
+                cancelPrewarm();
+                pool.clear();
+            }
+            theme = hostTheme;
+            themedContext = 0 != hostTheme ? new ContextThemeWrapper(context, hostTheme) : context;
+            parent = new FrameLayout(themedContext);
+        }
+        return themedContext;
+    }
+
+    private int themeOf(@NonNull Context host) {
+        if (host instanceof ContextThemeWrapper) {
+            return ((ContextThemeWrapper) host).getThemeResId();
+        }
+
+        if (host instanceof Activity) {
+            Activity activity = (Activity) host;
+            String name = activity.getComponentName().getClassName();
+            Integer activityTheme = activityThemes.get(name);
+            if (null == activityTheme) {
+                try {
+                    activityTheme = activity.getPackageManager().getActivityInfo(activity.getComponentName(), 0).getThemeResource();
+                } catch (PackageManager.NameNotFoundException e) {
+                    activityTheme = 0;
+                }
+                activityThemes.put(name, activityTheme);
+            }
+            if (0 != activityTheme) return activityTheme;
+        } else if (host instanceof ContextWrapper && null != ((ContextWrapper) host).getBaseContext()) {
+            return themeOf(((ContextWrapper) host).getBaseContext());
+        }
+
+        return host.getApplicationInfo().theme;
+    }
+
+    public int pooled() {
+        return pool.getRecycledViewCount(VIEW_TYPE);
+    }
+
+    private boolean prewarmOne() {
+        if (null == parent || pooled() >= prewarmTarget) {
+            prewarmTarget = 0;
+            return false;
+        }
+
+        try {
+            pool.putRecycledView(factory.createViewHolder(parent, VIEW_TYPE));
+        } catch (Exception e) {
+            Log.e(TAG, "prewarm: error " + e.getMessage());
+            prewarmTarget = 0;
+            return false;
+        }
+        return pooled() < prewarmTarget;
+    }
+
+    private void attachContext(@NonNull Context context) {
+        if (null != this.context) return;
+
+        this.context = context.getApplicationContext();
+        if (null == this.context) return;
+        this.context.registerComponentCallbacks(this);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            cancelPrewarm();
+            pool.clear();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            cancelPrewarm();
+            //shrinking the maximum discards the extra cells
+            pool.setMaxRecycledViews(VIEW_TYPE, maxPooled / 2);
+            pool.setMaxRecycledViews(VIEW_TYPE, maxPooled);
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    @Override
+    public void onLowMemory() {
+        cancelPrewarm();
+        pool.clear();
+    }
+}
@@ -0,0 +1,126 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+/**
+ * Track the suspension of the video renderers of a view while it is minimized or in background
+ * <p>
+ * The view detaches the renderers its level does not allow. When the level decreases, the participant
+ * displayed before the suspension is given back so the view restores the same attachments, and the time
+ * spent restoring them is measured.
+ */
+public final class RenderingSuspension {
+
+    private final static String TAG = RenderingSuspension.class.getSimpleName();
+
+    public enum Level {
+        /**
+         * Every renderer is attached
+         */
+        NONE,
+
+        /**
+         * Only the main video is attached, for the minimized overlay
+         */
+        KEEP_MAIN,
+
+        /**
+         * No renderer is attached
+         */
+        ALL
+    }
+
+    @NonNull
+    private Level level = Level.NONE;
+
+    @Nullable
+    private String suspendedMainPeerId;
+
+    private boolean restoring = false;
+    private long restoreStartedAt = 0;
+    private long lastRestoreDuration = 0;
+    private long suspendCount = 0;
+    private long restoreCount = 0;
+
+    /**
+     * Change the suspension level
+     *
+     * @param level      the new level
+     * @param mainPeerId the participant currently displayed by the main video, if any
+     * @return true if the level decreased and the renderers must be restored
+     */
+    @MainThread
+    public boolean setLevel(@NonNull Level level, @Nullable String mainPeerId) {
+        if (this.level == level) return false;
+
+        boolean restore = level.ordinal() < this.level.ordinal();
+        if (!restore) {
+            //keep the participant displayed before the first suspension if the main video was already released
+            if (Level.NONE == this.level || null != mainPeerId) suspendedMainPeerId = mainPeerId;
+            suspendCount++;
+        } else {
+            restoring = true;
+            restoreStartedAt = System.nanoTime();
+        }
+
+        this.level = level;
+        return restore;
+    }
+
+    /**
+     * To be called once the renderers allowed by the current level are attached again
+     */
+    @MainThread
+    public void onRestored() {
+        if (!restoring) return;
+
+        restoring = false;
+        lastRestoreDuration = System.nanoTime() - restoreStartedAt;
+        restoreCount++;
+        Log.d(TAG, "onRestored: renderers restored to " + level + " in " + (lastRestoreDuration / 1000) + "us");
+
+        if (Level.NONE == level) suspendedMainPeerId = null;
+    }
+
+    @NonNull
+    public Level getLevel() {
+        return level;
+    }
+
+    public boolean isSuspended() {
+        return Level.NONE != level;
+    }
+
+    /**
+     * @return true if the main video can be attached
+     */
+    public boolean isMainAllowed() {
+        return Level.ALL != level;
+    }
+
+    /**
+     * @return the participant the main video displayed when the renderers were suspended
+     */
+    @Nullable
+    public String getSuspendedMainPeerId() {
+        return suspendedMainPeerId;
+    }
+
+    /**
+     * @return the duration in ns of the last restoration
+     */
+    public long getLastRestoreDuration() {
+        return lastRestoreDuration;
+    }
+
+    public long getSuspendCount() {
+        return suspendCount;
+    }
+
+    public long getRestoreCount() {
+        return restoreCount;
+    }
+}
@@ -0,0 +1,263 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Per participant speaking statistics of the current sampling session
+ * <p>
+ * Each slot keeps a fixed size ring buffer of its levels over the last history duration and incremental talk
+ * time counters. The ring buffer is indexed by time : each bucket covers a fixed duration, whatever the
+ * sampling rate chosen by the AdaptiveSamplingScheduler. A sample fills the buckets elapsed since the
+ * previous one, the counters are updated in O(1). The memory used only depends on the number of participants
+ * met, never on the duration of the conference.
+ * <p>
+ * Samples are pushed from the sampling thread, queries can be made from any thread.
+ */
+public final class SpeakingStatistics {
+
+    private final static int DEFAULT_SLOTS = 16;
+
+    private final int historySize;
+    private final long bucketDuration;
+    private final long gapTolerance;
+    private final long maxSampleDuration;
+
+    @NonNull
+    private ParticipantSlotTable slots = new ParticipantSlotTable();
+
+    @NonNull
+    private float[][] history = new float[DEFAULT_SLOTS][];
+    @NonNull
+    private int[] historyCount = new int[DEFAULT_SLOTS];
+    @NonNull
+    private long[] talkTime = new long[DEFAULT_SLOTS];
+    @NonNull
+    private long[] lastSpokeAt = new long[DEFAULT_SLOTS];
+    @NonNull
+    private long[] runStart = new long[DEFAULT_SLOTS];
+    @NonNull
+    private long[] longestRun = new long[DEFAULT_SLOTS];
+
+    //index of the most recent bucket and its number since the uptime 0, -1 before the first sample
+    private int historyHead;
+    private long headBucket = -1;
+    private long totalTalkTime = 0;
+    private long lastTimestamp = 0;
+
+    /**
+     * @param historyDuration the duration in ms covered by the level history
+     * @param bucketDuration  the duration in ms covered by each value of the history
+     * @param gapTolerance    the silence in ms allowed inside a single monologue
+     */
+    public SpeakingStatistics(long historyDuration, long bucketDuration, long gapTolerance) {
+        this.bucketDuration = Math.max(1, bucketDuration);
+        this.historySize = (int) Math.max(1, historyDuration / this.bucketDuration);
+        this.historyHead = historySize - 1;
+        this.gapTolerance = gapTolerance;
+        this.maxSampleDuration = Math.max(bucketDuration, 1000);
+    }
+
+    /**
+     * Forget every statistic and use a new slot table
+     *
+     * @param slots the table of the new sampling session
+     */
+    synchronized void reset(@NonNull ParticipantSlotTable slots) {
+        this.slots = slots;
+        for (float[] values : history) {
+            if (null != values) Arrays.fill(values, 0f);
+        }
+        Arrays.fill(historyCount, 0);
+        Arrays.fill(talkTime, 0);
+        Arrays.fill(lastSpokeAt, 0);
+        Arrays.fill(runStart, 0);
+        Arrays.fill(longestRun, 0);
+        historyHead = historySize - 1;
+        headBucket = -1;
+        totalTalkTime = 0;
+        lastTimestamp = 0;
+    }
+
+    /**
+     * Push a new sampling pass
+     *
+     * @param snapshot  the levels sampled
+     * @param scheduler the scheduler deciding what is considered speech
+     * @param timestamp the uptime of the pass
+     */
+    synchronized void push(@NonNull AudioLevelsSnapshot snapshot, @NonNull AdaptiveSamplingScheduler scheduler, long timestamp) {
+        int size = snapshot.size();
+        ensureCapacity(size);
+
+        //time accounted to this sample, bounded to avoid counting suspended periods
+        long gap = 0 == lastTimestamp ? 0 : Math.max(0, timestamp - lastTimestamp);
+        long elapsed = Math.min(maxSampleDuration, gap);
+        lastTimestamp = timestamp;
+
+        //buckets to move forward, 0 if this sample falls in the most recent one
+        long bucket = timestamp / bucketDuration;
+        int advance = headBucket < 0 ? 1 : (int) Math.min(historySize, Math.max(0, bucket - headBucket));
+        //the level is held over the buckets elapsed since the previous sample, unless the sampling was suspended
+        boolean held = gap <= maxSampleDuration;
+
+        for (int slot = 0; slot < size; slot++) {
+            double level = snapshot.audioLevel(slot);
+
+            float[] values = history[slot];
+            if (null == values) {
+                values = new float[historySize];
+                history[slot] = values;
+            }
+            write(slot, values, advance, held, (float) level);
+
+            if (!scheduler.isSpeech(level)) continue;
+
+            talkTime[slot] += elapsed;
+            totalTalkTime += elapsed;
+
+            if (0 == lastSpokeAt[slot] || timestamp - lastSpokeAt[slot] > gapTolerance) {
+                runStart[slot] = timestamp;
+            }
+            lastSpokeAt[slot] = timestamp;
+            longestRun[slot] = Math.max(longestRun[slot], timestamp - runStart[slot]);
+        }
+
+        //slots not sampled in this pass still move forward in time
+        for (int slot = size, length = history.length; slot < length; slot++) {
+            if (null != history[slot]) write(slot, history[slot], advance, false, 0f);
+        }
+
+        if (advance > 0) {
+            historyHead = (historyHead + advance) % historySize;
+            headBucket = bucket;
+        }
+    }
+
+    private void write(int slot, @NonNull float[] values, int advance, boolean held, float level) {
+        if (0 == advance) {
+            //the loudest level sampled during a bucket is kept
+            values[historyHead] = Math.max(values[historyHead], level);
+            if (0 == historyCount[slot]) historyCount[slot] = 1;
+            return;
+        }
+
+        for (int i = 1; i <= advance; i++) {
+            values[(historyHead + i) % historySize] = held || i == advance ? level : 0f;
+        }
+        historyCount[slot] = Math.min(historySize, historyCount[slot] + advance);
+    }
+
+    /**
+     * Get the total time the given participant spoke
+     *
+     * @param participantId the participant's id
+     * @return the duration in ms
+     */
+    public synchronized long getTalkTime(@Nullable String participantId) {
+        int slot = slots.slotOf(participantId);
+        return valid(slot) ? talkTime[slot] : 0;
+    }
+
+    /**
+     * Get the total time any participant spoke
+     *
+     * @return the sum of every talk time in ms
+     */
+    public synchronized long getTotalTalkTime() {
+        return totalTalkTime;
+    }
+
+    /**
+     * Get the share of the total talk time of the given participant
+     *
+     * @param participantId the participant's id
+     * @return a value from 0 to 1
+     */
+    public synchronized double getShareOfVoice(@Nullable String participantId) {
+        int slot = slots.slotOf(participantId);
+        if (!valid(slot) || 0 == totalTalkTime) return 0;
+        return talkTime[slot] / (double) totalTalkTime;
+    }
+
+    /**
+     * Get the longest continuous speech of the given participant
+     *
+     * @param participantId the participant's id
+     * @return the duration in ms
+     */
+    public synchronized long getLongestMonologue(@Nullable String participantId) {
+        int slot = slots.slotOf(participantId);
+        return valid(slot) ? longestRun[slot] : 0;
+    }
+
+    /**
+     * Get the last time the given participant was heard
+     *
+     * @param participantId the participant's id
+     * @return the uptime in ms of the last sample considered as speech, 0 if never
+     */
+    public synchronized long getLastSpokeAt(@Nullable String participantId) {
+        int slot = slots.slotOf(participantId);
+        return valid(slot) ? lastSpokeAt[slot] : 0;
+    }
+
+    /**
+     * Get the number of levels kept per participant
+     *
+     * @return the capacity of each history
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * Get the duration covered by each level of the history
+     *
+     * @return the duration in ms
+     */
+    public long getBucketDuration() {
+        return bucketDuration;
+    }
+
+    /**
+     * Copy the level history of the given participant, from the oldest to the newest bucket
+     *
+     * @param participantId the participant's id
+     * @param output        the array to fill, values not available are not written
+     * @return the number of values copied
+     */
+    public synchronized int copyHistory(@Nullable String participantId, @NonNull float[] output) {
+        int slot = slots.slotOf(participantId);
+        if (!valid(slot) || null == history[slot]) return 0;
+
+        float[] values = history[slot];
+        int count = Math.min(output.length, historyCount[slot]);
+        //the most recent value is at the head
+        int start = historyHead - count + 1;
+        if (start < 0) start += historySize;
+
+        for (int i = 0; i < count; i++) {
+            output[i] = values[(start + i) % historySize];
+        }
+        return count;
+    }
+
+    private boolean valid(int slot) {
+        return slot >= 0 && slot < talkTime.length;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= talkTime.length) return;
+
+        int capacity = Math.max(size, talkTime.length * 2);
+        history = Arrays.copyOf(history, capacity);
+        historyCount = Arrays.copyOf(historyCount, capacity);
+        talkTime = Arrays.copyOf(talkTime, capacity);
+        lastSpokeAt = Arrays.copyOf(lastSpokeAt, capacity);
+        runStart = Arrays.copyOf(runStart, capacity);
+        longestRun = Arrays.copyOf(longestRun, capacity);
+    }
+}
@@ -18,39 +18,63 @@ import java.util.List;
 
 public class ToolkitUtils {
 
+    private final static String INVALID_PARTICIPANT_ID = "00000000-0000-0000-0000-000000000000";
+
     public static boolean hasVideo(@Nullable MediaStream mediaStream) {
         return null != mediaStream && mediaStream.videoTracks().size() > 0;
     }
 
     public static boolean isParticipant(@NonNull Participant participant) {
-        String ownUserId = VoxeetSDK.session().getParticipantId();
-        ParticipantType type = Opt.of(participant.participantType()).or(ParticipantType.NONE);
+        return isParticipant(participant, VoxeetSDK.session().getParticipantId());
+    }
 
-        if ("00000000-0000-0000-0000-000000000000".equals(participant.getId())) return false;
-        if (!(type.equals(ParticipantType.DVC) || type.equals(ParticipantType.USER) || type.equals(ParticipantType.PSTN))) {
-            return false;
-        }
+    /**
+     * Check if a participant is a remote participant of the conference, the rule used by every UXKit list and counter
+     *
+     * @param participant the participant
+     * @param ownUserId   the id of the local participant
+     * @return true if the participant is on air or connecting with streams
+     */
+    public static boolean isParticipant(@NonNull Participant participant, @Nullable String ownUserId) {
+        if (!hasParticipantType(participant)) return false;
+        if (null != ownUserId && ownUserId.equals(participant.getId())) return false;
 
-        if (ConferenceParticipantStatus.ON_AIR.equals(participant.getStatus()) && !ownUserId.equals(participant.getId()))
+        if (ConferenceParticipantStatus.ON_AIR.equals(participant.getStatus()))
             return true;
-        if (ConferenceParticipantStatus.CONNECTING.equals(participant.getStatus()) && !ownUserId.equals(participant.getId()) && participant.streams().size() > 0)
+        if (ConferenceParticipantStatus.CONNECTING.equals(participant.getStatus()) && participant.streams().size() > 0)
             return true;
 
         return false;
     }
 
+    /**
+     * Check if a participant is of a type displayed by UXKit
+     *
+     * @param participant the participant
+     * @return true for a device, user or PSTN participant which is not the placeholder one
+     */
+    public static boolean hasParticipantType(@NonNull Participant participant) {
+        ParticipantType type = Opt.of(participant.participantType()).or(ParticipantType.NONE);
+
+        if (INVALID_PARTICIPANT_ID.equals(participant.getId())) return false;
+        return type.equals(ParticipantType.DVC) || type.equals(ParticipantType.USER) || type.equals(ParticipantType.PSTN);
+    }
+
     public static List<Participant> filterParticipants(@NonNull List<Participant> participants) {
         return Map.filter(participants, ToolkitUtils::isParticipant);
     }
 
-    public static boolean hasParticipants() {
-        String ownUserId = VoxeetSDK.session().getParticipantId();
-        if (null == ownUserId) ownUserId = "";
-        List<Participant> users = VoxeetSDK.conference().getParticipants();
+    /**
+     * Get the participants of the current conference, filtered by isParticipant
+     *
+     * @return an unmodifiable list shared until the next participant or stream event
+     */
+    @NonNull
+    public static List<Participant> filterParticipants() {
+        return ParticipantCache.instance.getSnapshot().getParticipants();
+    }
 
-        for (Participant user : users) {
-            if (isParticipant(user)) return true;
-        }
-        return false;
+    public static boolean hasParticipants() {
+        return ParticipantCache.instance.hasParticipants();
     }
 }
@@ -0,0 +1,167 @@
+package com.voxeet.uxkit.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+/**
+ * Merge update requests so that a given work is applied at most once per frame (or per window)
+ * <p>
+ * Requests only mark the work as dirty, the callback is then called on the main thread with the
+ * union of the flags requested since the previous call. Requests can be made from any thread.
+ */
+public final class UpdateCoalescer {
+
+    /**
+     * Value of the window to apply the updates on the next Choreographer frame
+     */
+    public final static long NEXT_FRAME = 0;
+
+    public interface Callback {
+        /**
+         * Apply the pending updates
+         *
+         * @param flags the union of the flags requested
+         */
+        @MainThread
+        void onCoalescedUpdate(int flags);
+    }
+
+    @NonNull
+    private final Callback callback;
+
+    @NonNull
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> apply();
+    private final Runnable applyRunnable = this::apply;
+    private final Runnable scheduleRunnable = this::schedule;
+
+    private long window = NEXT_FRAME;
+
+    //guarded by this
+    private int pendingFlags = 0;
+    private int pendingRequests = 0;
+    private boolean scheduled = false;
+
+    private long requestCount = 0;
+    private long applyCount = 0;
+
+    public UpdateCoalescer(@NonNull Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Set the window during which requests are merged
+     *
+     * @param window the duration in ms or NEXT_FRAME to apply once per frame
+     */
+    public void setWindow(long window) {
+        this.window = Math.max(NEXT_FRAME, window);
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * Mark an update as required
+     *
+     * @param flags the parts to update, given back to the callback
+     */
+    public void request(int flags) {
+        synchronized (this) {
+            pendingFlags |= flags;
+            pendingRequests++;
+            requestCount++;
+            if (scheduled) return;
+            scheduled = true;
+        }
+
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            schedule();
+        } else {
+            handler.post(scheduleRunnable);
+        }
+    }
+
+    /**
+     * Apply the pending updates right now, if any
+     */
+    @MainThread
+    public void flush() {
+        unschedule();
+        apply();
+    }
+
+    /**
+     * Forget the pending updates
+     */
+    @MainThread
+    public void cancel() {
+        unschedule();
+        synchronized (this) {
+            pendingFlags = 0;
+            pendingRequests = 0;
+            scheduled = false;
+        }
+    }
+
+    /**
+     * Get the number of requests received
+     *
+     * @return the total number of calls to request()
+     */
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Get the number of times the updates were applied
+     *
+     * @return the total number of calls to the callback
+     */
+    public synchronized long getApplyCount() {
+        return applyCount;
+    }
+
+    /**
+     * Get the number of requests which did not trigger their own update
+     *
+     * @return the number of merged requests
+     */
+    public synchronized long getMergedCount() {
+        return requestCount - applyCount - pendingRequests;
+    }
+
+    private void schedule() {
+        if (NEXT_FRAME == window) {
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        } else {
+            handler.postDelayed(applyRunnable, window);
+        }
+    }
+
+    private void unschedule() {
+        handler.removeCallbacks(scheduleRunnable);
+        handler.removeCallbacks(applyRunnable);
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+    }
+
+    private void apply() {
+        int flags;
+        synchronized (this) {
+            flags = pendingFlags;
+            boolean hasRequests = pendingRequests > 0;
+            pendingFlags = 0;
+            pendingRequests = 0;
+            scheduled = false;
+            if (!hasRequests) return;
+            applyCount++;
+        }
+
+        callback.onCoalescedUpdate(flags);
+    }
+}
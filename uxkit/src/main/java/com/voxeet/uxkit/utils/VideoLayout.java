@@ -0,0 +1,115 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.voxeet.android.media.stream.MediaStreamType;
+
+/**
+ * Immutable description of what the conference view must render : the stream of the main video, the
+ * stream of the self video and the visibility of the speaker view
+ * <p>
+ * Built from the state of the conference and applied by a VideoLayoutReconciler
+ *
+ * @param <S> the type of the streams, MediaStream in the views
+ */
+public final class VideoLayout<S> {
+
+    @NonNull
+    public final Slot<S> main;
+
+    @NonNull
+    public final Slot<S> self;
+
+    public final boolean speakerViewVisible;
+
+    public VideoLayout(@NonNull Slot<S> main, @NonNull Slot<S> self, boolean speakerViewVisible) {
+        this.main = main;
+        this.self = self;
+        this.speakerViewVisible = speakerViewVisible;
+    }
+
+    /**
+     * State of a single video renderer
+     *
+     * @param <S> the type of the streams
+     */
+    public static final class Slot<S> {
+
+        @Nullable
+        public final String peerId;
+
+        @Nullable
+        public final MediaStreamType type;
+
+        //compared by reference, a new stream must be attached again
+        @Nullable
+        public final S stream;
+
+        public final boolean mirror;
+
+        public final boolean visible;
+
+        private Slot(@Nullable String peerId, @Nullable MediaStreamType type, @Nullable S stream, boolean mirror, boolean visible) {
+            this.peerId = peerId;
+            this.type = type;
+            this.stream = stream;
+            this.mirror = mirror;
+            this.visible = visible;
+        }
+
+        /**
+         * Render a stream
+         *
+         * @param peerId  the id of the participant
+         * @param type    the type of the stream
+         * @param stream  the stream
+         * @param mirror  should the video be mirrored
+         * @param visible should the renderer be visible
+         * @return the new slot
+         */
+        @NonNull
+        public static <S> Slot<S> of(@NonNull String peerId, @NonNull MediaStreamType type, @NonNull S stream, boolean mirror, boolean visible) {
+            return new Slot<>(peerId, type, stream, mirror, visible);
+        }
+
+        /**
+         * Render nothing
+         *
+         * @param visible should the (empty) renderer be visible
+         * @return the new slot
+         */
+        @NonNull
+        public static <S> Slot<S> none(boolean visible) {
+            return new Slot<>(null, null, null, false, visible);
+        }
+
+        /**
+         * Copy this slot with another visibility
+         *
+         * @param visible the new visibility
+         * @return the new slot or this one if the visibility is the same
+         */
+        @NonNull
+        public Slot<S> visible(boolean visible) {
+            if (visible == this.visible) return this;
+            return new Slot<>(peerId, type, stream, mirror, visible);
+        }
+
+        /**
+         * Copy this slot with another mirroring
+         *
+         * @param mirror the new mirroring
+         * @return the new slot or this one if the mirroring is the same
+         */
+        @NonNull
+        public Slot<S> mirror(boolean mirror) {
+            if (mirror == this.mirror) return this;
+            return new Slot<>(peerId, type, stream, mirror, visible);
+        }
+
+        public boolean hasStream() {
+            return null != stream && null != peerId;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.voxeet.android.media.stream.MediaStreamType;
+
+/**
+ * Apply VideoLayout values to the renderers of a view with the minimal number of operations
+ * <p>
+ * The desired layout is compared to the current state of each renderer : a renderer already attached
+ * to the desired participant and stream is left as is, visibility and mirroring are only set when they
+ * differ. Every operation issued is counted.
+ *
+ * @param <S> the type of the streams, MediaStream in the views
+ */
+public final class VideoLayoutReconciler<S> {
+
+    /**
+     * Something which can be shown or hidden
+     */
+    public interface Target {
+        boolean isVisible();
+
+        void setVisible(boolean visible);
+    }
+
+    /**
+     * A video renderer, the VideoView in the views
+     *
+     * @param <S> the type of the streams
+     */
+    public interface Renderer<S> extends Target {
+        boolean isAttached();
+
+        @Nullable
+        String getPeerId();
+
+        @Nullable
+        MediaStreamType getType();
+
+        void attach(@NonNull String peerId, @NonNull S stream);
+
+        void detach();
+
+        void setMirror(boolean mirror);
+    }
+
+    @NonNull
+    private final Renderer<S> main;
+    @NonNull
+    private final Renderer<S> self;
+    @NonNull
+    private final Target speakerView;
+
+    @NonNull
+    private final Applied<S> appliedMain = new Applied<>();
+    @NonNull
+    private final Applied<S> appliedSelf = new Applied<>();
+
+    private long applyCount = 0;
+    private long attachCount = 0;
+    private long detachCount = 0;
+    private long visibilityCount = 0;
+    private long mirrorCount = 0;
+
+    public VideoLayoutReconciler(@NonNull Renderer<S> main, @NonNull Renderer<S> self, @NonNull Target speakerView) {
+        this.main = main;
+        this.self = self;
+        this.speakerView = speakerView;
+    }
+
+    /**
+     * Make the renderers match the given layout
+     *
+     * @param layout the desired layout
+     */
+    @MainThread
+    public void apply(@NonNull VideoLayout<S> layout) {
+        applyCount++;
+
+        //release the renderers first, then hide, then show and attach
+        boolean attachMain = detachIfNeeded(main, appliedMain, layout.main);
+        boolean attachSelf = detachIfNeeded(self, appliedSelf, layout.self);
+
+        if (!layout.main.visible) setVisible(main, false);
+        if (!layout.self.visible) setVisible(self, false);
+        if (!layout.speakerViewVisible) setVisible(speakerView, false);
+
+        if (layout.main.hasStream()) setMirror(main, appliedMain, layout.main.mirror);
+        if (layout.self.hasStream()) setMirror(self, appliedSelf, layout.self.mirror);
+
+        if (layout.main.visible) setVisible(main, true);
+        if (layout.self.visible) setVisible(self, true);
+        if (layout.speakerViewVisible) setVisible(speakerView, true);
+
+        if (attachMain) attach(main, appliedMain, layout.main);
+        if (attachSelf) attach(self, appliedSelf, layout.self);
+    }
+
+    /**
+     * Forget what was applied, the next layout will be compared to the renderers' state only
+     */
+    @MainThread
+    public void invalidate() {
+        appliedMain.clear();
+        appliedSelf.clear();
+    }
+
+    /**
+     * Forget the mirroring applied, to call when it was changed outside of the reconciler, the next layout
+     * sets it again
+     */
+    @MainThread
+    public void invalidateMirror() {
+        appliedMain.mirror = null;
+        appliedSelf.mirror = null;
+    }
+
+    public long getApplyCount() {
+        return applyCount;
+    }
+
+    public long getAttachCount() {
+        return attachCount;
+    }
+
+    public long getDetachCount() {
+        return detachCount;
+    }
+
+    public long getVisibilityCount() {
+        return visibilityCount;
+    }
+
+    public long getMirrorCount() {
+        return mirrorCount;
+    }
+
+    /**
+     * Get the number of operations issued to the renderers
+     *
+     * @return the sum of the attach, detach, visibility and mirror operations
+     */
+    public long getOperationCount() {
+        return attachCount + detachCount + visibilityCount + mirrorCount;
+    }
+
+    public void resetCounters() {
+        applyCount = 0;
+        attachCount = 0;
+        detachCount = 0;
+        visibilityCount = 0;
+        mirrorCount = 0;
+    }
+
+    /**
+     * Detach the renderer if it does not render the slot's stream
+     *
+     * @return true if the slot's stream must then be attached
+     */
+    private boolean detachIfNeeded(@NonNull Renderer<S> renderer, @NonNull Applied<S> applied, @NonNull VideoLayout.Slot<S> slot) {
+        boolean attached = renderer.isAttached();
+
+        if (!slot.hasStream()) {
+            if (attached) detach(renderer, applied);
+            return false;
+        }
+
+        if (attached && isRendering(renderer, applied, slot)) return false;
+
+        if (attached) detach(renderer, applied);
+        return true;
+    }
+
+    private boolean isRendering(@NonNull Renderer<S> renderer, @NonNull Applied<S> applied, @NonNull VideoLayout.Slot<S> slot) {
+        if (!equals(renderer.getPeerId(), slot.peerId) || renderer.getType() != slot.type) return false;
+
+        //the renderer may have been attached by someone else, the stream is only known when attached from here
+        boolean known = equals(applied.peerId, slot.peerId) && applied.type == slot.type;
+        return !known || applied.stream == slot.stream;
+    }
+
+    private void attach(@NonNull Renderer<S> renderer, @NonNull Applied<S> applied, @NonNull VideoLayout.Slot<S> slot) {
+        if (null == slot.peerId || null == slot.stream) return;
+
+        renderer.attach(slot.peerId, slot.stream);
+        attachCount++;
+        applied.peerId = slot.peerId;
+        applied.type = slot.type;
+        applied.stream = slot.stream;
+    }
+
+    private void detach(@NonNull Renderer<S> renderer, @NonNull Applied<S> applied) {
+        renderer.detach();
+        detachCount++;
+        applied.peerId = null;
+        applied.type = null;
+        applied.stream = null;
+    }
+
+    private void setMirror(@NonNull Renderer<S> renderer, @NonNull Applied<S> applied, boolean mirror) {
+        if (null != applied.mirror && applied.mirror == mirror) return;
+
+        renderer.setMirror(mirror);
+        mirrorCount++;
+        applied.mirror = mirror;
+    }
+
+    private void setVisible(@NonNull Target target, boolean visible) {
+        if (target.isVisible() == visible) return;
+
+        target.setVisible(visible);
+        visibilityCount++;
+    }
+
+    private static boolean equals(@Nullable String left, @Nullable String right) {
+        return null == left ? null == right : left.equals(right);
+    }
+
+    private static final class Applied<S> {
+        @Nullable
+        String peerId;
+        @Nullable
+        MediaStreamType type;
+        @Nullable
+        S stream;
+        @Nullable
+        Boolean mirror;
+
+        void clear() {
+            peerId = null;
+            type = null;
+            stream = null;
+            mirror = null;
+        }
+    }
+}
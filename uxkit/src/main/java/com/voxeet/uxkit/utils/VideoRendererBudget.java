@@ -0,0 +1,167 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import com.voxeet.uxkit.implementation.VoxeetParticipantView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * Limit the number of participant videos rendered at the same time in a RecyclerView
+ * <p>
+ * Only the cells currently visible can render their video. When more visible cells have a video than
+ * the budget allows, the participants who spoke the most recently are kept. Cells leaving the screen
+ * or recycled are detached, so the decoding and rendering load does not depend on the room size.
+ */
+public final class VideoRendererBudget extends RecyclerView.OnScrollListener
+        implements VoxeetSpeakersTimerInstance.ActiveSpeakerListener {
+
+    public final static int DEFAULT_MAX_RENDERERS = 4;
+
+    private int maxRenderers = DEFAULT_MAX_RENDERERS;
+
+    @Nullable
+    private RecyclerView recyclerView;
+
+    private boolean rebalancePosted = false;
+
+    //reused on every pass
+    private final ArrayList<Candidate> candidates = new ArrayList<>();
+    private final ArrayList<Candidate> recycledCandidates = new ArrayList<>();
+
+    private final Comparator<Candidate> byRecentSpeech = (left, right) -> {
+        if (left.lastSpokeAt != right.lastSpokeAt) return left.lastSpokeAt > right.lastSpokeAt ? -1 : 1;
+        return Integer.compare(left.order, right.order);
+    };
+
+    private final Runnable rebalance = () -> {
+        rebalancePosted = false;
+        rebalance();
+    };
+
+    /**
+     * Set the maximum number of videos rendered at the same time
+     *
+     * @param maxRenderers the maximum, 0 to disable every video
+     */
+    @MainThread
+    public void setMaxRenderers(int maxRenderers) {
+        this.maxRenderers = Math.max(0, maxRenderers);
+        requestRebalance();
+    }
+
+    public int getMaxRenderers() {
+        return maxRenderers;
+    }
+
+    @MainThread
+    public void attach(@NonNull RecyclerView recyclerView) {
+        if (this.recyclerView == recyclerView) return;
+        detach();
+
+        this.recyclerView = recyclerView;
+        recyclerView.addOnScrollListener(this);
+        VoxeetSpeakersTimerInstance.instance.registerActiveSpeakerListener(this);
+        requestRebalance();
+    }
+
+    @MainThread
+    public void detach() {
+        if (null == recyclerView) return;
+
+        recyclerView.removeOnScrollListener(this);
+        recyclerView.removeCallbacks(rebalance);
+        VoxeetSpeakersTimerInstance.instance.unregisterActiveSpeakerListener(this);
+        rebalancePosted = false;
+        recyclerView = null;
+    }
+
+    /**
+     * Recompute the cells allowed to render on the next frame, multiple requests are merged
+     */
+    @MainThread
+    public void requestRebalance() {
+        if (null == recyclerView || rebalancePosted) return;
+        rebalancePosted = true;
+        recyclerView.postOnAnimation(rebalance);
+    }
+
+    /**
+     * Release the renderer of a cell which is not displayed anymore
+     *
+     * @param view the cell
+     */
+    @MainThread
+    public void release(@NonNull VoxeetParticipantView view) {
+        view.setVideoAllowed(false);
+        requestRebalance();
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        requestRebalance();
+    }
+
+    @Override
+    public void onActiveSpeakerUpdated(@Nullable String activeSpeakerUserId) {
+        requestRebalance();
+    }
+
+    @MainThread
+    private void rebalance() {
+        RecyclerView recyclerView = this.recyclerView;
+        if (null == recyclerView) return;
+
+        SpeakingStatistics statistics = VoxeetSpeakersTimerInstance.instance.getSpeakingStatistics();
+        int width = recyclerView.getWidth();
+        int height = recyclerView.getHeight();
+
+        for (int i = 0, count = recyclerView.getChildCount(); i < count; i++) {
+            View child = recyclerView.getChildAt(i);
+            if (!(child instanceof VoxeetParticipantView)) continue;
+            VoxeetParticipantView view = (VoxeetParticipantView) child;
+
+            boolean visible = child.getVisibility() == View.VISIBLE
+                    && child.getRight() > 0 && child.getLeft() < width
+                    && child.getBottom() > 0 && child.getTop() < height;
+
+            if (!visible || !view.hasVideoToRender()) {
+                view.setVideoAllowed(false);
+                continue;
+            }
+
+            Candidate candidate = recycledCandidates.isEmpty() ? new Candidate()
+                    : recycledCandidates.remove(recycledCandidates.size() - 1);
+            candidate.view = view;
+            candidate.order = i;
+            candidate.lastSpokeAt = statistics.getLastSpokeAt(view.getParticipantId());
+            candidates.add(candidate);
+        }
+
+        if (candidates.size() > maxRenderers) Collections.sort(candidates, byRecentSpeech);
+
+        //detach first so that the number of live renderers never exceeds the budget
+        for (int i = maxRenderers, size = candidates.size(); i < size; i++) {
+            candidates.get(i).view.setVideoAllowed(false);
+        }
+        for (int i = 0, size = Math.min(maxRenderers, candidates.size()); i < size; i++) {
+            candidates.get(i).view.setVideoAllowed(true);
+        }
+
+        for (Candidate candidate : candidates) candidate.view = null;
+        recycledCandidates.addAll(candidates);
+        candidates.clear();
+    }
+
+    private static final class Candidate {
+        VoxeetParticipantView view;
+        int order;
+        long lastSpokeAt;
+    }
+}
@@ -0,0 +1,131 @@
+package com.voxeet.uxkit.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import com.voxeet.sdk.views.VideoView;
+
+import java.util.ArrayDeque;
+
+/**
+ * Pool of VideoView renderers leased to the views creating their renderers at runtime, owned by the VoxeetToolkit
+ * <p>
+ * A view leases a renderer when it has a video to display and gives it back when it stops displaying it or
+ * is released, so that a new conference or a new overlay reuses the renderers created for the previous one.
+ * Renderers are created with the application context so that the pool can outlive activities.
+ */
+public final class VideoViewPool implements ComponentCallbacks2 {
+
+    public final static int DEFAULT_MAX_POOLED = 8;
+
+    @NonNull
+    private final Context context;
+
+    @NonNull
+    private final ArrayDeque<VideoView> pool = new ArrayDeque<>();
+
+    private int maxPooled = DEFAULT_MAX_POOLED;
+    private long leaseCount = 0;
+    private long createdCount = 0;
+
+    public VideoViewPool(@NonNull Context context) {
+        Context application = context.getApplicationContext();
+        this.context = null != application ? application : context;
+    }
+
+    /**
+     * Set the maximum number of renderers kept by the pool
+     *
+     * @param maxPooled the maximum, DEFAULT_MAX_POOLED by default
+     */
+    @MainThread
+    public void setMaxPooled(int maxPooled) {
+        this.maxPooled = Math.max(0, maxPooled);
+        trim(this.maxPooled);
+    }
+
+    /**
+     * Lease a renderer, a pooled one if available
+     *
+     * @return a detached renderer without parent
+     */
+    @MainThread
+    @NonNull
+    public VideoView lease() {
+        leaseCount++;
+
+        VideoView videoView = pool.poll();
+        if (null == videoView) {
+            createdCount++;
+            videoView = new VideoView(context);
+        }
+        return videoView;
+    }
+
+    /**
+     * Give a renderer back, it is detached from its stream and removed from its parent
+     *
+     * @param videoView the renderer previously leased
+     */
+    @MainThread
+    public void release(@Nullable VideoView videoView) {
+        if (null == videoView) return;
+
+        if (videoView.isAttached()) videoView.unAttach();
+
+        ViewParent parent = videoView.getParent();
+        if (parent instanceof ViewGroup) ((ViewGroup) parent).removeView(videoView);
+
+        videoView.setOnClickListener(null);
+        videoView.setVisibility(View.VISIBLE);
+
+        if (pool.size() < maxPooled && !pool.contains(videoView)) pool.push(videoView);
+    }
+
+    public int pooled() {
+        return pool.size();
+    }
+
+    /**
+     * @return the number of leases since the creation of the pool
+     */
+    public long getLeaseCount() {
+        return leaseCount;
+    }
+
+    /**
+     * @return the number of renderers created because the pool was empty
+     */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    private void trim(int size) {
+        while (pool.size() > size) pool.removeLast();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            pool.clear();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            trim(maxPooled / 2);
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    @Override
+    public void onLowMemory() {
+        pool.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import com.voxeet.android.media.MediaStream;
+import com.voxeet.android.media.stream.MediaStreamType;
+import com.voxeet.sdk.views.VideoView;
+
+/**
+ * VideoLayoutReconciler's renderer backed by a VideoView
+ */
+public class VideoViewRenderer implements VideoLayoutReconciler.Renderer<MediaStream> {
+
+    @NonNull
+    private final VideoView videoView;
+
+    public VideoViewRenderer(@NonNull VideoView videoView) {
+        this.videoView = videoView;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return videoView.getVisibility() == View.VISIBLE;
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        videoView.setVisibility(visible ? View.VISIBLE : View.GONE);
+    }
+
+    @Override
+    public boolean isAttached() {
+        return videoView.isAttached();
+    }
+
+    @Nullable
+    @Override
+    public String getPeerId() {
+        return videoView.getPeerId();
+    }
+
+    @Nullable
+    @Override
+    public MediaStreamType getType() {
+        return videoView.current();
+    }
+
+    @Override
+    public void attach(@NonNull String peerId, @NonNull MediaStream stream) {
+        videoView.attach(peerId, stream);
+    }
+
+    @Override
+    public void detach() {
+        videoView.unAttach();
+    }
+
+    @Override
+    public void setMirror(boolean mirror) {
+        videoView.setMirror(mirror);
+    }
+}
@@ -1,18 +1,23 @@
 package com.voxeet.uxkit.utils;
 
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.voxeet.VoxeetSDK;
-import com.voxeet.android.media.stream.MediaStreamType;
 import com.voxeet.sdk.models.Conference;
 import com.voxeet.sdk.models.Participant;
-import com.voxeet.sdk.models.v1.ConferenceParticipantStatus;
-import com.voxeet.sdk.utils.Filter;
 import com.voxeet.sdk.utils.Opt;
+import com.voxeet.uxkit.controllers.VoxeetToolkit;
+import com.voxeet.uxkit.implementation.overlays.OverlayState;
+import com.voxeet.uxkit.providers.rootview.AbstractRootViewProvider;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -21,89 +26,151 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * Simple Timer made to schedule interactions accross the Speakers in a conference
  * <p>
  * This class can be started, stopped and get the current active speaker
+ * <p>
+ * The sampling rate is driven by an AdaptiveSamplingScheduler
  */
 public final class VoxeetSpeakersTimerInstance {
 
     public static final int REFRESH_METER = 100;
-    private final static int INTERVALS_BEFORE_NEXT_SPEAKER_UPDATED = 50; //
+    public static final int LEVEL_BUCKETS = 5;
+    private static final long HISTORY_DURATION = 60000;
+    private static final long MONOLOGUE_GAP_TOLERANCE = 1500;
     public final static VoxeetSpeakersTimerInstance instance = new VoxeetSpeakersTimerInstance();
 
     private CopyOnWriteArrayList<SpeakersUpdated> speakers_listeners = new CopyOnWriteArrayList<>();
     private CopyOnWriteArrayList<ActiveSpeakerListener> activespeakers_listeners = new CopyOnWriteArrayList<>();
-    private String currentActiveSpeaker;
-    private String lastActiveSpeaker;
+    //array copies of the listeners, iterating over those doesn't allocate on each tick
+    private volatile SpeakersUpdated[] speakers_dispatch = new SpeakersUpdated[0];
+    private volatile ActiveSpeakerListener[] activespeakers_dispatch = new ActiveSpeakerListener[0];
+    //main thread only : per participant listeners of the speaking state
+    private final HashMap<String, SpeakingStateListener[]> speaking_listeners = new HashMap<>();
+    private volatile int speaking_subscribers = 0;
+    @NonNull
+    private int[] dispatchedBuckets = new int[16];
+    @Nullable
+    private ParticipantSlotTable dispatchedSlots;
+    private volatile String currentActiveSpeaker;
+    @NonNull
+    private volatile ActiveSpeakerDetector activeSpeakerDetector = new EmaActiveSpeakerDetector();
 
-    private Handler handler;
+    private Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile Handler handler;
+    @Nullable
+    private HandlerThread samplingThread;
+    private boolean backgroundSampling = true;
     private Runnable refreshActiveSpeaker = null;
+    private Runnable publishSnapshot = null;
+    private Runnable wakeUpSampling = null;
+
+    @NonNull
+    private final AdaptiveSamplingScheduler scheduler = new AdaptiveSamplingScheduler();
+    @Nullable
+    private volatile OverlayState overlayState;
+    private volatile long currentInterval = AdaptiveSamplingScheduler.SUSPENDED;
+    private long lastSpeechTime = 0;
 
-    private HashMap<String, Double> audioLevels = new HashMap<>();
+    @NonNull
+    private ParticipantSlotTable slotTable = new ParticipantSlotTable();
+    @NonNull
+    private final SpeakingStatistics statistics = new SpeakingStatistics(HISTORY_DURATION, REFRESH_METER, MONOLOGUE_GAP_TOLERANCE);
 
-    private int current_loop_state = 0;
+    @NonNull
+    private final AudioLevelsExchange audioLevels = new AudioLevelsExchange();
 
     private VoxeetSpeakersTimerInstance() {
         refreshActiveSpeaker = () -> {
-            try {
-                //TODO since using the active speaker's O(n) loop and doing same here, mutualize code and remove the call to the SDK alltogether
-                if (null != handler) {
-                    String fromSdk = VoxeetSDK.conference().currentSpeaker();
-                    Conference conference = VoxeetSDK.conference().getConference();
-
-                    if (null != conference) {
-                        List<Participant> participants = VoxeetSDK.conference().getParticipants();
+            Handler sampler = handler;
+            if (null == sampler) return;
 
-                        for (Participant participant : participants) {
-                            if (null == participant || null == participant.getId()) continue;
+            try {
+                AudioLevelsSnapshot snapshot = audioLevels.obtain(slotTable);
 
-                            double audioLevel = VoxeetSDK.conference().audioLevel(participant);
-                            audioLevels.put(participant.getId(), audioLevel);
-                        }
-                    }
+                sample(snapshot);
 
-                    //check if it's time to update the current active speaker (every 5 times - current value of INTERVALS_BEFORE_NEXT_SPEAKER_UPDATED)
-                    boolean new_loop_activespeaker = false;
-                    current_loop_state++;
-                    if (current_loop_state >= INTERVALS_BEFORE_NEXT_SPEAKER_UPDATED) {
-                        current_loop_state = 0;
-                        new_loop_activespeaker = true;
+                //if the main thread did not consume the previous pass yet, a post is already queued
+                if (audioLevels.offer(snapshot)) {
+                    if (Looper.myLooper() == Looper.getMainLooper()) {
+                        publishSnapshot.run();
+                    } else {
+                        //a single post to the main thread to publish the snapshot and warn the listeners
+                        mainHandler.post(publishSnapshot);
                     }
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
 
-                    //we save the last active speaker known
-                    if (null != fromSdk) {
-                        lastActiveSpeaker = fromSdk;
-                    }
+            long interval = scheduler.nextInterval(subscribers(), overlayState, isActivityResumed(),
+                    SystemClock.uptimeMillis() - lastSpeechTime);
+            currentInterval = interval;
+            if (AdaptiveSamplingScheduler.SUSPENDED != interval) {
+                sampler.postDelayed(refreshActiveSpeaker, interval);
+            }
+        };
 
-                    if (new_loop_activespeaker && (null == currentActiveSpeaker || !currentActiveSpeaker.equals(lastActiveSpeaker))) {
-                        //if we had a previous active speaker
-                        if (null != lastActiveSpeaker) {
-                            Participant participant = VoxeetSDK.conference().findParticipantById(lastActiveSpeaker);
+        //executed on the sampling thread : no concurrent rescheduling with refreshActiveSpeaker
+        wakeUpSampling = () -> {
+            Handler sampler = handler;
+            if (null == sampler || currentInterval == scheduler.getFastInterval()) return;
 
-                            //still available... we set it
-                            if (null != participant && participant.isLocallyActive()) {
-                                currentActiveSpeaker = lastActiveSpeaker;
-                            }
-                        }
+            sampler.removeCallbacks(refreshActiveSpeaker);
+            refreshActiveSpeaker.run();
+        };
 
-                        //now we check the current active speaker as well
-                        if (null != currentActiveSpeaker) {
-                            Participant participant = VoxeetSDK.conference().findParticipantById(currentActiveSpeaker);
+        publishSnapshot = () -> {
+            AudioLevelsSnapshot snapshot = audioLevels.poll();
+            if (null == snapshot || null == handler) return;
 
-                            if (null == participant || !participant.isLocallyActive()) {
-                                currentActiveSpeaker = null;
-                            }
-                        }
+            audioLevels.publish(snapshot);
 
-                        sendActiveSpeakersUpdated();
-                        lastActiveSpeaker = null;
-                    }
+            if (snapshot.activeSpeakerUpdated) sendActiveSpeakersUpdated(snapshot.activeSpeaker());
+            sendSpeakingStateChanged(snapshot);
+            sendSpeakersUpdated();
+        };
+    }
 
-                    //also warn the listeners
-                    sendSpeakersUpdated();
-                }
-                handler.postDelayed(refreshActiveSpeaker, VoxeetSpeakersTimerInstance.REFRESH_METER);
-            } catch (Exception e) {
-                e.printStackTrace();
+    /**
+     * Sample the audio levels of every participant and compute the active speaker
+     * <p>
+     * Called on the sampling thread, the snapshot is not published yet
+     *
+     * @param snapshot the snapshot to fill
+     */
+    private void sample(@NonNull AudioLevelsSnapshot snapshot) {
+        ParticipantSlotTable slots = snapshot.slots();
+        long now = SystemClock.uptimeMillis();
+        Conference conference = VoxeetSDK.conference().getConference();
+
+        if (null != conference) {
+            List<Participant> participants = VoxeetSDK.conference().getParticipants();
+            boolean speech = false;
+
+            //index based loop : no iterator allocated
+            for (int i = 0, size = participants.size(); i < size; i++) {
+                Participant participant = participants.get(i);
+                if (null == participant || null == participant.getId()) continue;
+
+                double level = VoxeetSDK.conference().audioLevel(participant);
+                snapshot.set(slots.intern(participant.getId()), level, participant.isLocallyActive());
+                speech |= scheduler.isSpeech(level);
             }
-        };
+
+            if (speech) lastSpeechTime = now;
+        }
+
+        statistics.push(snapshot, scheduler, now);
+
+        //the active speaker is computed from the levels sampled above, no second pass over the participants
+        int slot = activeSpeakerDetector.update(snapshot, scheduler, now);
+        String activeSpeaker = slots.idOf(slot);
+
+        String previous = currentActiveSpeaker;
+        if (null == previous ? null != activeSpeaker : !previous.equals(activeSpeaker)) {
+            currentActiveSpeaker = activeSpeaker;
+            snapshot.activeSpeakerUpdated = true;
+        }
+
+        snapshot.setActiveSpeaker(activeSpeaker, now);
     }
 
     @Deprecated
@@ -112,20 +179,23 @@ public final class VoxeetSpeakersTimerInstance {
     }
 
     /**
-     * Optional listener to set to receive events when a new active speaker loop has finished
+     * Optional listener to set to receive events when the active speaker computed by the ActiveSpeakerDetector changes
      * <p>
-     * Only one is available in memory. A getter for each audio level is available and will get refreshed every 1s
+     * A getter for each audio level is available and will get refreshed on every sampling pass
      *
      * @param listener
      */
     public void registerActiveSpeakerListener(@NonNull ActiveSpeakerListener listener) {
-        if (!activespeakers_listeners.contains(listener)) {
-            activespeakers_listeners.add(listener);
+        if (activespeakers_listeners.addIfAbsent(listener)) {
+            activespeakers_dispatch = activespeakers_listeners.toArray(new ActiveSpeakerListener[0]);
+            wakeUp();
         }
     }
 
     public void unregisterActiveSpeakerListener(@NonNull ActiveSpeakerListener listener) {
-        activespeakers_listeners.remove(listener);
+        if (activespeakers_listeners.remove(listener)) {
+            activespeakers_dispatch = activespeakers_listeners.toArray(new ActiveSpeakerListener[0]);
+        }
     }
 
     /**
@@ -135,11 +205,99 @@ public final class VoxeetSpeakersTimerInstance {
      */
     public void start() {
         if (null == handler) {
-            handler = new Handler(Looper.getMainLooper());
+            //new sampling session, slots from the previous conference are dropped
+            slotTable = new ParticipantSlotTable();
+            activeSpeakerDetector.reset();
+            statistics.reset(slotTable);
+            currentActiveSpeaker = null;
+            audioLevels.clear();
+
+            if (backgroundSampling) {
+                samplingThread = new HandlerThread("VoxeetSpeakersTimer", Process.THREAD_PRIORITY_BACKGROUND);
+                samplingThread.start();
+                handler = new Handler(samplingThread.getLooper());
+            } else {
+                handler = new Handler(Looper.getMainLooper());
+            }
+            currentInterval = 1000;
             handler.postDelayed(refreshActiveSpeaker, 1000);
         }
     }
 
+    /**
+     * Replace the engine computing the active speaker from the sampled levels
+     * <p>
+     * Takes effect on the next call to start()
+     *
+     * @param detector the new detector
+     */
+    public void setActiveSpeakerDetector(@NonNull ActiveSpeakerDetector detector) {
+        if (null == handler) activeSpeakerDetector = detector;
+    }
+
+    /**
+     * Get the engine computing the active speaker, to configure it
+     *
+     * @return the instance used by this timer
+     */
+    @NonNull
+    public ActiveSpeakerDetector getActiveSpeakerDetector() {
+        return activeSpeakerDetector;
+    }
+
+    /**
+     * Get the talk time statistics and level history of the current sampling session
+     *
+     * @return the statistics, reset each time the timer is started
+     */
+    @NonNull
+    public SpeakingStatistics getSpeakingStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Get the scheduler deciding of the sampling rate, to configure its intervals
+     *
+     * @return the instance used by this timer
+     */
+    @NonNull
+    public AdaptiveSamplingScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Inform the timer about the state of the overlay displaying the conference
+     *
+     * @param overlayState the new state
+     */
+    public void setOverlayState(@Nullable OverlayState overlayState) {
+        this.overlayState = overlayState;
+        if (OverlayState.EXPANDED.equals(overlayState)) wakeUp();
+    }
+
+    /**
+     * Go back to the fast sampling rate right away if the timer was slowed down or suspended
+     * <p>
+     * The scheduler is then free to slow it down again on the next pass
+     */
+    public void wakeUp() {
+        Handler sampler = handler;
+        if (null != sampler) sampler.post(wakeUpSampling);
+    }
+
+    private int subscribers() {
+        return speakers_dispatch.length + activespeakers_dispatch.length + speaking_subscribers;
+    }
+
+    //called on the sampling thread, the provider's flag is volatile
+    private boolean isActivityResumed() {
+        VoxeetToolkit toolkit = VoxeetToolkit.instance();
+        if (null == toolkit) return true;
+
+        AbstractRootViewProvider provider = toolkit.getDefaultRootViewProvider();
+        return null == provider || provider.isCurrentActivityResumed();
+    }
+
     /**
      * Stop the timer if it was already started
      * Any call when the timer has already been stopped will have no effects
@@ -147,13 +305,46 @@ public final class VoxeetSpeakersTimerInstance {
     public void stop() {
         if (null != handler) {
             handler.removeCallbacks(refreshActiveSpeaker);
+            handler.removeCallbacks(wakeUpSampling);
             handler = null;
         }
+        currentInterval = AdaptiveSamplingScheduler.SUSPENDED;
+
+        if (null != samplingThread) {
+            samplingThread.quitSafely();
+            samplingThread = null;
+        }
+    }
+
+    /**
+     * Choose the thread on which the audio levels are sampled
+     * <p>
+     * When enabled (default), the participants are sampled on a dedicated background thread and the
+     * listeners are still called on the main thread, once per sampling pass.
+     * Takes effect on the next call to start()
+     *
+     * @param backgroundSampling true to sample off the main thread
+     */
+    public void setBackgroundSampling(boolean backgroundSampling) {
+        this.backgroundSampling = backgroundSampling;
+    }
+
+    /**
+     * Get the last snapshot published to the main thread
+     * <p>
+     * The snapshot is left untouched until the next one is published, it must be read from the main thread
+     *
+     * @return a non null snapshot
+     */
+    @NonNull
+    public AudioLevelsSnapshot getAudioLevelsSnapshot() {
+        return audioLevels.published();
     }
 
     /**
      * Get the current active speaker
      * <p>
+     * The value is the one computed by the last sampling pass and may be read from any thread.
      * The result will be null if start has not been used or no users are in the conference
      *
      * @return the current active speaker
@@ -172,51 +363,159 @@ public final class VoxeetSpeakersTimerInstance {
         }
 
         if (null == activeSpeaker) {
-            List<Participant> on_line = Filter.filter(VoxeetSDK.conference().getParticipants(), participant -> {
-                if (Opt.of(participant.getId()).or("").equals(VoxeetSDK.session().getParticipantId())) {
-                    //prevent own user to be "active speaker"
-                    return false;
-                }
-                if (ConferenceParticipantStatus.ON_AIR == participant.getStatus()) return true;
-                return ConferenceParticipantStatus.CONNECTING == participant.getStatus() && null != participant.streamsHandler().getFirst(MediaStreamType.Camera);
-            });
-
-            if (on_line.size() > 0) {
-                activeSpeaker = Opt.of(on_line.get(0)).then(Participant::getId).orNull();
-            }
+            //the snapshot never contains the local participant
+            Participant first = ParticipantCache.instance.getSnapshot().getFirstOnlineParticipant();
+            activeSpeaker = Opt.of(first).then(Participant::getId).orNull();
         }
         return activeSpeaker;
     }
 
     /**
      * Optional method for fast and possibly spammy behaviour from apps where views can be rendered multiple times.
-     * The value returned is a cached one and refreshed every 1s
+     * The value returned is a cached one and refreshed on each sampling pass, reading it doesn't allocate
      *
      * @param participant
      * @return the audio level for the given participant or null
      */
     public double audioLevel(@NonNull Participant participant) {
-        String id = Opt.of(participant).then(Participant::getId).or("");
-        if (audioLevels.containsKey(id)) {
-            return Opt.of(audioLevels.get(id)).or(0d);
-        }
-        return 0d;
+        return audioLevels.published().audioLevel(participant.getId());
+    }
+
+    /**
+     * Get the stable slot of a participant for the current sampling session
+     *
+     * @param participantId the participant's id
+     * @return the slot or ParticipantSlotTable.NO_SLOT if not sampled yet
+     */
+    public int slotOf(@Nullable String participantId) {
+        return audioLevels.published().slots().slotOf(participantId);
+    }
+
+    /**
+     * Get the cached audio level of a participant from its slot
+     *
+     * @param slot the slot obtained from slotOf
+     * @return the audio level or 0
+     */
+    public double audioLevel(int slot) {
+        return audioLevels.published().audioLevel(slot);
     }
 
     public void register(@NonNull SpeakersUpdated listener) {
-        if (!speakers_listeners.contains(listener)) {
-            speakers_listeners.add(listener);
+        if (speakers_listeners.addIfAbsent(listener)) {
+            speakers_dispatch = speakers_listeners.toArray(new SpeakersUpdated[0]);
+            wakeUp();
         }
     }
 
     public void unregister(@NonNull SpeakersUpdated listener) {
-        speakers_listeners.remove(listener);
+        if (speakers_listeners.remove(listener)) {
+            speakers_dispatch = speakers_listeners.toArray(new SpeakersUpdated[0]);
+        }
+    }
+
+    /**
+     * Register a listener called only when the speaking state of the given participant changes
+     * <p>
+     * The listener is called right away with the current state. Must be called from the main thread
+     *
+     * @param participantId the participant to follow
+     * @param listener      the listener
+     */
+    @MainThread
+    public void registerSpeakingStateListener(@NonNull String participantId, @NonNull SpeakingStateListener listener) {
+        SpeakingStateListener[] listeners = speaking_listeners.get(participantId);
+        if (null == listeners) listeners = new SpeakingStateListener[0];
+
+        for (SpeakingStateListener registered : listeners) {
+            if (registered == listener) return;
+        }
+
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        speaking_listeners.put(participantId, listeners);
+        speaking_subscribers++;
+
+        try {
+            listener.onSpeakingStateChanged(participantId, levelBucket(audioLevels.published().audioLevel(participantId)));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        wakeUp();
+    }
+
+    /**
+     * Unregister a listener previously registered for the given participant
+     *
+     * @param participantId the participant followed
+     * @param listener      the listener
+     */
+    @MainThread
+    public void unregisterSpeakingStateListener(@NonNull String participantId, @NonNull SpeakingStateListener listener) {
+        SpeakingStateListener[] listeners = speaking_listeners.get(participantId);
+        if (null == listeners) return;
+
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] != listener) continue;
+
+            SpeakingStateListener[] copy = new SpeakingStateListener[listeners.length - 1];
+            System.arraycopy(listeners, 0, copy, 0, i);
+            System.arraycopy(listeners, i + 1, copy, i, listeners.length - i - 1);
+
+            if (copy.length > 0) speaking_listeners.put(participantId, copy);
+            else speaking_listeners.remove(participantId);
+            speaking_subscribers--;
+            return;
+        }
     }
 
-    private void sendActiveSpeakersUpdated() {
-        for (ActiveSpeakerListener speaker : activespeakers_listeners) {
+    /**
+     * Quantize an audio level into one of the LEVEL_BUCKETS buckets
+     *
+     * @param level the audio level, from 0 to 1
+     * @return 0 when not speaking, up to LEVEL_BUCKETS - 1 for the loudest levels
+     */
+    public int levelBucket(double level) {
+        if (!scheduler.isSpeech(level)) return 0;
+        return 1 + (int) Math.min(LEVEL_BUCKETS - 2, Math.max(0, level) * (LEVEL_BUCKETS - 1));
+    }
+
+    private void sendSpeakingStateChanged(@NonNull AudioLevelsSnapshot snapshot) {
+        ParticipantSlotTable slots = snapshot.slots();
+        int size = slots.size();
+
+        if (dispatchedSlots != slots) {
+            //new sampling session, every known state is reset
+            dispatchedSlots = slots;
+            Arrays.fill(dispatchedBuckets, 0);
+        }
+        if (size > dispatchedBuckets.length) {
+            dispatchedBuckets = Arrays.copyOf(dispatchedBuckets, Math.max(size, dispatchedBuckets.length * 2));
+        }
+
+        for (int slot = 0; slot < size; slot++) {
+            int bucket = levelBucket(snapshot.audioLevel(slot));
+            if (bucket == dispatchedBuckets[slot]) continue;
+            dispatchedBuckets[slot] = bucket;
+
+            String participantId = slots.idOf(slot);
+            SpeakingStateListener[] listeners = null != participantId ? speaking_listeners.get(participantId) : null;
+            if (null == listeners) continue;
+
+            for (SpeakingStateListener listener : listeners) {
+                try {
+                    listener.onSpeakingStateChanged(participantId, bucket);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void sendActiveSpeakersUpdated(@Nullable String activeSpeaker) {
+        for (ActiveSpeakerListener speaker : activespeakers_dispatch) {
             try {
-                speaker.onActiveSpeakerUpdated(currentActiveSpeaker);
+                speaker.onActiveSpeakerUpdated(activeSpeaker);
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -224,7 +523,7 @@ public final class VoxeetSpeakersTimerInstance {
     }
 
     private void sendSpeakersUpdated() {
-        for (SpeakersUpdated speaker : speakers_listeners) {
+        for (SpeakersUpdated speaker : speakers_dispatch) {
             try {
                 speaker.onSpeakersUpdated();
             } catch (Exception e) {
@@ -245,4 +544,14 @@ public final class VoxeetSpeakersTimerInstance {
     public static interface SpeakersUpdated {
         void onSpeakersUpdated();
     }
+
+    /**
+     * Listener of the speaking state of a given participant
+     * <p>
+     * Only called when the quantized level of the participant crosses a bucket, a participant is speaking
+     * when its bucket is greater than 0
+     */
+    public static interface SpeakingStateListener {
+        void onSpeakingStateChanged(@NonNull String participantId, int levelBucket);
+    }
 }
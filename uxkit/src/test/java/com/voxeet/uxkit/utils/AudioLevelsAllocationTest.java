@@ -0,0 +1,111 @@
+package com.voxeet.uxkit.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Check a steady state sampling pass allocates nothing : the levels are interned, sampled, pushed to the
+ * statistics and the detector, handed over, published and read the way the VoxeetSpeakersTimerInstance does
+ */
+public class AudioLevelsAllocationTest {
+
+    private final static int PARTICIPANTS = 40;
+    private final static int WARMUP_TICKS = 20000;
+    private final static int TICKS = 10000;
+
+    private final String[] ids = new String[PARTICIPANTS];
+
+    private ParticipantSlotTable slots;
+    private AudioLevelsExchange exchange;
+    private AdaptiveSamplingScheduler scheduler;
+    private SpeakingStatistics statistics;
+    private EmaActiveSpeakerDetector detector;
+
+    private long now;
+    private double read;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < PARTICIPANTS; i++) ids[i] = "participant-" + i;
+
+        slots = new ParticipantSlotTable();
+        exchange = new AudioLevelsExchange();
+        scheduler = new AdaptiveSamplingScheduler();
+        statistics = new SpeakingStatistics(60000, VoxeetSpeakersTimerInstance.REFRESH_METER, 1500);
+        statistics.reset(slots);
+        detector = new EmaActiveSpeakerDetector();
+        now = 1000;
+    }
+
+    @Test
+    public void steadyStateTicks_allocateNothing() {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        assumeTrue(null != threads);
+
+        long thread = Thread.currentThread().getId();
+
+        //the slots, the snapshots and the histories are created during the first passes
+        for (int tick = 0; tick < WARMUP_TICKS; tick++) tick(tick);
+
+        long overhead = measureOverhead(threads, thread);
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int tick = 0; tick < TICKS; tick++) tick(tick);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+
+        assertEquals("bytes allocated by " + TICKS + " ticks", 0, Math.max(0, allocated));
+    }
+
+    private void tick(int tick) {
+        now += VoxeetSpeakersTimerInstance.REFRESH_METER;
+
+        //sampling thread
+        AudioLevelsSnapshot snapshot = exchange.obtain(slots);
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            //a different speaker every few seconds, the others are silent
+            double level = (tick / 50) % PARTICIPANTS == i ? 0.4 : 0.001;
+            snapshot.set(slots.intern(ids[i]), level, true);
+        }
+        statistics.push(snapshot, scheduler, now);
+        snapshot.setActiveSpeaker(slots.idOf(detector.update(snapshot, scheduler, now)), now);
+
+        exchange.offer(snapshot);
+
+        //every other pass, the main thread is late and the pending snapshot is replaced
+        if (0 == tick % 2) return;
+
+        //main thread
+        AudioLevelsSnapshot published = exchange.poll();
+        if (null == published) return;
+        exchange.publish(published);
+
+        AudioLevelsSnapshot current = exchange.published();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            read += current.audioLevel(ids[i]) + current.audioLevel(current.slots().slotOf(ids[i]));
+        }
+    }
+
+    private static long measureOverhead(com.sun.management.ThreadMXBean threads, long thread) {
+        long before = threads.getThreadAllocatedBytes(thread);
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (!(threads instanceof com.sun.management.ThreadMXBean)) return null;
+
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+            if (!sun.isThreadAllocatedMemorySupported()) return null;
+            sun.setThreadAllocatedMemoryEnabled(true);
+            return sun;
+        } catch (Throwable e) {
+            //not a HotSpot based JVM
+            return null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Replay level traces through the detector, with its default settings : 300 ms time constant, 800 ms hold and
+ * 1.5 hysteresis
+ */
+public class EmaActiveSpeakerDetectorTest {
+
+    //the participant is not locally active in this sample
+    private final static double GONE = Double.NaN;
+
+    private EmaActiveSpeakerDetector detector;
+    private AdaptiveSamplingScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        detector = new EmaActiveSpeakerDetector();
+        scheduler = new AdaptiveSamplingScheduler();
+    }
+
+    @Test
+    public void firstSpeaker_isPickedUnderASecond() {
+        Trace trace = new Trace("a", "b")
+                .repeat(100, 5, 0.002, 0.003)
+                .repeat(100, 3, 0.3, 0.003);
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        assertNull(speakers.get(4));
+        assertEquals("a", speakers.get(7));
+    }
+
+    @Test
+    public void newSpeaker_waitsForTheMinimumHold() {
+        Trace trace = new Trace("a", "b")
+                .repeat(100, 3, 0.3, 0.002)
+                //b is much louder right after a took over
+                .repeat(100, 10, 0.3, 0.9);
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        //a took over on the first sample and is held for 800 ms
+        assertEquals("a", speakers.get(0));
+        assertEquals("a", speakers.get(7));
+        assertEquals("b", speakers.get(8));
+    }
+
+    @Test
+    public void slightlyLouderSpeaker_doesNotTakeOver() {
+        Trace trace = new Trace("a", "b")
+                .repeat(100, 10, 0.3, 0.002)
+                //louder, but under the 1.5 ratio
+                .repeat(100, 30, 0.3, 0.4);
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        for (int i = 1; i < speakers.size(); i++) assertEquals("a", speakers.get(i));
+    }
+
+    @Test
+    public void overlappingSpeakers_doNotFlap() {
+        Trace trace = new Trace("a", "b").repeat(100, 10, 0.3, 0.002);
+        //both talk in turn with short peaks, b being louder on every other sample
+        for (int i = 0; i < 20; i++) {
+            trace.repeat(100, 1, 0.3, 0.2).repeat(100, 1, 0.25, 0.5);
+        }
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        assertEquals(0, trace.switches(speakers, 10));
+    }
+
+    @Test
+    public void clearlyLouderSpeaker_takesOverUnderASecond() {
+        Trace trace = new Trace("a", "b")
+                .repeat(100, 10, 0.3, 0.002)
+                .repeat(100, 10, 0.02, 0.6);
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        assertEquals("a", speakers.get(9));
+        assertEquals("b", speakers.get(13));
+    }
+
+    @Test
+    public void silence_keepsTheLastSpeaker() {
+        Trace trace = new Trace("a", "b")
+                .repeat(100, 10, 0.3, 0.002)
+                //nobody speaks, the scheduler samples less often
+                .repeat(1000, 10, 0.001, 0.002);
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        assertEquals("a", speakers.get(speakers.size() - 1));
+    }
+
+    @Test
+    public void noiseUnderTheSpeechThreshold_isNotASpeaker() {
+        Trace trace = new Trace("a", "b").repeat(100, 30, 0.015, 0.01);
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        for (String speaker : speakers) assertNull(speaker);
+    }
+
+    @Test
+    public void speechThreshold_isTheOneOfTheScheduler() {
+        scheduler.setSpeechThreshold(0.005);
+        Trace trace = new Trace("a", "b").repeat(100, 30, 0.015, 0.001);
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        assertEquals("a", speakers.get(speakers.size() - 1));
+    }
+
+    @Test
+    public void speakerLeaving_isDropped() {
+        Trace trace = new Trace("a", "b")
+                .repeat(100, 10, 0.3, 0.002)
+                .repeat(100, 1, GONE, 0.002);
+
+        List<String> speakers = trace.replay(detector, scheduler);
+
+        assertNull(speakers.get(speakers.size() - 1));
+    }
+
+    @Test
+    public void reset_forgetsTheSpeaker() {
+        new Trace("a", "b").repeat(100, 10, 0.3, 0.002).replay(detector, scheduler);
+        detector.reset();
+
+        List<String> speakers = new Trace("a", "b").repeat(100, 1, 0.001, 0.002).replay(detector, scheduler);
+
+        assertNull(speakers.get(0));
+    }
+
+    /**
+     * A recorded sequence of sampling passes : the uptime and the level of each participant
+     */
+    private static class Trace {
+        private final String[] participants;
+        private final List<Long> timestamps = new ArrayList<>();
+        private final List<double[]> levels = new ArrayList<>();
+        private long now = 10000;
+
+        Trace(String... participants) {
+            this.participants = participants;
+        }
+
+        @NonNull
+        Trace repeat(long interval, int count, double... sample) {
+            for (int i = 0; i < count; i++) {
+                now += interval;
+                timestamps.add(now);
+                levels.add(sample);
+            }
+            return this;
+        }
+
+        /**
+         * Feed the samples to the detector
+         *
+         * @return the active speaker after each sample
+         */
+        @NonNull
+        List<String> replay(@NonNull ActiveSpeakerDetector detector, @NonNull AdaptiveSamplingScheduler scheduler) {
+            ParticipantSlotTable slots = new ParticipantSlotTable();
+            AudioLevelsSnapshot snapshot = new AudioLevelsSnapshot(slots);
+            List<String> speakers = new ArrayList<>();
+
+            for (int sample = 0; sample < timestamps.size(); sample++) {
+                snapshot.reset();
+                double[] values = levels.get(sample);
+                for (int i = 0; i < participants.length; i++) {
+                    boolean active = !Double.isNaN(values[i]);
+                    snapshot.set(slots.intern(participants[i]), active ? values[i] : 0, active);
+                }
+                speakers.add(slots.idOf(detector.update(snapshot, scheduler, timestamps.get(sample))));
+            }
+            return speakers;
+        }
+
+        int switches(@NonNull List<String> speakers, int from) {
+            int switches = 0;
+            for (int i = from + 1; i < speakers.size(); i++) {
+                if (!same(speakers.get(i - 1), speakers.get(i))) switches++;
+            }
+            return switches;
+        }
+
+        private static boolean same(@Nullable String left, @Nullable String right) {
+            return null == left ? null == right : left.equals(right);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.voxeet.uxkit.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check how the FrameTimeRecorder counts the frames and the dropped ones from a sequence of frame times
+ */
+public class FrameTimeRecorderTest {
+
+    private final static long FRAME = FrameTimeRecorder.DEFAULT_FRAME_INTERVAL;
+
+    private FrameTimeRecorder recorder;
+
+    @Before
+    public void setUp() {
+        recorder = new FrameTimeRecorder("test");
+    }
+
+    @Test
+    public void framesOnTime_dropNoFrame() {
+        //200 ms at 60 Hz
+        record(recorder, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME);
+
+        assertEquals(12, recorder.getFrameCount());
+        assertEquals(0, recorder.getDroppedFrameCount());
+        assertEquals(FRAME, recorder.getMaxFrameTime());
+    }
+
+    @Test
+    public void everyFrameTwiceTooLong_dropsAFramePerFrame() {
+        record(recorder, 2 * FRAME, 2 * FRAME, 2 * FRAME, 2 * FRAME, 2 * FRAME, 2 * FRAME);
+
+        assertEquals(6, recorder.getFrameCount());
+        assertEquals(6, recorder.getDroppedFrameCount());
+    }
+
+    @Test
+    public void singleLongFrame_dropsOneFrame() {
+        record(recorder, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, FRAME, 2 * FRAME);
+
+        assertEquals(1, recorder.getDroppedFrameCount());
+        assertEquals(2 * FRAME, recorder.getMaxFrameTime());
+    }
+
+    @Test
+    public void reset_discardsThePreviousRecording() {
+        record(recorder, 3 * FRAME);
+        recorder.reset();
+        record(recorder, FRAME);
+
+        assertEquals(1, recorder.getFrameCount());
+        assertEquals(0, recorder.getDroppedFrameCount());
+        assertEquals(FRAME, recorder.getDuration());
+    }
+
+    private static void record(FrameTimeRecorder recorder, long... frameTimes) {
+        long now = 1000 * FRAME;
+        recorder.onFrame(now);
+        for (long frameTime : frameTimes) {
+            now += frameTime;
+            recorder.onFrame(now);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check the tiles keep their participant and the number of renderers stays bounded
+ */
+public class GridTileAssignerTest {
+
+    private GridTileAssigner assigner;
+    private FakeState state;
+
+    @Before
+    public void setUp() {
+        assigner = new GridTileAssigner();
+        state = new FakeState();
+    }
+
+    @Test
+    public void newcomers_areAddedAtTheEnd() {
+        assigner.assign(ids("a", "b", "c"), 25);
+        assigner.assign(ids("d", "a", "b", "c"), 25);
+
+        assertEquals(0, assigner.indexOf("a"));
+        assertEquals(3, assigner.indexOf("d"));
+        assertEquals(0, assigner.getMoveCount());
+    }
+
+    @Test
+    public void sameParticipants_changeNothing() {
+        assigner.assign(ids("a", "b", "c"), 25);
+
+        assertFalse(assigner.assign(ids("c", "b", "a"), 25));
+        assertEquals(0, assigner.indexOf("a"));
+    }
+
+    @Test
+    public void leaving_movesOnlyTheLastTile() {
+        assigner.assign(ids("a", "b", "c", "d"), 25);
+        assigner.assign(ids("a", "c", "d"), 25);
+
+        assertEquals(0, assigner.indexOf("a"));
+        assertEquals(1, assigner.indexOf("d"));
+        assertEquals(2, assigner.indexOf("c"));
+        assertEquals(1, assigner.getMoveCount());
+    }
+
+    @Test
+    public void participantsBeyondTheCap_areHidden() {
+        List<String> participants = new ArrayList<>();
+        for (int index = 0; index < 30; index++) participants.add("p" + index);
+
+        assigner.assign(participants, 25);
+
+        assertEquals(25, assigner.getTileCount());
+        assertEquals(5, assigner.getHiddenCount());
+    }
+
+    @Test
+    public void renderers_areBounded() {
+        List<String> participants = new ArrayList<>();
+        for (int index = 0; index < 25; index++) {
+            participants.add("p" + index);
+            state.video.add("p" + index);
+        }
+
+        assigner.assign(participants, 25);
+        assigner.selectRenderers("p0", 6, state);
+
+        assertEquals(6, assigner.getRenderingCount());
+        assertFalse(assigner.isRendering("p0"));
+    }
+
+    @Test
+    public void speakerChange_keepsTilesAndRenderersInsideTheBudget() {
+        state.video.addAll(ids("a", "b", "c"));
+        assigner.assign(ids("a", "b", "c"), 25);
+        assigner.selectRenderers("a", 2, state);
+
+        //the new speaker already renders its video in its tile
+        state.lastSpokeAt.put("b", 10L);
+        assertFalse(assigner.assign(ids("a", "b", "c"), 25));
+        assertFalse(assigner.selectRenderers("a", 2, state));
+        assertEquals(1, assigner.indexOf("b"));
+    }
+
+    @Test
+    public void recentSpeaker_takesTheRendererOfTheOldestOne() {
+        state.video.addAll(ids("a", "b", "c"));
+        state.lastSpokeAt.put("a", 10L);
+        state.lastSpokeAt.put("b", 20L);
+        assigner.assign(ids("a", "b", "c"), 25);
+        assigner.selectRenderers(null, 2, state);
+
+        state.lastSpokeAt.put("c", 30L);
+        assertTrue(assigner.selectRenderers(null, 2, state));
+
+        assertFalse(assigner.isRendering("a"));
+        assertTrue(assigner.isRendering("b"));
+        assertTrue(assigner.isRendering("c"));
+    }
+
+    @Test
+    public void columns_fillTheScreen() {
+        assertEquals(1, GridTileAssigner.columnsFor(1, 1080, 1920, 3f / 4f));
+        assertEquals(2, GridTileAssigner.columnsFor(4, 1080, 1920, 3f / 4f));
+        assertEquals(5, GridTileAssigner.columnsFor(25, 1920, 1080, 4f / 3f));
+    }
+
+    @NonNull
+    private static List<String> ids(String... ids) {
+        return Arrays.asList(ids);
+    }
+
+    private static class FakeState implements GridTileAssigner.TileState {
+        final HashSet<String> video = new HashSet<>();
+        final HashMap<String, Long> lastSpokeAt = new HashMap<>();
+
+        @Override
+        public boolean hasVideo(@NonNull String participantId) {
+            return video.contains(participantId);
+        }
+
+        @Override
+        public long getLastSpokeAt(@NonNull String participantId) {
+            Long value = lastSpokeAt.get(participantId);
+            return null != value ? value : 0;
+        }
+    }
+}
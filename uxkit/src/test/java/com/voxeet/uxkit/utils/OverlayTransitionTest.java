@@ -0,0 +1,190 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drive the expand and minimize transitions of the overlay as its AnimatorSet does, with the frames of a fake
+ * Choreographer, and check the layouts they trigger and the frames they record
+ */
+public class OverlayTransitionTest {
+
+    private final static long FRAME = FrameTimeRecorder.DEFAULT_FRAME_INTERVAL;
+    //a 200 ms transition at 60 Hz
+    private final static int TRANSITION_FRAMES = 12;
+
+    private FakeOverlay overlay;
+    private ManualScheduler scheduler;
+    private FrameTimeRecorder recorder;
+
+    @Before
+    public void setUp() {
+        overlay = new FakeOverlay(300, 400);
+        scheduler = new ManualScheduler();
+        recorder = new FrameTimeRecorder("test", scheduler);
+    }
+
+    @Test
+    public void expand_commitsTheSizeOnceAtTheEnd() {
+        OverlayTransition expand = new OverlayTransition(overlay, recorder, 1080, 1920);
+        assertEquals(3.6f, expand.getScaleX(), 0.001f);
+        assertEquals(4.8f, expand.getScaleY(), 0.001f);
+
+        expand.onStart();
+        assertTrue(overlay.hardwareLayer);
+        scheduler.run(TRANSITION_FRAMES, FRAME);
+        assertEquals(0, overlay.commits);
+
+        expand.onEnd();
+        assertEquals(1, overlay.commits);
+        assertEquals(1080, overlay.width);
+        assertEquals(1920, overlay.height);
+        assertEquals(1f, overlay.scaleX, 0f);
+        assertFalse(overlay.hardwareLayer);
+    }
+
+    @Test
+    public void transition_recordsItsFrames() {
+        OverlayTransition minimize = new OverlayTransition(overlay, recorder, 150, 200);
+
+        minimize.onStart();
+        scheduler.run(TRANSITION_FRAMES, FRAME);
+        minimize.onEnd();
+
+        assertFalse(recorder.isRecording());
+        assertFalse(scheduler.isPosted());
+        //the first frame starts the recording
+        assertEquals(TRANSITION_FRAMES - 1, recorder.getFrameCount());
+        assertEquals(0, recorder.getDroppedFrameCount());
+    }
+
+    @Test
+    public void slowTransition_recordsTheDroppedFrames() {
+        OverlayTransition expand = new OverlayTransition(overlay, recorder, 1080, 1920);
+
+        expand.onStart();
+        scheduler.run(TRANSITION_FRAMES / 2, 2 * FRAME);
+        expand.onEnd();
+
+        assertEquals(TRANSITION_FRAMES / 2 - 1, recorder.getDroppedFrameCount());
+    }
+
+    @Test
+    public void interruptedExpand_isContinuedByTheMinimize() {
+        OverlayTransition expand = new OverlayTransition(overlay, recorder, 1080, 1920);
+        expand.onStart();
+        scheduler.run(TRANSITION_FRAMES / 2, FRAME);
+        //the animator was halfway, minimize cancels it
+        overlay.setScale(2f, 2f);
+        expand.onCancel();
+        expand.onEnd();
+
+        assertEquals(0, overlay.commits);
+        assertEquals(2f, overlay.scaleX, 0f);
+        assertTrue(overlay.hardwareLayer);
+
+        //the scale stays relative to the size committed, the animator continues from the one displayed
+        OverlayTransition minimize = new OverlayTransition(overlay, recorder, 150, 200);
+        assertEquals(0.5f, minimize.getScaleX(), 0f);
+        minimize.onStart();
+        scheduler.run(TRANSITION_FRAMES, FRAME);
+        minimize.onEnd();
+
+        assertEquals(1, overlay.commits);
+        assertEquals(150, overlay.width);
+        assertEquals(1f, overlay.scaleY, 0f);
+        assertFalse(overlay.hardwareLayer);
+        assertEquals(TRANSITION_FRAMES - 1, recorder.getFrameCount());
+    }
+
+    @Test
+    public void withoutRecorder_noFrameIsScheduled() {
+        OverlayTransition expand = new OverlayTransition(overlay, null, 1080, 1920);
+
+        expand.onStart();
+        expand.onEnd();
+
+        assertFalse(scheduler.isPosted());
+        assertEquals(1, overlay.commits);
+    }
+
+    private static class FakeOverlay implements OverlayTransition.Target {
+        int width;
+        int height;
+        float scaleX = 1f;
+        float scaleY = 1f;
+        boolean hardwareLayer = false;
+        int commits = 0;
+
+        FakeOverlay(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public void setHardwareLayer(boolean enabled) {
+            hardwareLayer = enabled;
+        }
+
+        @Override
+        public void setScale(float scaleX, float scaleY) {
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+        }
+
+        @Override
+        public void commitSize(int width, int height) {
+            this.width = width;
+            this.height = height;
+            commits++;
+        }
+    }
+
+    private static class ManualScheduler implements FrameTimeRecorder.FrameScheduler {
+        private Choreographer.FrameCallback callback;
+        private long now = 1000 * FRAME;
+
+        @Override
+        public void postFrameCallback(@NonNull Choreographer.FrameCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void removeFrameCallback(@NonNull Choreographer.FrameCallback callback) {
+            if (this.callback == callback) this.callback = null;
+        }
+
+        boolean isPosted() {
+            return null != callback;
+        }
+
+        /**
+         * Draw frames, each one posts the callback of the next
+         */
+        void run(int frames, long frameTime) {
+            for (int i = 0; i < frames && null != callback; i++) {
+                Choreographer.FrameCallback current = callback;
+                callback = null;
+                now += frameTime;
+                current.doFrame(now);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+
+import com.voxeet.uxkit.utils.ParticipantIndexTest.FakeParticipant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compare the index with the four lists previously kept by the ParticipantViewAdapter
+ * <p>
+ * Each round applies the churn of a conference : a few participants change of section, one leaves and one
+ * joins, then every position is resolved as the adapter does when it binds the list.
+ */
+public class ParticipantIndexEquivalenceTest {
+
+    @Test
+    public void bothImplementations_displayTheSameSections() {
+        LegacySections legacy = new LegacySections();
+        IndexedSections indexed = new IndexedSections();
+        Conference left = new Conference(100, 42);
+        Conference right = new Conference(100, 42);
+
+        //enough rounds for the index to compact its removed entries several times
+        for (int round = 0; round < 500; round++) {
+            left.churn();
+            right.churn();
+            legacy.setUsers(left.participants);
+            indexed.setUsers(right.participants);
+
+            assertEquals(legacy.size(), indexed.size());
+            for (int position = 0; position < legacy.size(); position++) {
+                assertEquals(legacy.get(position).section, indexed.get(position).section);
+            }
+        }
+    }
+
+    private interface Sections {
+        void setUsers(@NonNull List<FakeParticipant> users);
+
+        FakeParticipant get(int position);
+
+        int size();
+    }
+
+    private static class IndexedSections implements Sections {
+        private final ParticipantIndex<FakeParticipant> index = new ParticipantIndex<>(FakeParticipant.RESOLVER);
+
+        @Override
+        public void setUsers(@NonNull List<FakeParticipant> users) {
+            index.sync(users);
+            index.refresh();
+        }
+
+        @Override
+        public FakeParticipant get(int position) {
+            ParticipantIndex.Entry<FakeParticipant> entry = index.get(position);
+            return null != entry ? entry.participant : null;
+        }
+
+        @Override
+        public int size() {
+            return index.size();
+        }
+    }
+
+    /**
+     * The algorithm of the former ParticipantViewAdapter.setUsers, without the notifications
+     */
+    private static class LegacySections implements Sections {
+        private final ArrayList<FakeParticipant> air = new ArrayList<>();
+        private final ArrayList<FakeParticipant> inv = new ArrayList<>();
+        private final ArrayList<FakeParticipant> left = new ArrayList<>();
+        private final ArrayList<FakeParticipant> other = new ArrayList<>();
+
+        @Override
+        public void setUsers(@NonNull List<FakeParticipant> users) {
+            for (FakeParticipant participant : users) {
+                if (!air.contains(participant) && !inv.contains(participant)
+                        && !left.contains(participant) && !other.contains(participant)) {
+                    add(participant);
+                }
+            }
+
+            air.removeIf(p -> !users.contains(p));
+            inv.removeIf(p -> !users.contains(p));
+            left.removeIf(p -> !users.contains(p));
+            other.removeIf(p -> !users.contains(p));
+
+            ArrayList<FakeParticipant> moved = new ArrayList<>();
+            removeIf(air, moved, ParticipantViewItem.SECTION_ON_AIR);
+            removeIf(inv, moved, ParticipantViewItem.SECTION_RESERVED);
+            removeIf(left, moved, ParticipantViewItem.SECTION_LEFT);
+            removeIf(other, moved, ParticipantViewItem.SECTION_OTHER);
+            for (FakeParticipant participant : moved) add(participant);
+        }
+
+        private static void removeIf(@NonNull ArrayList<FakeParticipant> list,
+                                     @NonNull ArrayList<FakeParticipant> moved, int section) {
+            int index = 0;
+            while (index < list.size()) {
+                FakeParticipant participant = list.get(index);
+                if (participant.section != section) {
+                    moved.add(participant);
+                    list.remove(participant);
+                } else {
+                    index++;
+                }
+            }
+        }
+
+        private void add(@NonNull FakeParticipant participant) {
+            switch (participant.section) {
+                case ParticipantViewItem.SECTION_ON_AIR:
+                    air.add(participant);
+                    break;
+                case ParticipantViewItem.SECTION_RESERVED:
+                    inv.add(participant);
+                    break;
+                case ParticipantViewItem.SECTION_LEFT:
+                    left.add(participant);
+                    break;
+                default:
+                    other.add(participant);
+            }
+        }
+
+        @Override
+        public FakeParticipant get(int position) {
+            if (position < air.size()) return air.get(position);
+            position -= air.size();
+
+            if (position < inv.size()) return inv.get(position);
+            position -= inv.size();
+
+            if (position < left.size()) return left.get(position);
+            position -= left.size();
+
+            if (position < other.size()) return other.get(position);
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return air.size() + inv.size() + left.size() + other.size();
+        }
+    }
+
+    private static class Conference {
+        private final static int TRANSITIONS_PER_ROUND = 3;
+
+        final ArrayList<FakeParticipant> participants = new ArrayList<>();
+        private final Random random;
+        private int nextId = 0;
+
+        Conference(int size, long seed) {
+            random = new Random(seed);
+            for (int i = 0; i < size; i++) participants.add(newParticipant());
+        }
+
+        void churn() {
+            for (int i = 0; i < TRANSITIONS_PER_ROUND; i++) {
+                participants.get(random.nextInt(participants.size())).section = random.nextInt(4);
+            }
+            participants.remove(random.nextInt(participants.size()));
+            participants.add(newParticipant());
+        }
+
+        @NonNull
+        private FakeParticipant newParticipant() {
+            return new FakeParticipant("p" + nextId++, random.nextInt(4));
+        }
+    }
+}
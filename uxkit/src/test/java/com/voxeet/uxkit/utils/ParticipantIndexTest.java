@@ -0,0 +1,182 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Check the positions given by the index stay in the order of first appearance through the transitions
+ */
+public class ParticipantIndexTest {
+
+    private ParticipantIndex<FakeParticipant> index;
+
+    @Before
+    public void setUp() {
+        index = new ParticipantIndex<>(FakeParticipant.RESOLVER);
+    }
+
+    @Test
+    public void participants_areGroupedBySection() {
+        FakeParticipant a = other("a");
+        FakeParticipant b = onAir("b");
+        FakeParticipant c = reserved("c");
+        index.sync(list(a, b, c));
+
+        assertOrder("b", "c", "a");
+        assertEquals(1, index.count(ParticipantViewItem.SECTION_ON_AIR));
+        assertEquals(2, index.offsetOf(ParticipantViewItem.SECTION_LEFT));
+    }
+
+    @Test
+    public void leaving_keepsTheOrderOfTheOthers() {
+        FakeParticipant a = onAir("a");
+        FakeParticipant b = onAir("b");
+        FakeParticipant c = onAir("c");
+        FakeParticipant d = onAir("d");
+        index.sync(list(a, b, c, d));
+
+        b.section = ParticipantViewItem.SECTION_LEFT;
+        index.refresh();
+
+        //d must not jump into the place of b
+        assertOrder("a", "c", "d", "b");
+        assertEquals(1, index.positionOf("c"));
+    }
+
+    @Test
+    public void comingBack_restoresTheOrderOfFirstAppearance() {
+        FakeParticipant a = onAir("a");
+        FakeParticipant b = onAir("b");
+        FakeParticipant c = onAir("c");
+        index.sync(list(a, b, c));
+
+        a.section = ParticipantViewItem.SECTION_LEFT;
+        index.refresh();
+        a.section = ParticipantViewItem.SECTION_ON_AIR;
+        index.refresh();
+
+        assertOrder("a", "b", "c");
+    }
+
+    @Test
+    public void simultaneousTransitions_areDeterministic() {
+        List<FakeParticipant> participants = new ArrayList<>();
+        for (int i = 0; i < 50; i++) participants.add(onAir("p" + i));
+        index.sync(participants);
+
+        for (int i = 0; i < 50; i += 3) participants.get(i).section = ParticipantViewItem.SECTION_RESERVED;
+        index.refresh();
+
+        int position = 0;
+        for (int i = 1; i < 50; i++) {
+            if (i % 3 != 0) assertEquals("p" + i, index.get(position++).id);
+        }
+        for (int i = 0; i < 50; i += 3) assertEquals("p" + i, index.get(position++).id);
+    }
+
+    @Test
+    public void sync_removesTheMissingParticipants() {
+        FakeParticipant a = onAir("a");
+        FakeParticipant b = onAir("b");
+        FakeParticipant c = onAir("c");
+        index.sync(list(a, b, c));
+        index.sync(list(c, a));
+
+        assertOrder("a", "c");
+        assertNull(index.get("b"));
+        assertEquals(-1, index.positionOf("b"));
+    }
+
+    @Test
+    public void stableIds_areNotReused() {
+        FakeParticipant a = onAir("a");
+        index.sync(list(a));
+        long first = index.get("a").stableId;
+
+        index.remove("a");
+        index.sync(list(a));
+
+        assertEquals(first + 1, index.get("a").stableId);
+    }
+
+    @Test
+    public void churn_keepsTheOrderOfFirstAppearanceAcrossCompactions() {
+        Random random = new Random(7);
+        //the participants in order of first appearance, as the index should display them in each section
+        List<FakeParticipant> appearances = new ArrayList<>();
+        for (int i = 0; i < 40; i++) appearances.add(new FakeParticipant("p" + i, random.nextInt(4)));
+        int nextId = appearances.size();
+
+        for (int round = 0; round < 200; round++) {
+            appearances.get(random.nextInt(appearances.size())).section = random.nextInt(4);
+            appearances.remove(random.nextInt(appearances.size()));
+            appearances.add(new FakeParticipant("p" + nextId++, random.nextInt(4)));
+            index.sync(appearances);
+
+            List<String> expected = new ArrayList<>();
+            for (int section = 0; section < 4; section++) {
+                for (FakeParticipant participant : appearances) {
+                    if (participant.section == section) expected.add(participant.id);
+                }
+            }
+            assertOrder(expected.toArray(new String[0]));
+        }
+    }
+
+    private void assertOrder(String... ids) {
+        assertEquals(ids.length, index.size());
+        for (int position = 0; position < ids.length; position++) {
+            assertEquals(ids[position], index.get(position).id);
+            assertEquals(position, index.positionOf(ids[position]));
+        }
+    }
+
+    @NonNull
+    private static List<FakeParticipant> list(FakeParticipant... participants) {
+        return Arrays.asList(participants);
+    }
+
+    private static FakeParticipant onAir(String id) {
+        return new FakeParticipant(id, ParticipantViewItem.SECTION_ON_AIR);
+    }
+
+    private static FakeParticipant reserved(String id) {
+        return new FakeParticipant(id, ParticipantViewItem.SECTION_RESERVED);
+    }
+
+    private static FakeParticipant other(String id) {
+        return new FakeParticipant(id, ParticipantViewItem.SECTION_OTHER);
+    }
+
+    static class FakeParticipant {
+        final static ParticipantIndex.Resolver<FakeParticipant> RESOLVER = new ParticipantIndex.Resolver<FakeParticipant>() {
+            @Override
+            public String idOf(@NonNull FakeParticipant item) {
+                return item.id;
+            }
+
+            @Override
+            public int sectionOf(@NonNull FakeParticipant item) {
+                return item.section;
+            }
+        };
+
+        final String id;
+        int section;
+
+        FakeParticipant(String id, int section) {
+            this.id = id;
+            this.section = section;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.voxeet.uxkit.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check the level history covers its duration whatever the sampling rate, and the talk time counters
+ */
+public class SpeakingStatisticsTest {
+
+    private final static long HISTORY = 10000;
+    private final static long BUCKET = 100;
+    private final static long GAP_TOLERANCE = 1500;
+
+    private ParticipantSlotTable slots;
+    private AudioLevelsSnapshot snapshot;
+    private AdaptiveSamplingScheduler scheduler;
+    private SpeakingStatistics statistics;
+
+    private long now;
+
+    @Before
+    public void setUp() {
+        slots = new ParticipantSlotTable();
+        snapshot = new AudioLevelsSnapshot(slots);
+        scheduler = new AdaptiveSamplingScheduler();
+        statistics = new SpeakingStatistics(HISTORY, BUCKET, GAP_TOLERANCE);
+        statistics.reset(slots);
+        now = 100000;
+    }
+
+    @Test
+    public void history_isIndexedByTime() {
+        //10 samples at the fast rate, then 5 at the idle rate
+        for (int i = 0; i < 10; i++) push(100, 0.3, 0);
+        for (int i = 0; i < 5; i++) push(1000, 0.1, 0);
+
+        float[] history = new float[statistics.getHistorySize()];
+        int count = statistics.copyHistory("a", history);
+
+        //15 samples covered 10 + 50 buckets of 100 ms
+        assertEquals(60, count);
+        assertEquals(0.3f, history[0], 0.001f);
+        assertEquals(0.3f, history[9], 0.001f);
+        assertEquals(0.1f, history[10], 0.001f);
+        assertEquals(0.1f, history[59], 0.001f);
+    }
+
+    @Test
+    public void slowSampling_coversTheHistoryDuration() {
+        //at one sample per second, the 100 buckets must still cover the last 10 s and not 100 s
+        for (int i = 0; i < 30; i++) push(1000, i < 20 ? 0.5 : 0.05, 0);
+
+        float[] history = new float[statistics.getHistorySize()];
+        int count = statistics.copyHistory("a", history);
+
+        assertEquals(100, count);
+        for (int i = 0; i < count; i++) assertEquals(0.05f, history[i], 0.001f);
+    }
+
+    @Test
+    public void suspendedSampling_isNotHeld() {
+        push(100, 0.4, 0);
+        //the application went to the background for 5 s
+        push(5000, 0.2, 0);
+
+        float[] history = new float[statistics.getHistorySize()];
+        int count = statistics.copyHistory("a", history);
+
+        assertEquals(51, count);
+        assertEquals(0.4f, history[0], 0.001f);
+        assertEquals(0f, history[25], 0.001f);
+        assertEquals(0.2f, history[50], 0.001f);
+    }
+
+    @Test
+    public void samplesInTheSameBucket_keepTheLoudest() {
+        push(100, 0.1, 0);
+        push(30, 0.6, 0);
+        push(30, 0.2, 0);
+
+        float[] history = new float[statistics.getHistorySize()];
+        int count = statistics.copyHistory("a", history);
+
+        assertEquals(1, count);
+        assertEquals(0.6f, history[0], 0.001f);
+    }
+
+    @Test
+    public void history_neverGrows() {
+        //8 hours at the fast rate
+        for (int i = 0; i < 8 * 36000; i++) push(100, 0.3, 0.001);
+
+        float[] history = new float[2 * statistics.getHistorySize()];
+
+        assertEquals(statistics.getHistorySize(), statistics.copyHistory("a", history));
+        assertEquals(8 * 3600 * 1000L - 100, statistics.getTalkTime("a"));
+    }
+
+    @Test
+    public void talkTime_followsTheSamplingInterval() {
+        push(100, 0.3, 0.001);
+        for (int i = 0; i < 10; i++) push(100, 0.3, 0.001);
+        for (int i = 0; i < 4; i++) push(500, 0.001, 0.3);
+
+        assertEquals(1000, statistics.getTalkTime("a"));
+        assertEquals(2000, statistics.getTalkTime("b"));
+        assertEquals(3000, statistics.getTotalTalkTime());
+        assertEquals(2 / 3d, statistics.getShareOfVoice("b"), 0.001);
+    }
+
+    @Test
+    public void suspendedPeriods_areNotCountedAsTalkTime() {
+        push(100, 0.3, 0);
+        push(60000, 0.3, 0);
+
+        assertEquals(1000, statistics.getTalkTime("a"));
+    }
+
+    @Test
+    public void longestMonologue_toleratesShortPauses() {
+        for (int i = 0; i < 20; i++) push(100, 0.3, 0);
+        //a pause under the tolerance
+        for (int i = 0; i < 10; i++) push(100, 0.001, 0);
+        for (int i = 0; i < 10; i++) push(100, 0.3, 0);
+        //a pause over the tolerance
+        for (int i = 0; i < 20; i++) push(100, 0.001, 0);
+        for (int i = 0; i < 5; i++) push(100, 0.3, 0);
+
+        assertEquals(3900, statistics.getLongestMonologue("a"));
+    }
+
+    @Test
+    public void reset_forgetsEverything() {
+        for (int i = 0; i < 10; i++) push(100, 0.3, 0);
+
+        statistics.reset(new ParticipantSlotTable());
+
+        assertEquals(0, statistics.getTalkTime("a"));
+        assertEquals(0, statistics.copyHistory("a", new float[10]));
+    }
+
+    private void push(long elapsed, double a, double b) {
+        now += elapsed;
+        snapshot.reset();
+        snapshot.set(slots.intern("a"), a, true);
+        snapshot.set(slots.intern("b"), b, true);
+        statistics.push(snapshot, scheduler, now);
+    }
+}
@@ -0,0 +1,236 @@
+package com.voxeet.uxkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.voxeet.android.media.stream.MediaStreamType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Count the renderer operations issued by the VideoLayoutReconciler in the usual conference scenarios
+ */
+public class VideoLayoutReconcilerTest {
+
+    private CountingRenderer main;
+    private CountingRenderer self;
+    private CountingTarget speakerView;
+    private VideoLayoutReconciler<String> reconciler;
+
+    @Before
+    public void setUp() {
+        main = new CountingRenderer();
+        self = new CountingRenderer();
+        speakerView = new CountingTarget();
+        reconciler = new VideoLayoutReconciler<>(main, self, speakerView);
+    }
+
+    @Test
+    public void firstLayout_attachesOnce() {
+        reconciler.apply(layout("alice", "alice-camera", true));
+
+        assertEquals(2, main.attaches + self.attaches);
+        assertEquals(0, main.detaches + self.detaches);
+        assertTrue(main.visible);
+        assertTrue(self.visible);
+    }
+
+    @Test
+    public void sameLayout_issuesNoOperation() {
+        reconciler.apply(layout("alice", "alice-camera", true));
+        long operations = total();
+
+        reconciler.apply(layout("alice", "alice-camera", true));
+        reconciler.apply(layout("alice", "alice-camera", true));
+
+        assertEquals(operations, total());
+    }
+
+    @Test
+    public void speakerSwitch_detachesAndAttachesMainOnly() {
+        reconciler.apply(layout("alice", "alice-camera", true));
+        long operations = total();
+
+        reconciler.apply(layout("bob", "bob-camera", true));
+
+        assertEquals(1, main.detaches);
+        assertEquals(2, main.attaches);
+        assertEquals(1, self.attaches);
+        assertEquals(operations + 2, total());
+    }
+
+    @Test
+    public void newStreamForSamePeer_isAttachedAgain() {
+        reconciler.apply(layout("alice", "alice-camera", true));
+        reconciler.apply(layout("alice", "alice-camera-2", true));
+
+        assertEquals(1, main.detaches);
+        assertEquals(2, main.attaches);
+    }
+
+    @Test
+    public void externalAttachOfSamePeer_isKept() {
+        main.attach("alice", "alice-camera");
+        main.visible = true;
+        main.attaches = 0;
+
+        reconciler.apply(layout("alice", "alice-camera", true));
+
+        assertEquals(0, main.attaches);
+        assertEquals(0, main.detaches);
+    }
+
+    @Test
+    public void noParticipantLeft_hidesWithoutDetaching() {
+        reconciler.apply(layout("alice", "alice-camera", true));
+        long operations = total();
+
+        VideoLayout<String> alone = new VideoLayout<>(
+                VideoLayout.Slot.of("alice", MediaStreamType.Camera, "alice-camera", false, false),
+                self(true), false);
+        reconciler.apply(alone);
+
+        assertEquals(0, main.detaches);
+        assertEquals(operations + 1, total());
+    }
+
+    @Test
+    public void noVideo_showsSpeakerView() {
+        reconciler.apply(layout("alice", "alice-camera", true));
+        long operations = total();
+
+        reconciler.apply(new VideoLayout<>(VideoLayout.Slot.none(false), self(true), true));
+
+        assertEquals(1, main.detaches);
+        assertTrue(speakerView.visible);
+        //detach, hide the main video, show the speaker view
+        assertEquals(operations + 3, total());
+    }
+
+    @Test
+    public void mirrorChange_isTheOnlyOperation() {
+        reconciler.apply(layout("alice", "alice-camera", true));
+        long operations = total();
+
+        reconciler.apply(new VideoLayout<>(main("alice", "alice-camera"), self(false), false));
+
+        assertEquals(operations + 1, total());
+        assertEquals(false, self.mirror);
+    }
+
+    @Test
+    public void externalMirrorChange_isRestoredAfterInvalidation() {
+        reconciler.apply(layout("alice", "alice-camera", true));
+        //the camera was switched outside of the reconciler
+        self.setMirror(false);
+        reconciler.invalidateMirror();
+        long operations = total();
+
+        reconciler.apply(layout("alice", "alice-camera", true));
+
+        assertEquals(operations + 2, total());
+        assertEquals(true, self.mirror);
+    }
+
+    private long total() {
+        return main.operations() + self.operations() + speakerView.operations;
+    }
+
+    @NonNull
+    private static VideoLayout<String> layout(@NonNull String peerId, @NonNull String stream, boolean mirrorSelf) {
+        return new VideoLayout<>(main(peerId, stream), self(mirrorSelf), false);
+    }
+
+    @NonNull
+    private static VideoLayout.Slot<String> main(@NonNull String peerId, @NonNull String stream) {
+        return VideoLayout.Slot.of(peerId, MediaStreamType.Camera, stream, false, true);
+    }
+
+    @NonNull
+    private static VideoLayout.Slot<String> self(boolean mirror) {
+        return VideoLayout.Slot.of("me", MediaStreamType.Camera, "my-camera", mirror, true);
+    }
+
+    private static class CountingTarget implements VideoLayoutReconciler.Target {
+        boolean visible = false;
+        int operations = 0;
+
+        @Override
+        public boolean isVisible() {
+            return visible;
+        }
+
+        @Override
+        public void setVisible(boolean visible) {
+            this.visible = visible;
+            operations++;
+        }
+    }
+
+    private static class CountingRenderer implements VideoLayoutReconciler.Renderer<String> {
+        boolean visible = false;
+        boolean mirror = false;
+        String peerId;
+        String stream;
+        int attaches = 0;
+        int detaches = 0;
+        int visibilities = 0;
+        int mirrors = 0;
+
+        int operations() {
+            return attaches + detaches + visibilities + mirrors;
+        }
+
+        @Override
+        public boolean isVisible() {
+            return visible;
+        }
+
+        @Override
+        public void setVisible(boolean visible) {
+            this.visible = visible;
+            visibilities++;
+        }
+
+        @Override
+        public boolean isAttached() {
+            return null != stream;
+        }
+
+        @Nullable
+        @Override
+        public String getPeerId() {
+            return peerId;
+        }
+
+        @Nullable
+        @Override
+        public MediaStreamType getType() {
+            return null != stream ? MediaStreamType.Camera : null;
+        }
+
+        @Override
+        public void attach(@NonNull String peerId, @NonNull String stream) {
+            this.peerId = peerId;
+            this.stream = stream;
+            attaches++;
+        }
+
+        @Override
+        public void detach() {
+            peerId = null;
+            stream = null;
+            detaches++;
+        }
+
+        @Override
+        public void setMirror(boolean mirror) {
+            this.mirror = mirror;
+            mirrors++;
+        }
+    }
+}